@@ -0,0 +1,69 @@
+package com.benchmarks;
+
+import com.database.ActivitySessionDAO;
+import com.models.ActivitySession;
+import com.models.Recommendation;
+import com.services.AnalyticsService.MonthlyAnalytics;
+import com.services.AnalyticsService.WeeklyAnalytics;
+import com.services.RecommendationService;
+import com.services.ServiceRegistry;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Analytics construction over prefetched sessions, and recommendations end to end
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class AnalyticsBenchmark {
+    private LocalDate weekStart;
+    private LocalDate weekEnd;
+    private List<ActivitySession> week;
+    private YearMonth month;
+    private List<ActivitySession> monthSessions;
+    private RecommendationService recommendations;
+    private int day;
+
+    @Setup(Level.Trial)
+    public void prefetch(BenchmarkDatabase db) {
+        ActivitySessionDAO sessionDAO = new ActivitySessionDAO();
+        weekEnd = db.today;
+        weekStart = db.today.minusDays(6);
+        week = sessionDAO.getSessionsByDateRange(db.userId, weekStart, weekEnd);
+        month = YearMonth.from(db.today.minusDays(Math.min(db.days, 31) / 2));
+        monthSessions = sessionDAO.getSessionsByDateRange(db.userId, month.atDay(1), month.atEndOfMonth());
+        recommendations = ServiceRegistry.getInstance().get(RecommendationService.class);
+    }
+
+    @Benchmark
+    public WeeklyAnalytics weeklyConstruction() {
+        return new WeeklyAnalytics(weekStart, weekEnd, week);
+    }
+
+    @Benchmark
+    public MonthlyAnalytics monthlyConstruction() {
+        return new MonthlyAnalytics(month.getYear(), month.getMonthValue(), monthSessions);
+    }
+
+    @Benchmark
+    public List<Recommendation> generateRecommendations(BenchmarkDatabase db) {
+        return recommendations.generateRecommendations(db.userId, db.today.minusDays(day++ % db.days));
+    }
+}
@@ -0,0 +1,66 @@
+package com.benchmarks;
+
+import com.database.DBConnection;
+import com.services.ServiceRegistry;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Scratch SQLite database seeded to the benchmarked number of sessions
+ *
+ * Every fork is a fresh JVM, so the database and session journal are created
+ * in a temporary directory per fork and deleted afterwards. Nothing may touch
+ * DBConnection before seed() has set their paths: benchmark states create
+ * their DAOs in a trial setup that takes this state, never in a field
+ * initializer. The read benchmarks query the first seeded user,
+ * whose data is the same at every size above one year; only the table grows.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+    @Param({"1000", "100000"})
+    public long sessions;
+
+    public int userId;
+    public int days;
+    public LocalDate today;
+
+    private Path scratch;
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        scratch = Files.createTempDirectory("intellicoach-bench");
+        System.setProperty("intellicoach.db", scratch.resolve("bench.db").toString());
+        System.setProperty("intellicoach.journal", scratch.resolve("bench.journal").toString());
+
+        SessionSeeder seeder = new SessionSeeder();
+        seeder.growTo(sessions);
+        userId = seeder.getFirstUserId();
+        days = seeder.getFirstUserDays();
+        today = LocalDate.now();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() {
+        ServiceRegistry.shutdownIfStarted();
+        DBConnection.getInstance().disconnect();
+        deleteRecursively(scratch.toFile());
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,52 @@
+package com.benchmarks;
+
+import com.database.ActivitySessionDAO;
+import com.models.ActivitySession;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * DAO read paths behind the dashboard and the Reports page
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class DaoBenchmark {
+    private static final int REPORT_DAYS = 30;
+
+    private ActivitySessionDAO sessionDAO;
+    private int day;
+
+    @Setup(Level.Trial)
+    public void open(BenchmarkDatabase db) {
+        sessionDAO = new ActivitySessionDAO();
+    }
+
+    /**
+     * One day's totals, a different day each call so the page cache is not all that is measured
+     */
+    @Benchmark
+    public Map<String, Integer> getTotalTimeByActivity(BenchmarkDatabase db) {
+        return sessionDAO.getTotalTimeByActivity(db.userId, db.today.minusDays(day++ % db.days));
+    }
+
+    @Benchmark
+    public List<ActivitySession> getSessionsByDateRange30d(BenchmarkDatabase db) {
+        return sessionDAO.getSessionsByDateRange(db.userId, db.today.minusDays(REPORT_DAYS - 1), db.today);
+    }
+}
@@ -0,0 +1,61 @@
+package com.benchmarks;
+
+import com.database.ActivitySessionDAO;
+import com.database.UserDAO;
+import com.models.ActivitySession;
+import com.models.User;
+import com.services.ReportFormatter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Report formatting as done by the Reports page, over 30 prefetched days
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ReportBenchmark {
+    private static final int REPORT_DAYS = 30;
+
+    private User user;
+    private LocalDate from;
+    private LocalDate to;
+    private List<ActivitySession> sessions;
+
+    @Setup(Level.Trial)
+    public void prefetch(BenchmarkDatabase db) {
+        user = new UserDAO().findById(db.userId);
+        to = db.today;
+        from = db.today.minusDays(REPORT_DAYS - 1);
+        sessions = new ActivitySessionDAO().getSessionsByDateRange(db.userId, from, to);
+    }
+
+    @Benchmark
+    public String formatText30d() {
+        return ReportFormatter.formatTextReport(user, from, to, sessions);
+    }
+
+    @Benchmark
+    public StringWriter writeCsv30d() throws IOException {
+        StringWriter csv = new StringWriter();
+        ReportFormatter.writeCsv(csv, sessions);
+        return csv;
+    }
+}
@@ -0,0 +1,91 @@
+package com.benchmarks;
+
+import com.database.ActivitySessionDAO;
+import com.database.UserDAO;
+import com.models.ActivitySession;
+import com.models.User;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Start and Stop on the shared connection, measured separately
+ *
+ * A start on a user with an active session also stops that session, so each
+ * benchmark brings the writer into the state it needs in an invocation-level
+ * setup, outside the measured time: no active session before a start, one
+ * active session before a stop. Each call is a committed SQLite write, far
+ * above the millisecond granularity where invocation setups distort results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SessionWriteBenchmark {
+
+    /**
+     * A user of its own, so the writes do not change the data the read benchmarks query
+     */
+    @State(Scope.Thread)
+    public static class Writer {
+        ActivitySessionDAO sessionDAO;
+        int userId;
+        LocalDateTime clock = LocalDateTime.now();
+
+        @Setup(Level.Trial)
+        public void create(BenchmarkDatabase db) {
+            sessionDAO = new ActivitySessionDAO();
+            UserDAO userDAO = new UserDAO();
+            User writer = userDAO.findByUsername("bench-writer");
+            if (writer == null) {
+                writer = userDAO.save(new User("bench-writer", "bench-writer@bench.local", "x", "Bench Writer"));
+            }
+            userId = writer.getUserId();
+        }
+
+        /**
+         * The next event time; a minute apart, so sessions never overlap
+         */
+        LocalDateTime tick() {
+            clock = clock.plusMinutes(1);
+            return clock;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class NoActiveSession {
+        @Setup(Level.Invocation)
+        public void stopActive(Writer writer) {
+            writer.sessionDAO.stopActiveSession(writer.userId, writer.tick());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ActiveSession {
+        @Setup(Level.Invocation)
+        public void start(Writer writer) {
+            writer.sessionDAO.startSession(writer.userId, "Academic", writer.tick());
+        }
+    }
+
+    @Benchmark
+    public ActivitySession startSession(Writer writer, NoActiveSession idle) {
+        return writer.sessionDAO.startSession(writer.userId, "Academic", writer.tick());
+    }
+
+    @Benchmark
+    public boolean stopActiveSession(Writer writer, ActiveSession active) {
+        return writer.sessionDAO.stopActiveSession(writer.userId, writer.tick());
+    }
+}
@@ -0,0 +1,94 @@
+package com.benchmarks;
+
+import com.database.UserAvailabilityFilter;
+import com.database.UserDAO;
+import com.models.User;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Username availability benchmark (console application)
+ * Compares the Bloom-filter check with a plain EXISTS query on a large users table.
+ *
+ * Usage: gradle :benchmarks:availabilityBenchmark -Dintellicoach.db=database/bench.db
+ *            --args="[users=1000000] [lookups=200000]"
+ */
+public class AvailabilityBenchmark {
+    private static final int SEED_CHUNK = 10_000;
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        UserDAO userDAO = new UserDAO();
+        seed(userDAO, users);
+
+        long start = System.nanoTime();
+        UserAvailabilityFilter filter = UserAvailabilityFilter.getInstance();
+        System.out.printf("Filter build:            %,d ms (capacity %,d)%n",
+                (System.nanoTime() - start) / 1_000_000, filter.getCapacity());
+
+        // Warm up both paths before measuring
+        runFilter(filter, "warmup-", lookups / 10);
+        runQuery(userDAO, "warmup-", lookups / 10);
+
+        start = System.nanoTime();
+        int taken = runFilter(filter, "free-user-", lookups);
+        report("Filter, free names", lookups, System.nanoTime() - start, taken);
+
+        start = System.nanoTime();
+        taken = runQuery(userDAO, "free-user-", lookups);
+        report("EXISTS, free names", lookups, System.nanoTime() - start, taken);
+
+        int takenLookups = Math.min(lookups, users);
+        start = System.nanoTime();
+        taken = runFilter(filter, "bench-user-", takenLookups);
+        report("Filter, taken names", takenLookups, System.nanoTime() - start, taken);
+
+        System.out.printf("Definite negatives %,d, confirmed positives %,d, false positives %,d%n",
+                filter.getDefiniteNegatives(), filter.getConfirmedPositives(), filter.getFalsePositives());
+    }
+
+    private static void seed(UserDAO userDAO, int users) {
+        long existing = userDAO.count();
+        if (existing >= users) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<User> chunk = new ArrayList<>(SEED_CHUNK);
+        for (long i = existing; i < users; i++) {
+            chunk.add(new User("bench-user-" + i, "bench-user-" + i + "@bench.local", "x", "Bench User"));
+            if (chunk.size() == SEED_CHUNK || i == users - 1) {
+                userDAO.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        System.out.printf("Seeded %,d users in %,d ms%n", users - existing, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static int runFilter(UserAvailabilityFilter filter, String prefix, int count) {
+        int taken = 0;
+        for (int i = 0; i < count; i++) {
+            if (filter.isUsernameTaken(prefix + i)) {
+                taken++;
+            }
+        }
+        return taken;
+    }
+
+    private static int runQuery(UserDAO userDAO, String prefix, int count) {
+        int taken = 0;
+        for (int i = 0; i < count; i++) {
+            if (userDAO.usernameExists(prefix + i)) {
+                taken++;
+            }
+        }
+        return taken;
+    }
+
+    private static void report(String name, int count, long nanos, int taken) {
+        System.out.printf("%-24s %,10.0f ns/op  %,12.0f ops/s  (taken %,d)%n",
+                name + ":", (double) nanos / count, count * 1e9 / nanos, taken);
+    }
+}
@@ -0,0 +1,287 @@
+package com.benchmarks;
+
+import com.api.JsonWriter;
+import com.database.DBConnection;
+import com.database.SlowQueryLog;
+import com.metrics.LatencyHistogram;
+import com.models.ActivitySession;
+import com.models.ActivityType;
+import com.models.User;
+import com.services.AnalyticsService;
+import com.services.ReportFormatter;
+import com.services.ServiceRegistry;
+import com.services.TimeTrackingService;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Multi-user load test through the service layer (console application)
+ *
+ * Simulated users start and stop activities, open their analytics and build a
+ * 30-day report, in a configurable mix, each operation on its own virtual
+ * thread. Two modes:
+ * - fixed rate (--rate=N): operation i is due at start + i/N seconds and is
+ *   launched then whether or not earlier ones finished. Latency is measured
+ *   from the due time, not from when the operation actually started, so a
+ *   stall is charged to every operation that queued behind it (no
+ *   coordinated omission)
+ * - closed loop (--rate=0): --concurrency users each run one operation after
+ *   another; latency is service time only, useful for peak throughput
+ *
+ * Prints throughput and p50/p90/p99/p99.9/max per operation. With
+ * -Dintellicoach.strictPlans=true, exits with status 1 if a hot query did a
+ * full table scan during the run.
+ *
+ * Usage: gradle :benchmarks:loadTest -Dintellicoach.db=database/load.db
+ *            --args="[--users=1000] [--years=1] [--duration=30] [--rate=200] [--concurrency=64]
+ *            [--mix=start:30,stop:30,analytics:25,report:15] [--seed=42] [--out=logs/loadtest.json]"
+ */
+public class LoadTest {
+    private static final int REPORT_DAYS = 30;
+    private static final double[] QUANTILES = {0.50, 0.90, 0.99, 0.999};
+    private static final String[] QUANTILE_NAMES = {"p50", "p90", "p99", "p99.9"};
+
+    private final List<User> users;
+    private final String[] mix;
+    private final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+    private final Map<String, LongAdder> errors = new LinkedHashMap<>();
+    private final TimeTrackingService timeTrackingService;
+    private final AnalyticsService analyticsService;
+    private final String[] activities;
+
+    public static void main(String[] args) throws Exception {
+        int users = 1_000;
+        int years = 1;
+        int durationSeconds = 30;
+        int rate = 200;
+        int concurrency = 64;
+        long seed = 42;
+        String mix = "start:30,stop:30,analytics:25,report:15";
+        String out = null;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--users=")) {
+                users = Integer.parseInt(value);
+            } else if (arg.startsWith("--years=")) {
+                years = Integer.parseInt(value);
+            } else if (arg.startsWith("--duration=")) {
+                durationSeconds = Integer.parseInt(value);
+            } else if (arg.startsWith("--rate=")) {
+                rate = Integer.parseInt(value);
+            } else if (arg.startsWith("--concurrency=")) {
+                concurrency = Integer.parseInt(value);
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(value);
+            } else if (arg.startsWith("--mix=")) {
+                mix = value;
+            } else if (arg.startsWith("--out=")) {
+                out = value;
+            }
+        }
+
+        List<String> violations;
+        try {
+            List<User> loadUsers = new WorkloadGenerator(seed).generate(users, years);
+            LoadTest test = new LoadTest(loadUsers, mix);
+            long elapsed = rate > 0
+                    ? test.runFixedRate(rate, durationSeconds)
+                    : test.runClosedLoop(concurrency, durationSeconds);
+            test.printResults(elapsed);
+            if (out != null) {
+                test.writeJson(Paths.get(out), elapsed, rate, concurrency);
+                System.out.println("Results written to " + out);
+            }
+            violations = SlowQueryLog.getInstance().getViolations();
+        } finally {
+            ServiceRegistry.shutdownIfStarted();
+            DBConnection.getInstance().disconnect();
+        }
+        if (!violations.isEmpty()) {
+            for (String violation : violations) {
+                System.out.println("FAIL " + violation);
+            }
+            System.exit(1);
+        }
+    }
+
+    public LoadTest(List<User> users, String mix) {
+        this.users = users;
+        this.mix = parseMix(mix);
+        for (String operation : this.mix) {
+            latencies.putIfAbsent(operation, new LatencyHistogram());
+            errors.putIfAbsent(operation, new LongAdder());
+        }
+        ServiceRegistry registry = ServiceRegistry.getInstance();
+        this.timeTrackingService = registry.get(TimeTrackingService.class);
+        this.analyticsService = registry.get(AnalyticsService.class);
+
+        ActivityType[] types = ActivityType.values();
+        this.activities = new String[types.length];
+        for (int i = 0; i < types.length; i++) {
+            activities[i] = types[i].getDisplayName();
+        }
+    }
+
+    /**
+     * Open model: launch operations at a fixed rate; returns elapsed nanos
+     */
+    public long runFixedRate(int perSecond, int durationSeconds) {
+        long period = 1_000_000_000L / perSecond;
+        long total = (long) perSecond * durationSeconds;
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < total; i++) {
+                long due = start + i * period;
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                String operation = pick();
+                executor.execute(() -> execute(operation, due));
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Closed model: a fixed number of users, each issuing operations back to back
+     */
+    public long runClosedLoop(int concurrency, int durationSeconds) {
+        long start = System.nanoTime();
+        long deadline = start + durationSeconds * 1_000_000_000L;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                executor.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        execute(pick(), System.nanoTime());
+                    }
+                });
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private String pick() {
+        return mix[ThreadLocalRandom.current().nextInt(mix.length)];
+    }
+
+    /**
+     * Run one operation for a random user and record its latency from the given start
+     */
+    private void execute(String operation, long intendedStart) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        User user = users.get(random.nextInt(users.size()));
+        int userId = user.getUserId();
+        boolean ok;
+        try {
+            switch (operation) {
+                case "start":
+                    ok = timeTrackingService.startActivity(userId, activities[random.nextInt(activities.length)]) != null;
+                    break;
+                case "stop":
+                    // Nothing to stop is a valid outcome, not an error
+                    timeTrackingService.stopActivity(userId);
+                    ok = true;
+                    break;
+                case "analytics":
+                    ok = analyticsService.getWeeklyAnalytics(userId, LocalDate.now().minusDays(1)) != null
+                            && analyticsService.getDailyAnalytics(userId, LocalDate.now()) != null;
+                    break;
+                case "report":
+                    LocalDate end = LocalDate.now();
+                    LocalDate begin = end.minusDays(REPORT_DAYS - 1);
+                    List<ActivitySession> sessions = timeTrackingService.getReportSessions(userId, begin, end);
+                    ok = !ReportFormatter.formatTextReport(user, begin, end, sessions).isEmpty();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operation: " + operation);
+            }
+        } catch (RuntimeException e) {
+            System.err.println(" " + operation + " failed: " + e.getMessage());
+            ok = false;
+        }
+        latencies.get(operation).record(System.nanoTime() - intendedStart);
+        if (!ok) {
+            errors.get(operation).increment();
+        }
+    }
+
+    public void printResults(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%-10s %10s %10s %10s %10s %10s %10s %10s %8s%n",
+                "operation", "count", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+            LatencyHistogram.Snapshot snapshot = entry.getValue().snapshot();
+            System.out.printf("%-10s %,10d %,10.1f %10.2f %10.2f %10.2f %10.2f %10.2f %,8d%n",
+                    entry.getKey(), snapshot.getCount(), snapshot.getCount() / seconds,
+                    snapshot.getMillisAtQuantile(0.50), snapshot.getMillisAtQuantile(0.90),
+                    snapshot.getMillisAtQuantile(0.99), snapshot.getMillisAtQuantile(0.999),
+                    snapshot.getMaxNanos() / 1_000_000.0, errors.get(entry.getKey()).sum());
+        }
+    }
+
+    /**
+     * Write the per-operation results as one JSON document
+     */
+    public void writeJson(Path path, long elapsedNanos, int rate, int concurrency) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        double seconds = elapsedNanos / 1e9;
+        try (OutputStream stream = Files.newOutputStream(path); JsonWriter json = new JsonWriter(stream)) {
+            json.beginObject()
+                    .field("runAt", LocalDateTime.now().withNano(0).toString())
+                    .field("mode", rate > 0 ? "fixed-rate" : "closed-loop")
+                    .field("rate", rate)
+                    .field("concurrency", concurrency)
+                    .field("users", users.size())
+                    .field("seconds", Math.round(seconds * 10) / 10.0)
+                    .name("operations").beginObject();
+            for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+                LatencyHistogram.Snapshot snapshot = entry.getValue().snapshot();
+                json.name(entry.getKey()).beginObject()
+                        .field("count", snapshot.getCount())
+                        .field("opsPerSecond", Math.round(snapshot.getCount() / seconds * 10) / 10.0)
+                        .field("errors", errors.get(entry.getKey()).sum());
+                for (int i = 0; i < QUANTILES.length; i++) {
+                    json.field(QUANTILE_NAMES[i], snapshot.getMillisAtQuantile(QUANTILES[i]));
+                }
+                json.field("max", snapshot.getMaxNanos() / 1_000_000.0).endObject();
+            }
+            json.endObject().endObject();
+        }
+    }
+
+    /**
+     * Expand "start:30,stop:30" into a 60-entry array to pick from uniformly
+     */
+    private static String[] parseMix(String mix) {
+        List<String> expanded = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] nameAndWeight = part.trim().split(":");
+            int weight = nameAndWeight.length > 1 ? Integer.parseInt(nameAndWeight[1]) : 1;
+            for (int i = 0; i < weight; i++) {
+                expanded.add(nameAndWeight[0]);
+            }
+        }
+        if (expanded.isEmpty()) {
+            throw new IllegalArgumentException("Empty operation mix");
+        }
+        return expanded.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,235 @@
+package com.benchmarks;
+
+import com.database.ActivitySessionDAO;
+import com.database.DBConnection;
+import com.database.RecommendationDAO;
+import com.database.SchemaMigrations;
+import com.database.SlowQueryLog;
+import com.database.UserDAO;
+import com.models.User;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Query plan verification harness (console application)
+ *
+ * Runs every DAO query that reports its SQL against a small generated
+ * database and asserts the access path SQLite plans for it: the index it must
+ * use, and no table scan or temporary sort B-tree unless the expectation
+ * names that step. Plans are captured by the slow-query log with a zero
+ * threshold, so the harness checks the SQL the DAOs actually run. A DAO query
+ * without an expectation, or an expectation no query matched, fails as well,
+ * so new queries have to be added here.
+ *
+ * Exits with status 1 on any failure.
+ *
+ * Usage: gradle :benchmarks:queryPlanCheck --args="[--users=10] [--seed=42]"
+ *        (uses a temporary database unless -Dintellicoach.db is given)
+ */
+public class QueryPlanCheck {
+    private static final String PK = "USING INTEGER PRIMARY KEY";
+
+    // Query name -> plan steps that must appear (by substring)
+    private final Map<String, String[]> expected = new LinkedHashMap<>();
+
+    public QueryPlanCheck() {
+        for (String dao : new String[] {"ActivitySessionDAO", "RecommendationDAO", "UserDAO"}) {
+            String table = dao.equals("ActivitySessionDAO") ? "activity_sessions"
+                    : dao.equals("RecommendationDAO") ? "recommendations" : "users";
+            expect(dao + ".findById", "SEARCH " + table + " " + PK);
+            expect(dao + ".existsById", "SEARCH " + table + " " + PK);
+            expect(dao + ".deleteById", "SEARCH " + table + " " + PK);
+            // COUNT(*) reads the smallest index by design
+            expect(dao + ".count", "SCAN " + table);
+        }
+
+        expect("ActivitySessionDAO.getActiveSession", "SEARCH activity_sessions USING INDEX idx_sessions_one_active (user_id=?)");
+        // Walks the partial index, i.e. the active sessions only
+        expect("ActivitySessionDAO.getAllActiveSessions", "SCAN activity_sessions USING INDEX idx_sessions_one_active");
+        expect("ActivitySessionDAO.getSessionsByDate",
+                "SEARCH activity_sessions USING INDEX idx_sessions_user_date_start (user_id=? AND session_date=?)");
+        expect("ActivitySessionDAO.getSessionsByDateRange",
+                "SEARCH activity_sessions USING INDEX idx_sessions_user_date_start (user_id=? AND session_date>? AND session_date<?)");
+        expect("ActivitySessionDAO.getTotalTimeByActivity",
+                "SEARCH activity_sessions USING COVERING INDEX idx_sessions_daily_totals (user_id=? AND session_date=?)");
+        expect("ActivitySessionDAO.stopActiveSession", "SEARCH activity_sessions " + PK);
+        // Whole-table export in start order
+        expect("ActivitySessionDAO.findAll", "SCAN activity_sessions", "USE TEMP B-TREE FOR ORDER BY");
+
+        expect("RecommendationDAO.findByUserAndDate",
+                "SEARCH recommendations USING INDEX idx_recommendations_user_date (user_id=? AND based_on_date=?)");
+        expect("RecommendationDAO.findAll", "SCAN recommendations", "USE TEMP B-TREE FOR ORDER BY");
+
+        expect("UserDAO.findByUsername", "SEARCH users USING INDEX sqlite_autoindex_users_1 (username=?)");
+        expect("UserDAO.findByEmail", "SEARCH users USING INDEX sqlite_autoindex_users_2 (email=?)");
+        expect("UserDAO.findByUsernameOrEmail", "MULTI-INDEX OR",
+                "INDEX 1", "sqlite_autoindex_users_1 (username=?)",
+                "INDEX 2", "sqlite_autoindex_users_2 (email=?)", "USE TEMP B-TREE FOR ORDER BY");
+        expect("UserDAO.usernameExists", "SEARCH users USING COVERING INDEX sqlite_autoindex_users_1 (username=?)");
+        expect("UserDAO.emailExists", "SEARCH users USING COVERING INDEX sqlite_autoindex_users_2 (email=?)");
+        // Newest users: walks the rowid backwards and stops after LIMIT rows
+        expect("UserDAO.findMostRecent", "SCAN users");
+        expect("UserDAO.forEachUsernameAndEmail", "SCAN users");
+        expect("UserDAO.forEachConflict", "sqlite_autoindex_users_1 (username=?)", "sqlite_autoindex_users_2 (email=?)");
+        expect("UserDAO.findAll", "SCAN users");
+        expect("UserDAO.update", "SEARCH users " + PK);
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        int users = 10;
+        long seed = 42;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--users=")) {
+                users = Integer.parseInt(value);
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(value);
+            }
+        }
+
+        // Must be set before the database and slow-query log are first used
+        File scratch = Files.createTempDirectory("intellicoach-plans").toFile();
+        if (System.getProperty("intellicoach.db") == null) {
+            System.setProperty("intellicoach.db", new File(scratch, "plans.db").getPath());
+        }
+        System.setProperty("intellicoach.slowQueryMillis", "0");
+        System.setProperty("intellicoach.slowQueryLog", new File(scratch, "plans.log").getPath());
+
+        boolean passed;
+        try {
+            List<User> loadUsers = new WorkloadGenerator(seed).generate(users, 1);
+            QueryPlanCheck check = new QueryPlanCheck();
+            check.runQueries(loadUsers.get(0));
+            passed = check.verify(SlowQueryLog.getInstance().getPlans());
+        } finally {
+            DBConnection.getInstance().disconnect();
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Run every DAO query with SQL once, so the slow-query log captures its plan
+     */
+    public void runQueries(User user) throws SQLException {
+        int userId = user.getUserId();
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        UserDAO userDAO = new UserDAO();
+        ActivitySessionDAO sessionDAO = new ActivitySessionDAO();
+        RecommendationDAO recommendationDAO = new RecommendationDAO();
+
+        userDAO.findById(userId);
+        userDAO.existsById(userId);
+        userDAO.deleteById(-1);
+        userDAO.count();
+        userDAO.findByUsername(user.getUsername());
+        userDAO.findByEmail(user.getEmail());
+        userDAO.findByUsernameOrEmail(user.getUsername());
+        userDAO.usernameExists(user.getUsername());
+        userDAO.emailExists(user.getEmail());
+        userDAO.findMostRecent(5);
+        userDAO.forEachUsernameAndEmail((username, email) -> { });
+        userDAO.forEachConflict(List.of(user.getUsername()), List.of(user.getEmail()), (username, email) -> { });
+        userDAO.findAll();
+        userDAO.update(user);
+
+        sessionDAO.findById(-1);
+        sessionDAO.existsById(-1);
+        sessionDAO.deleteById(-1);
+        sessionDAO.count();
+        LocalDateTime now = LocalDateTime.now();
+        sessionDAO.startSession(userId, "Academic", now);
+        sessionDAO.getActiveSession(userId);
+        sessionDAO.getAllActiveSessions();
+        sessionDAO.stopActiveSession(userId, now.plusMinutes(1));
+        sessionDAO.getSessionsByDate(userId, yesterday);
+        sessionDAO.getSessionsByDateRange(userId, yesterday.minusDays(6), yesterday);
+        sessionDAO.getTotalTimeByActivity(userId, yesterday);
+        sessionDAO.findAll();
+
+        recommendationDAO.findById(-1);
+        recommendationDAO.existsById(-1);
+        recommendationDAO.deleteById(-1);
+        recommendationDAO.count();
+        recommendationDAO.findByUserAndDate(userId, yesterday);
+        recommendationDAO.findAll();
+    }
+
+    /**
+     * Check captured plans against the expectations; prints one line per query
+     */
+    public boolean verify(Map<String, List<String>> plans) throws SQLException {
+        List<String> failures = new ArrayList<>();
+        int version = SchemaMigrations.currentVersion(DBConnection.getInstance().getConnection());
+        if (version != SchemaMigrations.latestVersion()) {
+            failures.add("schema is at version " + version + ", expected " + SchemaMigrations.latestVersion());
+        }
+
+        for (String queryName : new TreeSet<>(plans.keySet())) {
+            List<String> plan = plans.get(queryName);
+            String[] steps = expected.get(queryName);
+            String problem = steps == null ? "no expected plan; add one to QueryPlanCheck" : check(plan, steps);
+            System.out.printf("%-4s %-42s %s%n", problem == null ? "OK" : "FAIL", queryName, String.join(" | ", plan));
+            if (problem != null) {
+                failures.add(queryName + ": " + problem);
+            }
+        }
+        for (String queryName : expected.keySet()) {
+            if (!plans.containsKey(queryName)) {
+                failures.add(queryName + ": expected but never run");
+            }
+        }
+        failures.addAll(SlowQueryLog.getInstance().getViolations());
+
+        if (failures.isEmpty()) {
+            System.out.println("All " + plans.size() + " query plans as expected");
+            return true;
+        }
+        System.out.println();
+        for (String failure : failures) {
+            System.out.println("FAIL " + failure);
+        }
+        return false;
+    }
+
+    private void expect(String queryName, String... steps) {
+        expected.put(queryName, steps);
+    }
+
+    /**
+     * Null if the plan has every expected step and no unexpected scan or sort
+     */
+    private static String check(List<String> plan, String[] steps) {
+        for (String step : steps) {
+            if (plan.stream().noneMatch(actual -> actual.contains(step))) {
+                return "missing step \"" + step + "\"";
+            }
+        }
+        for (String actual : plan) {
+            boolean costly = actual.contains("TEMP B-TREE") || SlowQueryLog.hasFullScan(List.of(actual));
+            if (costly && !matchesAny(actual, steps)) {
+                return "unexpected step \"" + actual + "\"";
+            }
+        }
+        return null;
+    }
+
+    private static boolean matchesAny(String actual, String[] steps) {
+        for (String step : steps) {
+            if (actual.contains(step)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
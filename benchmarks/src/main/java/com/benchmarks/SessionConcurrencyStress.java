@@ -0,0 +1,346 @@
+package com.benchmarks;
+
+import com.database.ActivitySessionDAO;
+import com.database.DBConnection;
+import com.database.RecommendationDAO;
+import com.database.SessionWriteExecutor;
+import com.database.UserDAO;
+import com.metrics.QueryMetrics;
+import com.models.ActivitySession;
+import com.models.ActivityType;
+import com.models.Recommendation;
+import com.models.User;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Start/Stop concurrency stress test (console application)
+ *
+ * Many threads start and stop activities for a few fresh users as fast as
+ * they can, each operation for a random one of them. Half of the threads call
+ * the DAO directly (the striped-lock path, each transaction on a borrowed
+ * connection), half go through the session writer on its own connection, so
+ * both the in-process locks and the version compare-and-set are exercised,
+ * for the same user and across users. Meanwhile a bystander saves
+ * recommendations with autocommit on the shared connection, and a sampler on
+ * a separate connection watches the table. Asserts that:
+ * - no user ever has more than one active session
+ * - every successful start left exactly one session row for its user
+ * - every closed session ends no earlier than it started and was closed once
+ * - no successful stop is unaccounted for by a closed session of its user
+ * - the shared connection never leaves autocommit, and every bystander write
+ *   is committed (none is swallowed by another user's rolled-back transaction)
+ *
+ * Exits with status 1 on any failure.
+ *
+ * Usage: gradle :benchmarks:sessionConcurrencyStress -Dintellicoach.db=database/stress.db
+ *            --args="[--threads=64] [--operations=200] [--users=4]"
+ */
+public class SessionConcurrencyStress {
+    private static final String MAX_ACTIVE_SQL =
+            "SELECT COALESCE(MAX(active), 0) FROM (SELECT COUNT(*) AS active FROM activity_sessions "
+            + "WHERE user_id BETWEEN ? AND ? AND is_active = 1 GROUP BY user_id)";
+    private static final String SESSIONS_SQL =
+            "SELECT start_time, end_time, duration_minutes, is_active, version FROM activity_sessions WHERE user_id = ?";
+    private static final String COUNT_RECOMMENDATIONS_SQL =
+            "SELECT COUNT(*) FROM recommendations WHERE user_id BETWEEN ? AND ? AND recommendation_type = 'STRESS'";
+
+    private static final long BYSTANDER_PAUSE_NANOS = 10_000_000;
+
+    // Consecutive ids of the users under stress
+    private final int[] userIds;
+    private final ActivitySessionDAO sessionDAO = new ActivitySessionDAO();
+    private final RecommendationDAO recommendationDAO = new RecommendationDAO();
+    private final String[] activities = ActivityType.getAllDisplayNames();
+    private final LongAdder[] starts;
+    private final LongAdder[] stops;
+    private final LongAdder failures = new LongAdder();
+    // Recommendations the bystander kept, and those it deleted again
+    private final LongAdder bystanderWrites = new LongAdder();
+    private final LongAdder bystanderDeletes = new LongAdder();
+    private final LongAdder sharedNotAutoCommit = new LongAdder();
+    private final AtomicInteger maxActiveSeen = new AtomicInteger();
+
+    public SessionConcurrencyStress(int[] userIds) {
+        this.userIds = userIds;
+        this.starts = new LongAdder[userIds.length];
+        this.stops = new LongAdder[userIds.length];
+        for (int i = 0; i < userIds.length; i++) {
+            starts[i] = new LongAdder();
+            stops[i] = new LongAdder();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = 64;
+        int operations = 200;
+        int users = 4;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(value);
+            } else if (arg.startsWith("--operations=")) {
+                operations = Integer.parseInt(value);
+            } else if (arg.startsWith("--users=")) {
+                users = Integer.parseInt(value);
+            }
+        }
+
+        boolean passed;
+        try {
+            UserDAO userDAO = new UserDAO();
+            int[] userIds = new int[users];
+            String prefix = "stress-" + System.nanoTime() + "-";
+            for (int i = 0; i < users; i++) {
+                String name = prefix + i;
+                User user = userDAO.save(new User(name, name + "@stress.local", "stress", "Stress User"));
+                if (user == null || (i > 0 && user.getUserId() != userIds[i - 1] + 1)) {
+                    throw new IllegalStateException("Could not create consecutive stress users");
+                }
+                userIds[i] = user.getUserId();
+            }
+            SessionConcurrencyStress stress = new SessionConcurrencyStress(userIds);
+            passed = stress.run(threads, operations);
+        } finally {
+            SessionWriteExecutor.shutdownIfStarted();
+            DBConnection.getInstance().disconnect();
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Run the workers and the sampler, then check the invariants; prints a summary
+     */
+    public boolean run(int threads, int operations) throws Exception {
+        System.out.println("Stressing " + userIds.length + " users with " + threads + " threads x "
+                + operations + " operations");
+        CountDownLatch ready = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = Thread.ofPlatform().name("stress-sampler").start(() -> sample(running));
+        Thread bystander = Thread.ofPlatform().name("stress-bystander").start(() -> writeBystander(running));
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            boolean viaWriter = i % 2 == 1;
+            workers.add(Thread.ofPlatform().name("stress-" + i).start(() -> work(ready, operations, viaWriter)));
+        }
+
+        long startNanos = System.nanoTime();
+        ready.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        running.set(false);
+        sampler.join();
+        bystander.join();
+
+        return verify(threads * operations, seconds);
+    }
+
+    private void work(CountDownLatch ready, int operations, boolean viaWriter) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            ready.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        for (int i = 0; i < operations; i++) {
+            int user = random.nextInt(userIds.length);
+            int userId = userIds[user];
+            try {
+                if (random.nextInt(3) < 2) {
+                    String activity = activities[random.nextInt(activities.length)];
+                    ActivitySession session = viaWriter
+                            ? SessionWriteExecutor.getInstance().submitStart(userId, activity, LocalDateTime.now()).join()
+                            : sessionDAO.startSession(userId, activity, LocalDateTime.now());
+                    if (session != null) {
+                        starts[user].increment();
+                    } else {
+                        failures.increment();
+                    }
+                } else {
+                    boolean stopped = viaWriter
+                            ? SessionWriteExecutor.getInstance().submitStop(userId, LocalDateTime.now()).join()
+                            : sessionDAO.stopActiveSession(userId, LocalDateTime.now());
+                    if (stopped) {
+                        stops[user].increment();
+                    }
+                }
+            } catch (RuntimeException e) {
+                failures.increment();
+            }
+        }
+    }
+
+    /**
+     * Autocommit writes on the shared connection while the workers run their transactions
+     * Saves a recommendation and deletes every other one again; the delete runs on the
+     * shared connection, so a transaction left open there would keep it from committing
+     */
+    private void writeBystander(AtomicBoolean running) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Connection shared = DBConnection.getInstance().getConnection();
+        while (running.get()) {
+            try {
+                if (!shared.getAutoCommit()) {
+                    sharedNotAutoCommit.increment();
+                }
+            } catch (SQLException e) {
+                failures.increment();
+            }
+            int userId = userIds[random.nextInt(userIds.length)];
+            Recommendation saved = recommendationDAO.save(
+                    new Recommendation(userId, "Stress bystander write", "STRESS", "LOW", LocalDate.now()));
+            if (saved == null) {
+                failures.increment();
+            } else if (saved.getRecommendationId() % 2 == 0) {
+                if (recommendationDAO.deleteById(saved.getRecommendationId())) {
+                    bystanderDeletes.increment();
+                } else {
+                    failures.increment();
+                }
+            } else {
+                bystanderWrites.increment();
+            }
+            // Paced like a user: back to back, it would hold SQLite's write lock and starve the workers
+            LockSupport.parkNanos(BYSTANDER_PAUSE_NANOS);
+        }
+    }
+
+    /**
+     * Track the most active rows any user had, on a separate connection, until the workers finish
+     */
+    private void sample(AtomicBoolean running) {
+        try (Connection conn = DBConnection.getInstance().openConnection();
+             PreparedStatement stmt = conn.prepareStatement(MAX_ACTIVE_SQL)) {
+            stmt.setInt(1, userIds[0]);
+            stmt.setInt(2, userIds[userIds.length - 1]);
+            while (running.get()) {
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        maxActiveSeen.accumulateAndGet(rs.getInt(1), Math::max);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println(" Active session sampling failed: " + e.getMessage());
+            failures.increment();
+        }
+    }
+
+    private boolean verify(int operations, double seconds) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        long totalStarts = 0;
+        long totalStops = 0;
+        int totalRows = 0;
+        long committedBystanderWrites;
+
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            for (int i = 0; i < userIds.length; i++) {
+                totalRows += verifyUser(conn, i, problems);
+                totalStarts += starts[i].sum();
+                totalStops += stops[i].sum();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(COUNT_RECOMMENDATIONS_SQL)) {
+                stmt.setInt(1, userIds[0]);
+                stmt.setInt(2, userIds[userIds.length - 1]);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    committedBystanderWrites = rs.next() ? rs.getLong(1) : 0;
+                }
+            }
+        }
+
+        if (maxActiveSeen.get() > 1) {
+            problems.add("a user had " + maxActiveSeen.get() + " active sessions at once");
+        }
+        if (committedBystanderWrites != bystanderWrites.sum()) {
+            problems.add(bystanderWrites.sum() + " bystander rows should remain but " + committedBystanderWrites
+                    + " do (" + bystanderDeletes.sum() + " deleted on the shared connection)");
+        }
+        if (sharedNotAutoCommit.sum() > 0) {
+            problems.add("shared connection was seen outside autocommit " + sharedNotAutoCommit.sum() + " times");
+        }
+        if (failures.sum() > 0) {
+            problems.add(failures.sum() + " operations failed");
+        }
+
+        long retries = QueryMetrics.getInstance().getQueries().stream().mapToLong(q -> q.getRetries()).sum();
+        System.out.printf("%d operations in %.1f s (%.0f ops/s): %d starts, %d stops, %d sessions%n",
+                operations, seconds, operations / seconds, totalStarts, totalStops, totalRows);
+        System.out.println("Bystander: " + (bystanderWrites.sum() + bystanderDeletes.sum()) + " saves, "
+                + bystanderDeletes.sum() + " deleted again");
+        System.out.println("Version conflicts: " + ActivitySessionDAO.getVersionConflicts()
+                + ", busy retries: " + retries + ", max active seen: " + maxActiveSeen.get());
+
+        if (problems.isEmpty()) {
+            System.out.println("All invariants held");
+            return true;
+        }
+        for (String problem : problems) {
+            System.out.println("FAIL " + problem);
+        }
+        return false;
+    }
+
+    /**
+     * Check one user's session rows against the starts and stops that succeeded for them; returns the row count
+     */
+    private int verifyUser(Connection conn, int user, List<String> problems) throws SQLException {
+        int userId = userIds[user];
+        int rows = 0;
+        int active = 0;
+        int closed = 0;
+
+        try (PreparedStatement stmt = conn.prepareStatement(SESSIONS_SQL)) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows++;
+                    if (rs.getBoolean("is_active")) {
+                        active++;
+                        continue;
+                    }
+                    closed++;
+                    LocalDateTime start = rs.getTimestamp("start_time").toLocalDateTime();
+                    LocalDateTime end = rs.getTimestamp("end_time").toLocalDateTime();
+                    if (end.isBefore(start) || rs.getInt("duration_minutes") < 0) {
+                        problems.add("user " + userId + " session ends before it starts: " + start + " -> " + end);
+                    }
+                    if (rs.getInt("version") != 1) {
+                        problems.add("user " + userId + " closed session has version " + rs.getInt("version")
+                                + ", expected 1");
+                    }
+                }
+            }
+        }
+
+        if (active > 1) {
+            problems.add("user " + userId + " has " + active + " active sessions");
+        }
+        if (rows != starts[user].sum()) {
+            problems.add("user " + userId + ": " + starts[user].sum() + " successful starts but " + rows
+                    + " session rows");
+        }
+        if (stops[user].sum() > closed) {
+            problems.add("user " + userId + ": " + stops[user].sum() + " successful stops but only " + closed
+                    + " closed sessions");
+        }
+        return rows;
+    }
+}
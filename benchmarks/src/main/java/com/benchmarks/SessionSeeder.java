@@ -0,0 +1,116 @@
+package com.benchmarks;
+
+import com.database.ActivitySessionDAO;
+import com.database.DBConnection;
+import com.database.UserDAO;
+import com.models.ActivitySession;
+import com.models.User;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Grows the activity_sessions table to a target size for benchmarks
+ *
+ * Sessions follow a fixed daily template (8 sessions a day) with a little
+ * deterministic jitter. Each bench user gets one year of days, filled from
+ * today backwards, before the next user is started; so the first user has
+ * the same data at every size above one year and only the table grows.
+ */
+public class SessionSeeder {
+    public static final int SESSIONS_PER_DAY = 8;
+    public static final int SESSIONS_PER_USER = SESSIONS_PER_DAY * 365;
+    private static final int CHUNK = 50_000;
+
+    // start hour, start minute, length in minutes, activity
+    private static final Object[][] DAY_TEMPLATE = {
+            {0, 0, 420, "Sleep"},
+            {7, 0, 40, "Health / Hygiene"},
+            {8, 0, 240, "Academic"},
+            {13, 0, 180, "Academic"},
+            {16, 30, 60, "Sport"},
+            {18, 0, 60, "Extra Activity"},
+            {20, 0, 90, "Entertainment"},
+            {22, 0, 30, "Health / Hygiene"},
+    };
+
+    private final UserDAO userDAO = new UserDAO();
+    private final ActivitySessionDAO sessionDAO = new ActivitySessionDAO();
+    private final List<Integer> userIds = new ArrayList<>();
+    private final LocalDate today = LocalDate.now();
+
+    /**
+     * Insert sessions until the table holds at least target rows
+     */
+    public void growTo(long target) throws SQLException {
+        long existing = sessionDAO.count();
+        if (existing >= target) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            conn.setAutoCommit(false);
+            List<ActivitySession> chunk = new ArrayList<>(CHUNK);
+            for (long index = existing; index < target; index++) {
+                chunk.add(session(index));
+                if (chunk.size() == CHUNK || index == target - 1) {
+                    sessionDAO.insertAll(conn, chunk);
+                    conn.commit();
+                    chunk.clear();
+                }
+            }
+        }
+        System.out.printf("Seeded %,d sessions in %,d ms%n", target - existing, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * The user whose data the read benchmarks query
+     */
+    public int getFirstUserId() {
+        return userId(0);
+    }
+
+    /**
+     * Number of days of data the first user has at the current size
+     */
+    public int getFirstUserDays() {
+        long sessions = Math.min(sessionDAO.count(), SESSIONS_PER_USER);
+        return (int) Math.max(1, sessions / SESSIONS_PER_DAY);
+    }
+
+    /**
+     * Session number index of the whole seed: user index / SESSIONS_PER_USER,
+     * day index % SESSIONS_PER_USER / SESSIONS_PER_DAY back from today
+     */
+    private ActivitySession session(long index) {
+        int userIndex = (int) (index / SESSIONS_PER_USER);
+        int withinUser = (int) (index % SESSIONS_PER_USER);
+        LocalDate date = today.minusDays(withinUser / SESSIONS_PER_DAY);
+        Object[] slot = DAY_TEMPLATE[withinUser % SESSIONS_PER_DAY];
+
+        Random random = new Random(index);
+        LocalDateTime startTime = date.atTime((Integer) slot[0], (Integer) slot[1]).plusMinutes(random.nextInt(10));
+        LocalDateTime endTime = startTime.plusMinutes((Integer) slot[2] - 10 + random.nextInt(20));
+
+        ActivitySession session = new ActivitySession(userId(userIndex), (String) slot[3], startTime);
+        session.stopActivity(endTime);
+        return session;
+    }
+
+    private int userId(int userIndex) {
+        while (userIds.size() <= userIndex) {
+            String username = "bench-user-" + userIds.size();
+            User user = userDAO.findByUsername(username);
+            if (user == null) {
+                user = userDAO.save(new User(username, username + "@bench.local", "x", "Bench User " + userIds.size()));
+            }
+            userIds.add(user.getUserId());
+        }
+        return userIds.get(userIndex);
+    }
+}
@@ -0,0 +1,196 @@
+package com.benchmarks;
+
+import com.database.ActivitySessionDAO;
+import com.database.DBConnection;
+import com.database.UserDAO;
+import com.models.ActivitySession;
+import com.models.User;
+import com.services.PasswordHasher;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic workload generator (console application)
+ *
+ * Creates users named load-user-N with plausible daily routines over the six
+ * activity types and bulk-loads their history. Every user gets a persona
+ * (wake time, sleep need, study load, how often they do sport or extra
+ * activities); each day is laid out from wake-up to bedtime with some noise,
+ * lighter study and later wake-ups at weekends, and a sleep session running
+ * into the next morning. The same seed always produces the same data.
+ * Users that already exist are left alone, so the generator can be re-run to
+ * grow a database.
+ *
+ * All users share the password "loadtest-password".
+ *
+ * Usage: gradle :benchmarks:workloadGenerator -Dintellicoach.db=database/load.db
+ *            --args="[--users=1000] [--years=1] [--seed=42]"
+ */
+public class WorkloadGenerator {
+    public static final String USER_PREFIX = "load-user-";
+    public static final String PASSWORD = "loadtest-password";
+    private static final int USER_CHUNK = 1_000;
+    private static final int SESSION_CHUNK = 50_000;
+
+    private final long seed;
+    private final UserDAO userDAO = new UserDAO();
+    private final ActivitySessionDAO sessionDAO = new ActivitySessionDAO();
+
+    public WorkloadGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        int users = 1_000;
+        int years = 1;
+        long seed = 42;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--users=")) {
+                users = Integer.parseInt(value);
+            } else if (arg.startsWith("--years=")) {
+                years = Integer.parseInt(value);
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(value);
+            }
+        }
+        new WorkloadGenerator(seed).generate(users, years);
+        DBConnection.getInstance().disconnect();
+    }
+
+    /**
+     * Make sure load-user-0 .. load-user-(users-1) exist with history; returns their IDs
+     * History ends yesterday and covers the given number of years
+     */
+    public List<User> generate(int users, int years) throws SQLException {
+        long start = System.nanoTime();
+        String passwordHash = PasswordHasher.getInstance().hash(PASSWORD);
+        LocalDate lastDay = LocalDate.now().minusDays(1);
+        LocalDate firstDay = lastDay.minusYears(years).plusDays(1);
+
+        List<User> all = new ArrayList<>(users);
+        List<User> created = new ArrayList<>();
+        List<User> chunk = new ArrayList<>(USER_CHUNK);
+        for (int i = 0; i < users; i++) {
+            User existing = userDAO.findByUsername(USER_PREFIX + i);
+            if (existing != null) {
+                all.add(existing);
+                continue;
+            }
+            chunk.add(new User(USER_PREFIX + i, USER_PREFIX + i + "@load.local", passwordHash, "Load User " + i));
+            if (chunk.size() == USER_CHUNK) {
+                created.addAll(userDAO.saveAll(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created.addAll(userDAO.saveAll(chunk));
+        }
+        all.addAll(created);
+
+        long sessions = 0;
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            conn.setAutoCommit(false);
+            List<ActivitySession> batch = new ArrayList<>(SESSION_CHUNK);
+            for (User user : created) {
+                Random random = new Random(seed * 31 + user.getUsername().hashCode());
+                Persona persona = new Persona(random);
+                for (LocalDate date = firstDay; !date.isAfter(lastDay); date = date.plusDays(1)) {
+                    addDay(batch, user.getUserId(), date, persona, random);
+                    if (batch.size() >= SESSION_CHUNK) {
+                        sessions += flush(conn, batch);
+                    }
+                }
+            }
+            sessions += flush(conn, batch);
+        }
+
+        System.out.printf("Generated %,d users (%,d already existed) and %,d sessions in %,d ms%n",
+                created.size(), users - created.size(), sessions, (System.nanoTime() - start) / 1_000_000);
+        return all;
+    }
+
+    private int flush(Connection conn, List<ActivitySession> batch) throws SQLException {
+        int size = batch.size();
+        if (size > 0) {
+            sessionDAO.insertAll(conn, batch);
+            conn.commit();
+            batch.clear();
+        }
+        return size;
+    }
+
+    /**
+     * Lay out one day from wake-up to the start of the night's sleep
+     */
+    private static void addDay(List<ActivitySession> out, int userId, LocalDate date, Persona persona, Random random) {
+        boolean weekend = date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+        LocalDateTime time = date.atTime(persona.wakeHour + (weekend ? 1 : 0), 0)
+                .plusMinutes(random.nextInt(45));
+
+        double study = persona.academicHours * (weekend ? 0.3 : 1.0) * (0.8 + random.nextDouble() * 0.4);
+        time = add(out, userId, "Health / Hygiene", time, minutes(20, 40, random), random);
+        time = add(out, userId, "Academic", time, (int) (study * 60 * 0.55), random);
+        time = add(out, userId, "Health / Hygiene", time, minutes(30, 50, random), random);
+        time = add(out, userId, "Academic", time, (int) (study * 60 * 0.45), random);
+        if (random.nextDouble() < persona.sportChance) {
+            time = add(out, userId, "Sport", time, minutes(40, 120, random), random);
+        }
+        if (random.nextDouble() < persona.extraChance) {
+            time = add(out, userId, "Extra Activity", time, minutes(45, 120, random), random);
+        }
+        double fun = persona.entertainmentHours * (weekend ? 1.5 : 1.0) * (0.6 + random.nextDouble() * 0.8);
+        time = add(out, userId, "Entertainment", time, (int) (fun * 60), random);
+        time = add(out, userId, "Health / Hygiene", time, minutes(15, 30, random), random);
+
+        // Sleep runs until the persona's wake-up time the next morning, give or take
+        int sleep = (int) (persona.sleepHours * 60) + random.nextInt(61) - 30;
+        add(out, userId, "Sleep", time, sleep, random);
+    }
+
+    /**
+     * Add a session and return when the next one may start (after a short gap)
+     */
+    private static LocalDateTime add(List<ActivitySession> out, int userId, String activity,
+            LocalDateTime start, int minutes, Random random) {
+        if (minutes <= 0) {
+            return start;
+        }
+        LocalDateTime end = start.plusMinutes(minutes);
+        ActivitySession session = new ActivitySession(userId, activity, start);
+        session.stopActivity(end);
+        out.add(session);
+        return end.plusMinutes(random.nextInt(20));
+    }
+
+    private static int minutes(int min, int max, Random random) {
+        return min + random.nextInt(max - min + 1);
+    }
+
+    /**
+     * Habits of one simulated user
+     */
+    private static class Persona {
+        private final int wakeHour;
+        private final double sleepHours;
+        private final double academicHours;
+        private final double entertainmentHours;
+        private final double sportChance;
+        private final double extraChance;
+
+        Persona(Random random) {
+            this.wakeHour = 5 + random.nextInt(4);
+            this.sleepHours = 6 + random.nextDouble() * 3;
+            this.academicHours = 4 + random.nextDouble() * 5;
+            this.entertainmentHours = 0.5 + random.nextDouble() * 3;
+            this.sportChance = 0.2 + random.nextDouble() * 0.6;
+            this.extraChance = 0.1 + random.nextDouble() * 0.5;
+        }
+    }
+}
@@ -24,6 +24,7 @@ CREATE TABLE IF NOT EXISTS activity_sessions (
     session_date DATE NOT NULL,
     is_active BOOLEAN DEFAULT 1,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version INTEGER NOT NULL DEFAULT 0, -- added by migration 2
     FOREIGN KEY (user_id) REFERENCES users(user_id),
     CHECK (activity_type IN ('Academic', 'Sport', 'Entertainment', 'Extra Activity', 'Sleep', 'Health / Hygiene'))
 );
@@ -49,6 +50,30 @@ CREATE TABLE IF NOT EXISTS recommendations (
     FOREIGN KEY (user_id) REFERENCES users(user_id)
 );
 
+-- Start/Stop journal checkpoint (last journal record applied to activity_sessions)
+CREATE TABLE IF NOT EXISTS session_journal_state (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    applied_seq INTEGER NOT NULL
+);
+
+-- Journal records that kept failing to apply (added by migration 4)
+-- event_type 1 = SessionStarted, 2 = SessionStopped; activity is the ActivityType ordinal, -1 for a stop
+CREATE TABLE IF NOT EXISTS session_journal_dead_letters (
+    seq INTEGER PRIMARY KEY,
+    event_type INTEGER NOT NULL,
+    user_id INTEGER NOT NULL,
+    activity INTEGER NOT NULL,
+    event_time TIMESTAMP NOT NULL,
+    error TEXT,
+    failed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Date before which closed sessions may have moved to the per-year archives (added by migration 3)
+CREATE TABLE IF NOT EXISTS session_archive_state (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    archived_before DATE NOT NULL
+);
+
 -- Insert recommended time allocations
 INSERT OR REPLACE INTO recommended_times (activity_type, min_minutes, max_minutes, description) VALUES 
 ('Academic', 360, 480, 'Study, homework, classes - 6 to 8 hours per day'),
@@ -62,7 +87,16 @@ INSERT OR REPLACE INTO recommended_times (activity_type, min_minutes, max_minute
 INSERT OR IGNORE INTO users (user_id, username, email, password, full_name) VALUES 
 (1, 'testuser', 'test@example.com', 'password123_encoded', 'Test User');
 
--- Create indexes for performance
-CREATE INDEX IF NOT EXISTS idx_sessions_user_date ON activity_sessions(user_id, session_date);
-CREATE INDEX IF NOT EXISTS idx_sessions_active ON activity_sessions(user_id, is_active);
-CREATE INDEX IF NOT EXISTS idx_recommendations_user ON recommendations(user_id, created_at);
\ No newline at end of file
+-- Indexes (created by migration 1 in SchemaMigrations, which the application applies on startup)
+-- A user's sessions by day in start order
+CREATE INDEX IF NOT EXISTS idx_sessions_user_date_start ON activity_sessions(user_id, session_date, start_time);
+-- Covering index for daily totals per activity
+CREATE INDEX IF NOT EXISTS idx_sessions_daily_totals ON activity_sessions(user_id, session_date, activity_type, duration_minutes);
+-- At most one active session per user
+CREATE UNIQUE INDEX IF NOT EXISTS idx_sessions_one_active ON activity_sessions(user_id) WHERE is_active = 1;
+CREATE INDEX IF NOT EXISTS idx_recommendations_user_date ON recommendations(user_id, based_on_date);
+
+-- This file is the fully migrated schema, so mark it as such: otherwise SchemaMigrations
+-- would run migration 2 again and fail on the existing version column.
+-- Keep equal to SchemaMigrations.latestVersion() when adding a migration.
+PRAGMA user_version = 5;
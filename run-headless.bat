@@ -0,0 +1,6 @@
+@echo off
+echo =========================================
+echo  STARTING INTELLICOACH HEADLESS API...
+echo =========================================
+
+java -cp "build;lib/*" com.api.ApiServer --port=8080
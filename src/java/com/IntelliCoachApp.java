@@ -1,6 +1,8 @@
 package com;
 
-import com.views.LoginView;
+import com.api.ApiServer;
+import com.events.EventBus;
+import com.services.ServiceRegistry;
 import javafx.application.Application;
 import javafx.stage.Stage;
 
@@ -15,21 +17,46 @@ public class IntelliCoachApp extends Application {
         primaryStage.setMinHeight(100);
         primaryStage.setResizable(true);
 
-        // Start with login view
-        LoginView loginView = new LoginView(primaryStage);
-        primaryStage.setScene(loginView.createScene());
-        primaryStage.show();
+        // Show the login view at once; database, services and caches start in the background
+        new StartupPipeline(primaryStage).run();
 
         System.out.println(" IntelliCoach Application started");
     }
 
     @Override
     public void stop() {
+        // Clean up services in reverse start order; this applies journaled
+        // Start/Stop events and commits queued writes before exit
+        ServiceRegistry.shutdownIfStarted();
+        EventBus.shutdownIfStarted();
         System.out.println(" IntelliCoach Application stopped");
     }
 
     public static void main(String[] args) {
+        if (hasFlag(args, "--headless")) {
+            runHeadless(args);
+            return;
+        }
 
         launch(args);
     }
+
+    /**
+     * Headless mode: serve the JSON API instead of opening the desktop client
+     * Usage: java com.IntelliCoachApp --headless [--port=8080]
+     * On machines without a display, run com.api.ApiServer directly instead:
+     * the JavaFX launcher starts the toolkit before main() for Application classes
+     */
+    private static void runHeadless(String[] args) {
+        ApiServer.main(args);
+    }
+
+    private static boolean hasFlag(String[] args, String flag) {
+        for (String arg : args) {
+            if (arg.equals(flag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,102 @@
+package com;
+
+import com.database.DBConnection;
+import com.database.SessionJournal;
+import com.database.UserDirectory;
+import com.services.ServiceRegistry;
+import com.views.LoginView;
+import com.views.NavigationController;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javafx.application.Platform;
+import javafx.css.CssParser;
+import javafx.stage.Stage;
+
+/**
+ * Staged application startup
+ *
+ * The login scene is shown first, on the FX thread, before anything touches
+ * the database. Everything else runs in the background on virtual threads:
+ *
+ *   database (connect + schema) -> services -> active-session warm-up
+ *                               -> user-directory warm-up
+ *   css-preload (independent)
+ *
+ * Each phase is recorded in a StartupTimeline that is printed and appended
+ * to the startup history once the background work is done.
+ */
+public class StartupPipeline {
+    private static final int WARM_USERS = 1000;
+
+    private final Stage stage;
+    private final StartupTimeline timeline = new StartupTimeline();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public StartupPipeline(Stage stage) {
+        this.stage = stage;
+    }
+
+    /**
+     * Show the login scene and start the background phases; call on the FX thread
+     */
+    public CompletableFuture<Void> run() {
+        timeline.mark("fx-start");
+
+        timeline.measure("login-scene", () -> {
+            LoginView loginView = new LoginView(stage);
+            stage.setScene(NavigationController.createScene(loginView));
+            stage.show();
+        });
+        // Runs on the pulse after the first frame was rendered
+        Platform.runLater(() -> timeline.mark("interactive"));
+
+        CompletableFuture<Void> database = CompletableFuture.runAsync(this::connectDatabase, executor);
+        CompletableFuture<Void> services = database.thenRunAsync(() -> timeline.measure("services",
+                () -> ServiceRegistry.getInstance().startAll().join()), executor);
+        CompletableFuture<Void> activeSessions = services.thenRunAsync(() -> timeline.measure(
+                "warmup.active-sessions", () -> SessionJournal.getInstance().preloadActiveSessions()), executor);
+        CompletableFuture<Void> userDirectory = database.thenRunAsync(() -> timeline.measure(
+                "warmup.user-directory", () -> UserDirectory.getInstance().warmUp(WARM_USERS)), executor);
+        CompletableFuture<Void> css = CompletableFuture.runAsync(() -> timeline.measure(
+                "css-preload", this::preloadStylesheet), executor);
+
+        return CompletableFuture.allOf(activeSessions, userDirectory, css)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        System.err.println(" Startup phase failed: " + error.getMessage());
+                    }
+                    timeline.mark("startup-complete");
+                    System.out.print(timeline.report());
+                    System.out.print(" Services:\n" + ServiceRegistry.getInstance().getStartupReport());
+                    timeline.appendToHistory();
+                    executor.shutdown();
+                });
+    }
+
+    public StartupTimeline getTimeline() {
+        return timeline;
+    }
+
+    private void connectDatabase() {
+        long start = System.nanoTime();
+        DBConnection connection = DBConnection.getInstance();
+        timeline.record("database", start, System.nanoTime());
+        // Split the first connect into its two steps
+        timeline.record("database.connect", start, start + connection.getConnectNanos());
+        timeline.record("database.schema", start + connection.getConnectNanos(),
+                start + connection.getConnectNanos() + connection.getSchemaNanos());
+    }
+
+    /**
+     * Parse the stylesheet once off the FX thread; this loads and JIT-warms the
+     * CSS parser and pulls the file into the OS cache before later scenes need it
+     */
+    private void preloadStylesheet() {
+        try {
+            new CssParser().parse(getClass().getResource("/css/styles.css"));
+        } catch (Exception e) {
+            System.err.println(" Stylesheet preload failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Startup timeline - records how long each startup phase took and when it ran
+ * Offsets are measured from JVM start, so the report shows the real time-to-interactive.
+ * Every launch is appended to logs/startup-timeline.jsonl for comparison across releases.
+ */
+public class StartupTimeline {
+    private static final String HISTORY_PATH = "logs/startup-timeline.jsonl";
+
+    private final long originNanos;
+    private final double originOffsetMillis;
+    private final List<Phase> phases = new ArrayList<>();
+
+    public StartupTimeline() {
+        this.originNanos = System.nanoTime();
+        this.originOffsetMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    public void measure(String name, Runnable work) {
+        measure(name, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> T measure(String name, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(name, start, System.nanoTime());
+        }
+    }
+
+    /**
+     * Record a milestone (a phase of zero length), e.g. "interactive"
+     */
+    public void mark(String name) {
+        long now = System.nanoTime();
+        record(name, now, now);
+    }
+
+    /**
+     * Record a phase measured elsewhere
+     */
+    public synchronized void record(String name, long startNanos, long endNanos) {
+        Thread thread = Thread.currentThread();
+        phases.add(new Phase(name, offsetMillis(startNanos), (endNanos - startNanos) / 1_000_000.0,
+                thread.isVirtual() ? "virtual" : thread.getName()));
+    }
+
+    public synchronized String report() {
+        StringBuilder report = new StringBuilder(" Startup timeline (ms since JVM start):\n");
+        phases.stream()
+                .sorted(Comparator.comparingDouble((Phase phase) -> phase.startMillis))
+                .forEach(phase -> report.append(String.format("   %-30s at %8.1f  took %8.1f  [%s]%n",
+                        phase.name, phase.startMillis, phase.durationMillis, phase.thread)));
+        return report.toString();
+    }
+
+    /**
+     * Append this launch as one JSON line to the startup history
+     */
+    public synchronized void appendToHistory() {
+        File file = new File(HISTORY_PATH);
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists()) {
+            dir.mkdirs();
+        }
+
+        StringBuilder line = new StringBuilder("{\"launchedAt\":\"").append(LocalDateTime.now())
+                .append("\",\"java\":\"").append(System.getProperty("java.version")).append("\",\"phases\":{");
+        for (int i = 0; i < phases.size(); i++) {
+            Phase phase = phases.get(i);
+            line.append(i > 0 ? "," : "").append('"').append(phase.name).append("\":{\"at\":")
+                    .append(String.format(Locale.ROOT, "%.1f", phase.startMillis)).append(",\"took\":")
+                    .append(String.format(Locale.ROOT, "%.1f", phase.durationMillis)).append('}');
+        }
+        line.append("}}");
+
+        try (PrintWriter out = new PrintWriter(new FileWriter(file, true))) {
+            out.println(line);
+        } catch (IOException e) {
+            System.err.println(" Startup timeline write failed: " + e.getMessage());
+        }
+    }
+
+    private double offsetMillis(long nanos) {
+        return originOffsetMillis + (nanos - originNanos) / 1_000_000.0;
+    }
+
+    private static class Phase {
+        private final String name;
+        private final double startMillis;
+        private final double durationMillis;
+        private final String thread;
+
+        Phase(String name, double startMillis, double durationMillis, String thread) {
+            this.name = name;
+            this.startMillis = startMillis;
+            this.durationMillis = durationMillis;
+            this.thread = thread;
+        }
+    }
+}
@@ -1,12 +1,33 @@
 package com.abstracts;
 
 import com.interfaces.Repository;
+import com.database.BusyRetry;
 import com.database.DBConnection;
+import com.database.SlowQueryLog;
+import com.metrics.DaoQueryEvent;
+import com.metrics.QueryMetrics;
+import com.metrics.QueryStats;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class BaseDAO<T, ID> implements Repository<T, ID> {
 
+    /**
+     * Maximum number of IDs bound into one IN (...) list
+     * Stays well below SQLite's host parameter limit
+     */
+    protected static final int IN_LIST_CHUNK_SIZE = 500;
+
     protected final String tableName;
 
     public BaseDAO(String tableName) {
@@ -15,11 +36,11 @@ public abstract class BaseDAO<T, ID> implements Repository<T, ID> {
 
     /**
      * Get database connection
+     * The connection is shared by all DAOs and must not be closed by callers
      * 
      * @return Database connection
-     * @throws SQLException if connection fails
      */
-    protected Connection getConnection() throws SQLException {
+    protected Connection getConnection() {
         return DBConnection.getInstance().getConnection();
     }
 
@@ -62,74 +83,423 @@ public abstract class BaseDAO<T, ID> implements Repository<T, ID> {
     @Override
     public T findById(ID id) {
         String sql = "SELECT * FROM " + tableName + " WHERE " + getPrimaryKeyColumn() + " = ?";
+        DaoQueryEvent query = DaoQueryEvent.start();
+        T entity = null;
 
-        try (Connection conn = getConnection();
-                java.sql.PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (java.sql.PreparedStatement stmt = getConnection().prepareStatement(sql)) {
 
             stmt.setObject(1, id);
             java.sql.ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return mapResultSetToEntity(rs);
+                entity = mapResultSetToEntity(rs);
             }
-            return null;
 
         } catch (SQLException e) {
             handleSQLException("findById", e);
-            return null;
         }
+
+        recordQuery("findById", query, entity != null ? 1 : 0, getConnection(), sql, id);
+        return entity;
     }
 
     @Override
     public boolean existsById(ID id) {
         String sql = "SELECT 1 FROM " + tableName + " WHERE " + getPrimaryKeyColumn() + " = ?";
+        DaoQueryEvent query = DaoQueryEvent.start();
+        boolean exists = false;
 
-        try (Connection conn = getConnection();
-                java.sql.PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (java.sql.PreparedStatement stmt = getConnection().prepareStatement(sql)) {
 
             stmt.setObject(1, id);
             java.sql.ResultSet rs = stmt.executeQuery();
-            return rs.next();
+            exists = rs.next();
 
         } catch (SQLException e) {
             handleSQLException("existsById", e);
-            return false;
         }
+
+        recordQuery("existsById", query, exists ? 1 : 0, getConnection(), sql, id);
+        return exists;
     }
 
     @Override
     public boolean deleteById(ID id) {
         String sql = "DELETE FROM " + tableName + " WHERE " + getPrimaryKeyColumn() + " = ?";
+        DaoQueryEvent query = DaoQueryEvent.start();
+        int deleted = 0;
 
-        try (Connection conn = getConnection();
-                java.sql.PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (java.sql.PreparedStatement stmt = getConnection().prepareStatement(sql)) {
 
             stmt.setObject(1, id);
-            return stmt.executeUpdate() > 0;
+            deleted = withBusyRetry("deleteById", stmt::executeUpdate);
 
         } catch (SQLException e) {
             handleSQLException("deleteById", e);
-            return false;
         }
+
+        recordQuery("deleteById", query, deleted, getConnection(), sql, id);
+        return deleted > 0;
     }
 
     @Override
     public long count() {
         String sql = "SELECT COUNT(*) FROM " + tableName;
+        DaoQueryEvent query = DaoQueryEvent.start();
+        long count = 0;
 
-        try (Connection conn = getConnection();
-                java.sql.PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (java.sql.PreparedStatement stmt = getConnection().prepareStatement(sql)) {
 
             java.sql.ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                return rs.getLong(1);
+                count = rs.getLong(1);
             }
-            return 0;
 
         } catch (SQLException e) {
             handleSQLException("count", e);
+        }
+
+        recordQuery("count", query, 1, getConnection(), sql);
+        return count;
+    }
+
+    @Override
+    public List<T> saveAll(List<T> entities) {
+        if (entities == null || entities.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Each row returns its own key, so no ID is inferred from another row's
+        String sql = getInsertSQL() + " RETURNING " + getPrimaryKeyColumn();
+        DaoQueryEvent query = DaoQueryEvent.start();
+        List<T> saved = Collections.emptyList();
+        try {
+            saved = inTransaction("saveAll", conn -> {
+                try (java.sql.PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (T entity : entities) {
+                        setInsertParameters(stmt, entity);
+                        try (java.sql.ResultSet rs = stmt.executeQuery()) {
+                            if (rs.next()) {
+                                applyGeneratedId(entity, rs.getLong(1));
+                            }
+                        }
+                    }
+                }
+                return entities;
+            });
+
+        } catch (SQLException e) {
+            handleSQLException("saveAll", e);
+        }
+
+        recordQuery("saveAll", query, saved.size());
+        return saved;
+    }
+
+    @Override
+    public List<T> findAllById(List<ID> ids) {
+        List<T> entities = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return entities;
+        }
+
+        DaoQueryEvent query = DaoQueryEvent.start();
+        try {
+            Connection conn = getConnection();
+            for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK_SIZE) {
+                List<ID> chunk = ids.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, ids.size()));
+                String sql = "SELECT * FROM " + tableName + " WHERE " + getPrimaryKeyColumn()
+                        + " IN (" + placeholders(chunk.size()) + ")";
+
+                try (java.sql.PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setObject(i + 1, chunk.get(i));
+                    }
+                    java.sql.ResultSet rs = stmt.executeQuery();
+                    while (rs.next()) {
+                        entities.add(mapResultSetToEntity(rs));
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            handleSQLException("findAllById", e);
+        }
+
+        recordQuery("findAllById", query, entities.size());
+        return entities;
+    }
+
+    @Override
+    public int updateAll(List<T> entities) {
+        if (entities == null || entities.isEmpty()) {
             return 0;
         }
+
+        DaoQueryEvent query = DaoQueryEvent.start();
+        int updated = 0;
+        try {
+            updated = inTransaction("updateAll", conn -> {
+                try (java.sql.PreparedStatement stmt = conn.prepareStatement(getUpdateSQL())) {
+                    for (T entity : entities) {
+                        setUpdateParameters(stmt, entity);
+                        stmt.addBatch();
+                    }
+                    return sumUpdateCounts(stmt.executeBatch());
+                }
+            });
+
+        } catch (SQLException e) {
+            handleSQLException("updateAll", e);
+        }
+
+        recordQuery("updateAll", query, updated);
+        return updated;
+    }
+
+    @Override
+    public int deleteAllById(List<ID> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+
+        DaoQueryEvent query = DaoQueryEvent.start();
+        int total = 0;
+        try {
+            total = inTransaction("deleteAllById", conn -> {
+                int deleted = 0;
+                for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK_SIZE) {
+                    List<ID> chunk = ids.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, ids.size()));
+                    String sql = "DELETE FROM " + tableName + " WHERE " + getPrimaryKeyColumn()
+                            + " IN (" + placeholders(chunk.size()) + ")";
+
+                    try (java.sql.PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            stmt.setObject(i + 1, chunk.get(i));
+                        }
+                        deleted += stmt.executeUpdate();
+                    }
+                }
+                return deleted;
+            });
+
+        } catch (SQLException e) {
+            handleSQLException("deleteAllById", e);
+        }
+
+        recordQuery("deleteAllById", query, total);
+        return total;
+    }
+
+    @Override
+    public Stream<T> streamAll() {
+        String sql = "SELECT * FROM " + tableName;
+        DaoQueryEvent query = DaoQueryEvent.start();
+
+        try {
+            java.sql.PreparedStatement stmt = getConnection().prepareStatement(sql);
+            java.sql.ResultSet rs = stmt.executeQuery();
+            int[] count = new int[1];
+
+            Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                        action.accept(mapResultSetToEntity(rs));
+                        count[0]++;
+                        return true;
+                    } catch (SQLException e) {
+                        handleSQLException("streamAll", e);
+                        return false;
+                    }
+                }
+            };
+
+            // Recorded when the stream is closed, so the time includes consuming it
+            return StreamSupport.stream(rows, false).onClose(() -> {
+                closeQuietly(rs, stmt);
+                recordQuery("streamAll", query, count[0]);
+            });
+
+        } catch (SQLException e) {
+            handleSQLException("streamAll", e);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Insert entities with multi-row INSERT ... VALUES (...), (...) statements
+     * Used by subclasses to override saveAll with fewer statement executions
+     *
+     * @param insertPrefix   e.g. "INSERT INTO users (username, email) VALUES "
+     * @param columnsPerRow  number of placeholders per row
+     * @param binder         binds one entity starting at the given parameter index
+     */
+    protected List<T> saveAllMultiRow(List<T> entities, String insertPrefix, int columnsPerRow,
+            RowBinder<T> binder) {
+        if (entities == null || entities.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        DaoQueryEvent query = DaoQueryEvent.start();
+        List<T> saved = Collections.emptyList();
+        try {
+            saved = inTransaction("saveAll", conn -> {
+                insertMultiRow(conn, entities, insertPrefix, columnsPerRow, binder);
+                return entities;
+            });
+
+        } catch (SQLException e) {
+            handleSQLException("saveAll", e);
+        }
+
+        recordQuery("saveAll", query, saved.size());
+        return saved;
+    }
+
+    /**
+     * Multi-row insert on a caller-supplied connection
+     * The caller owns the transaction. Each statement returns the keys of its own
+     * rows; AUTOINCREMENT hands them out in increasing order of the VALUES rows,
+     * so sorted keys line up with the entities whatever order RETURNING uses
+     */
+    protected void insertMultiRow(Connection conn, List<T> entities, String insertPrefix, int columnsPerRow,
+            RowBinder<T> binder) throws SQLException {
+        int rowsPerChunk = Math.max(1, IN_LIST_CHUNK_SIZE / columnsPerRow);
+        String rowPlaceholder = "(" + placeholders(columnsPerRow) + ")";
+
+        for (int from = 0; from < entities.size(); from += rowsPerChunk) {
+            List<T> chunk = entities.subList(from, Math.min(from + rowsPerChunk, entities.size()));
+            String sql = insertPrefix + String.join(", ", Collections.nCopies(chunk.size(), rowPlaceholder))
+                    + " RETURNING " + getPrimaryKeyColumn();
+
+            try (java.sql.PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int index = 1;
+                for (T entity : chunk) {
+                    binder.bind(stmt, index, entity);
+                    index += columnsPerRow;
+                }
+                long[] keys = new long[chunk.size()];
+                int returned = 0;
+                try (java.sql.ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next() && returned < keys.length) {
+                        keys[returned++] = rs.getLong(1);
+                    }
+                }
+                if (returned != keys.length) {
+                    throw new SQLException("Inserted " + keys.length + " rows into " + tableName
+                            + " but got " + returned + " keys back");
+                }
+                Arrays.sort(keys);
+                for (int i = 0; i < keys.length; i++) {
+                    applyGeneratedId(chunk.get(i), keys[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Insert one entity and store its generated key; false if no row came back
+     * Runs on a connection of its own: until an INSERT ... RETURNING is closed it
+     * is a write in progress, and the driver's autocommit check on any other
+     * thread's statement would then leave a transaction open on the shared connection
+     */
+    protected boolean insertReturningId(String operation, T entity) throws SQLException {
+        String sql = getInsertSQL() + " RETURNING " + getPrimaryKeyColumn();
+        return inTransaction(operation, conn -> {
+            try (java.sql.PreparedStatement stmt = conn.prepareStatement(sql)) {
+                setInsertParameters(stmt, entity);
+                try (java.sql.ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        applyGeneratedId(entity, rs.getLong(1));
+                        return true;
+                    }
+                    return false;
+                }
+            }
+        });
+    }
+
+    /**
+     * Run work as a single transaction on a connection of its own
+     * The connection is borrowed from DBConnection and given back afterwards;
+     * if the database was busy, the rolled-back work runs again (see withBusyRetry)
+     */
+    protected <R> R inTransaction(String operation, TransactionWork<R> work) throws SQLException {
+        DBConnection db = DBConnection.getInstance();
+        Connection conn = db.borrowConnection();
+        try {
+            return withBusyRetry(operation, () -> {
+                try (Statement transaction = conn.createStatement()) {
+                    // IMMEDIATE waits for the write lock before the work reads: a deferred transaction
+                    // fails with BUSY_SNAPSHOT at its first write whenever another user's write committed meanwhile
+                    transaction.execute("BEGIN IMMEDIATE");
+                    try {
+                        R result = work.execute(conn);
+                        transaction.execute("COMMIT");
+                        return result;
+                    } catch (SQLException | RuntimeException e) {
+                        transaction.execute("ROLLBACK");
+                        throw e;
+                    }
+                }
+            });
+        } finally {
+            db.releaseConnection(conn);
+        }
+    }
+
+    /**
+     * Run a write again, with backoff, while SQLite reports the database busy
+     * The attempt must be safe to repeat: one statement, or a transaction that was rolled back
+     */
+    protected <R> R withBusyRetry(String operation, BusyRetry.Attempt<R> attempt) throws SQLException {
+        return BusyRetry.getInstance().execute(getClass(), operation, attempt);
+    }
+
+    /**
+     * Hook to store a generated ID on a newly inserted entity
+     * Can be overridden by subclasses
+     */
+    protected void applyGeneratedId(T entity, long generatedId) {
+        // No generated key by default
+    }
+
+    /**
+     * Build a "?, ?, ?" placeholder list
+     */
+    protected static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static int sumUpdateCounts(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                total += count;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Unit of work executed inside a transaction, on the transaction's connection
+     */
+    @FunctionalInterface
+    protected interface TransactionWork<R> {
+        R execute(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Binds one entity's columns into a multi-row statement
+     */
+    @FunctionalInterface
+    protected interface RowBinder<T> {
+        void bind(java.sql.PreparedStatement stmt, int firstIndex, T entity) throws SQLException;
     }
 
     /**
@@ -140,11 +510,40 @@ public abstract class BaseDAO<T, ID> implements Repository<T, ID> {
         return "id";
     }
 
+    /**
+     * Record a finished statement (or group of statements) in the query metrics
+     * and as a JFR event; query is DaoQueryEvent.start() taken before the statement was prepared
+     */
+    protected void recordQuery(String operation, DaoQueryEvent query, int rows) {
+        recordQuery(operation, query, rows, null, null);
+    }
+
+    /**
+     * Same as recordQuery, for a single statement whose SQL and parameters go
+     * to the slow-query log when it is slow; conn is the connection it ran on,
+     * where its EXPLAIN QUERY PLAN is taken
+     */
+    protected void recordQuery(String operation, DaoQueryEvent query, int rows, Connection conn, String sql,
+                               Object... params) {
+        long nanos = System.nanoTime() - query.getStartNanos();
+        QueryStats stats = QueryMetrics.getInstance().record(getClass(), operation, nanos, rows);
+        query.finish(stats.getName(), rows);
+        SlowQueryLog.getInstance().check(stats.getName(), conn, sql, nanos, rows, params);
+    }
+
+    /**
+     * Count a failed statement in the query metrics
+     */
+    protected void recordQueryError(String operation) {
+        QueryMetrics.getInstance().recordError(getClass(), operation);
+    }
+
     /**
      * Handle SQL exceptions
      * Can be overridden by subclasses for custom error handling
      */
     protected void handleSQLException(String operation, SQLException e) {
+        recordQueryError(operation);
         System.err.println("SQL Error in " + getClass().getSimpleName() + "." + operation + ": " + e.getMessage());
         e.printStackTrace();
     }
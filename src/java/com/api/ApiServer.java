@@ -0,0 +1,585 @@
+package com.api;
+
+import com.events.EventBus;
+import com.events.EventType;
+import com.metrics.LatencyHistogram;
+import com.metrics.QueryMetrics;
+import com.metrics.QueryStats;
+import com.models.ActivitySession;
+import com.models.Recommendation;
+import com.models.User;
+import com.services.AnalyticsService;
+import com.services.AnalyticsService.ComparisonResult;
+import com.services.AnalyticsService.DailyAnalytics;
+import com.services.AnalyticsService.MonthlyAnalytics;
+import com.services.AnalyticsService.WeeklyAnalytics;
+import com.services.AuthenticationService;
+import com.services.AuthenticationService.AuthResult;
+import com.services.PasswordHasher;
+import com.services.RecommendationService;
+import com.services.ServiceRegistry;
+import com.services.TimeTrackingService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless JSON HTTP API - exposes the service layer without the JavaFX client
+ *
+ * Runs on the JDK's built-in HttpServer with one virtual thread per request,
+ * so thousands of slow or idle connections do not tie up platform threads.
+ * Parameters come from the query string or a form-encoded body of at most
+ * MAX_BODY_BYTES (larger ones get 413); responses are streamed with JsonWriter. GET /api/metrics reports p50/p99 per route
+ * and per DAO query; it answers local callers only.
+ * Calls other than register/login/metrics need the token returned by login,
+ * sent as "Authorization: Bearer <token>". The token is never read from the
+ * query string or body, where it would end up in logs and browser history.
+ * Start and Stop take an optional "Idempotency-Key" header, so a client can
+ * safely resend one after a timeout; the key is only read from the header.
+ * Generating recommendations publishes an event, so it is a POST.
+ */
+public class ApiServer {
+    private static final int BACKLOG = 4096;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LatencyRecorder latencies = new LatencyRecorder();
+
+    private final AuthenticationService authService;
+    private final TimeTrackingService timeTrackingService;
+    private final AnalyticsService analyticsService;
+    private final RecommendationService recommendationService;
+
+    /**
+     * Entry point for headless deployments
+     * Usage: java -cp "build;lib/*" com.api.ApiServer [--port=8080]
+     */
+    public static void main(String[] args) {
+        int port = 8080;
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            }
+        }
+
+        try {
+            ApiServer apiServer = new ApiServer(port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                apiServer.stop();
+                ServiceRegistry.shutdownIfStarted();
+                EventBus.shutdownIfStarted();
+                System.out.println(" IntelliCoach API stopped");
+            }));
+            apiServer.start();
+        } catch (IOException | CompletionException e) {
+            System.err.println(" API server failed to start: " + e.getMessage());
+            ServiceRegistry.shutdownIfStarted();
+        }
+    }
+
+    public ApiServer(int port) throws IOException {
+        ServiceRegistry registry = ServiceRegistry.getInstance();
+        registry.startAll().join();
+        System.out.print(registry.getStartupReport());
+
+        this.authService = registry.get(AuthenticationService.class);
+        this.timeTrackingService = registry.get(TimeTrackingService.class);
+        this.analyticsService = registry.get(AnalyticsService.class);
+        this.recommendationService = registry.get(RecommendationService.class);
+
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server.setExecutor(executor);
+
+        route("POST", "/api/auth/register", this::register);
+        route("POST", "/api/auth/login", this::login);
+        route("POST", "/api/auth/logout", this::logout);
+        route("POST", "/api/sessions/start", this::startSession);
+        route("POST", "/api/sessions/stop", this::stopSession);
+        route("GET", "/api/sessions/active", this::activeSession);
+        route("GET", "/api/sessions", this::sessions);
+        route("GET", "/api/analytics/daily", this::dailyAnalytics);
+        route("GET", "/api/analytics/weekly", this::weeklyAnalytics);
+        route("GET", "/api/analytics/monthly", this::monthlyAnalytics);
+        route("POST", "/api/recommendations", this::recommendations);
+        route("GET", "/api/metrics", this::metrics);
+    }
+
+    public void start() {
+        server.start();
+        System.out.println(" IntelliCoach API listening on port " + server.getAddress().getPort());
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        System.out.print(latencies.report());
+        System.out.print(QueryMetrics.getInstance().dump());
+    }
+
+    public LatencyRecorder getLatencies() {
+        return latencies;
+    }
+
+    // Handlers
+
+    private void register(Params params, JsonWriter json) throws IOException {
+        AuthResult result = authService.register(params.required("username"), params.required("email"),
+                params.required("password"), params.optional("fullName", ""));
+        writeAuthResult(json, result);
+    }
+
+    private void login(Params params, JsonWriter json) throws IOException {
+        AuthResult result = authService.login(params.required("usernameOrEmail"), params.required("password"));
+        writeAuthResult(json, result);
+    }
+
+    private void logout(Params params, JsonWriter json) throws IOException {
+        json.beginObject().field("loggedOut", authService.logout(params.token())).endObject();
+    }
+
+    private void startSession(Params params, JsonWriter json) throws IOException {
+        ActivitySession session = timeTrackingService.startActivity(userId(params), params.required("activity"),
+                params.idempotencyKey());
+        if (session == null) {
+            throw new IllegalArgumentException("Failed to start activity");
+        }
+        writeSession(json, session);
+    }
+
+    private void stopSession(Params params, JsonWriter json) throws IOException {
+        boolean stopped = timeTrackingService.stopActivity(userId(params), params.idempotencyKey());
+        json.beginObject().field("stopped", stopped).endObject();
+    }
+
+    private void activeSession(Params params, JsonWriter json) throws IOException {
+        ActivitySession session = timeTrackingService.getActiveSession(userId(params));
+        if (session == null) {
+            json.nullValue();
+        } else {
+            writeSession(json, session);
+        }
+    }
+
+    private void sessions(Params params, JsonWriter json) throws IOException {
+        LocalDate from = params.date("from", LocalDate.now());
+        LocalDate to = params.date("to", from);
+        List<ActivitySession> sessions = timeTrackingService.getSessionsByDateRange(userId(params), from, to);
+
+        json.beginArray();
+        for (ActivitySession session : sessions) {
+            writeSession(json, session);
+        }
+        json.endArray();
+    }
+
+    private void dailyAnalytics(Params params, JsonWriter json) throws IOException {
+        DailyAnalytics analytics = analyticsService.getDailyAnalytics(userId(params),
+                params.date("date", LocalDate.now()));
+
+        json.beginObject()
+                .field("date", analytics.getDate().toString())
+                .field("totalMinutes", analytics.getTotalMinutes())
+                .name("comparisons").beginArray();
+        for (ComparisonResult comparison : analytics.getComparisons().values()) {
+            json.beginObject()
+                    .field("activityType", comparison.getActivityType())
+                    .field("actualMinutes", comparison.getActualMinutes())
+                    .field("recommendedMin", comparison.getRecommendedMin())
+                    .field("recommendedMax", comparison.getRecommendedMax())
+                    .field("status", comparison.getStatus())
+                    .field("differenceMinutes", comparison.getDifferenceMinutes())
+                    .endObject();
+        }
+        json.endArray().endObject();
+    }
+
+    private void weeklyAnalytics(Params params, JsonWriter json) throws IOException {
+        WeeklyAnalytics analytics = analyticsService.getWeeklyAnalytics(userId(params),
+                params.date("endDate", LocalDate.now()));
+
+        json.beginObject()
+                .field("startDate", analytics.getStartDate().toString())
+                .field("endDate", analytics.getEndDate().toString());
+        writeTotals(json, analytics.getTotalMinutes(), analytics.getAverageMinutesPerDay());
+        json.endObject();
+    }
+
+    private void monthlyAnalytics(Params params, JsonWriter json) throws IOException {
+        LocalDate today = LocalDate.now();
+        MonthlyAnalytics analytics = analyticsService.getMonthlyAnalytics(userId(params),
+                params.integer("year", today.getYear()), params.integer("month", today.getMonthValue()));
+
+        json.beginObject()
+                .field("year", analytics.getYear())
+                .field("month", analytics.getMonth())
+                .field("totalDays", analytics.getTotalDays());
+        writeTotals(json, analytics.getTotalMinutes(), analytics.getAverageMinutesPerDay());
+        json.endObject();
+    }
+
+    private void recommendations(Params params, JsonWriter json) throws IOException {
+        int userId = userId(params);
+        LocalDate date = params.date("date", LocalDate.now());
+        List<Recommendation> recommendations = recommendationService.generateRecommendations(userId, date);
+
+        json.beginObject()
+                .field("date", date.toString())
+                .field("productivityScore", recommendationService.getProductivityScore(userId, date))
+                .name("recommendations").beginArray();
+        for (Recommendation recommendation : recommendations) {
+            json.beginObject()
+                    .field("type", recommendation.getRecommendationType())
+                    .field("priority", recommendation.getPriority())
+                    .field("text", recommendation.getRecommendationText())
+                    .endObject();
+        }
+        json.endArray().endObject();
+    }
+
+    private void metrics(Params params, JsonWriter json) throws IOException {
+        if (!params.isLocal()) {
+            throw new ForbiddenException();
+        }
+        json.beginObject().field("activeLogins", authService.getActiveSessionCount());
+
+        EventBus eventBus = EventBus.getInstance();
+        json.name("events").beginObject();
+        for (EventType type : EventType.values()) {
+            json.field(type.name(), eventBus.getPublishedCount(type));
+        }
+        json.field("dropped", eventBus.getDroppedEvents());
+        json.name("subscriberLag").beginObject();
+        for (EventBus.Subscription subscription : eventBus.getSubscriptions()) {
+            json.field(subscription.getName(), subscription.getLag());
+        }
+        json.endObject().endObject();
+
+        PasswordHasher hasher = PasswordHasher.getInstance();
+        json.name("passwordHashing").beginObject()
+                .field("queueDepth", hasher.getQueueDepth())
+                .field("activeWorkers", hasher.getActiveWorkers())
+                .field("rejected", hasher.getRejected())
+                .field("callerRuns", hasher.getCallerRuns())
+                .field("hashesComputed", hasher.getHashesComputed())
+                .field("averageHashMillis", hasher.getAverageHashMillis())
+                .endObject();
+
+        json.name("queries").beginObject();
+        for (QueryStats stats : QueryMetrics.getInstance().getQueries()) {
+            LatencyHistogram.Snapshot latency = stats.getLatency();
+            json.name(stats.getName()).beginObject()
+                    .field("calls", stats.getCalls())
+                    .field("errors", stats.getErrors())
+                    .field("retries", stats.getRetries())
+                    .field("giveUps", stats.getGiveUps())
+                    .field("rows", stats.getRows())
+                    .field("p50Millis", latency.getMillisAtQuantile(0.50))
+                    .field("p99Millis", latency.getMillisAtQuantile(0.99))
+                    .field("maxMillis", latency.getMaxNanos() / 1_000_000.0)
+                    .endObject();
+        }
+        json.endObject();
+
+        json.name("routes").beginObject();
+        for (Map.Entry<String, LatencyRecorder.RouteSamples> entry : latencies.getRoutes().entrySet()) {
+            LatencyRecorder.Snapshot snapshot = entry.getValue().snapshot();
+            json.name(entry.getKey()).beginObject()
+                    .field("count", snapshot.getCount())
+                    .field("p50Millis", snapshot.getP50Millis())
+                    .field("p99Millis", snapshot.getP99Millis())
+                    .field("maxMillis", snapshot.getMaxMillis())
+                    .endObject();
+        }
+        json.endObject().endObject();
+    }
+
+    /**
+     * Resolve the caller from the session token
+     */
+    private int userId(Params params) {
+        User user = authService.getCurrentUser(params.token());
+        if (user == null) {
+            throw new UnauthorizedException();
+        }
+        return user.getUserId();
+    }
+
+    // JSON helpers
+
+    private void writeAuthResult(JsonWriter json, AuthResult result) throws IOException {
+        json.beginObject()
+                .field("success", result.isSuccess())
+                .field("message", result.getMessage());
+        if (result.getToken() != null) {
+            json.field("token", result.getToken());
+        }
+        if (result.getUser() != null) {
+            json.name("user");
+            writeUser(json, result.getUser());
+        }
+        json.endObject();
+    }
+
+    private void writeUser(JsonWriter json, User user) throws IOException {
+        json.beginObject()
+                .field("userId", user.getUserId())
+                .field("username", user.getUsername())
+                .field("email", user.getEmail())
+                .field("fullName", user.getFullName())
+                .endObject();
+    }
+
+    private void writeSession(JsonWriter json, ActivitySession session) throws IOException {
+        json.beginObject()
+                .field("sessionId", session.getSessionId())
+                .field("activityType", session.getActivityType())
+                .field("startTime", String.valueOf(session.getStartTime()))
+                .field("endTime", session.getEndTime() != null ? session.getEndTime().toString() : null)
+                .field("durationMinutes", session.getDurationMinutes())
+                .field("sessionDate", String.valueOf(session.getSessionDate()))
+                .field("active", session.isActive())
+                .endObject();
+    }
+
+    private void writeTotals(JsonWriter json, Map<String, Integer> totals, Map<String, Double> averages)
+            throws IOException {
+        json.name("activities").beginArray();
+        for (Map.Entry<String, Integer> entry : totals.entrySet()) {
+            json.beginObject()
+                    .field("activityType", entry.getKey())
+                    .field("totalMinutes", entry.getValue())
+                    .field("averageMinutesPerDay", averages.getOrDefault(entry.getKey(), 0.0))
+                    .endObject();
+        }
+        json.endArray();
+    }
+
+    // Routing
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(Params params, JsonWriter json) throws IOException;
+    }
+
+    private void route(String method, String path, Handler handler) {
+        String routeName = method + " " + path;
+        server.createContext(path, exchange -> {
+            long start = System.nanoTime();
+            try {
+                if (!exchange.getRequestURI().getPath().equals(path)) {
+                    sendError(exchange, 404, "Not found");
+                } else if (!method.equals(exchange.getRequestMethod())) {
+                    sendError(exchange, 405, "Method not allowed");
+                } else {
+                    Params params = Params.parse(exchange);
+                    // Not try-with-resources: a failed handler must not flush a partial body
+                    JsonWriter json = new JsonWriter(new ResponseStream(exchange));
+                    handler.handle(params, json);
+                    json.close();
+                }
+            } catch (UnauthorizedException e) {
+                sendError(exchange, 401, "Login required");
+            } catch (ForbiddenException e) {
+                sendError(exchange, 403, "Forbidden");
+            } catch (PayloadTooLargeException e) {
+                sendError(exchange, 413, e.getMessage());
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                System.err.println(" API error on " + routeName + ": " + e.getMessage());
+                sendError(exchange, 500, "Internal error");
+            } finally {
+                exchange.close();
+                latencies.record(routeName, System.nanoTime() - start);
+            }
+        });
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            return; // headers already sent; the client sees a truncated body
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        try (JsonWriter json = new JsonWriter(exchange.getResponseBody())) {
+            json.beginObject().field("error", message).endObject();
+        }
+    }
+
+    private static class UnauthorizedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        UnauthorizedException() {
+            super("Login required");
+        }
+    }
+
+    private static class ForbiddenException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ForbiddenException() {
+            super("Forbidden");
+        }
+    }
+
+    private static class PayloadTooLargeException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        PayloadTooLargeException() {
+            super("Request body exceeds " + MAX_BODY_BYTES + " bytes");
+        }
+    }
+
+    /**
+     * Response body that sends the 200 headers on its first write
+     * Until the JSON buffer first spills, a failing handler can still answer with an error status
+     */
+    private static class ResponseStream extends OutputStream {
+        private final HttpExchange exchange;
+        private OutputStream body;
+
+        ResponseStream(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            open().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            open().write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            open().close();
+        }
+
+        private OutputStream open() throws IOException {
+            if (body == null) {
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(200, 0);
+                body = exchange.getResponseBody();
+            }
+            return body;
+        }
+    }
+
+    /**
+     * Query string and form-encoded body parameters of one request, plus its bearer token
+     */
+    private static class Params {
+        private final Map<String, String> values = new HashMap<>();
+        private String token;
+        private String idempotencyKey;
+        private boolean local;
+
+        static Params parse(HttpExchange exchange) throws IOException {
+            Params params = new Params();
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            if (authorization != null && authorization.startsWith("Bearer ")) {
+                params.token = authorization.substring("Bearer ".length()).trim();
+            }
+            params.local = exchange.getRemoteAddress().getAddress().isLoopbackAddress();
+            String idempotencyKey = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+            if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+                params.idempotencyKey = idempotencyKey.trim();
+            }
+            params.addEncoded(exchange.getRequestURI().getRawQuery());
+            params.addEncoded(readBody(exchange));
+            return params;
+        }
+
+        /**
+         * Read the form-encoded body, refusing one larger than MAX_BODY_BYTES
+         * before more than that is buffered
+         */
+        private static String readBody(HttpExchange exchange) throws IOException {
+            String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+            if (contentLength != null && contentLength.matches("\\d{1,18}")
+                    && Long.parseLong(contentLength) > MAX_BODY_BYTES) {
+                throw new PayloadTooLargeException();
+            }
+            try (InputStream body = exchange.getRequestBody()) {
+                byte[] bytes = body.readNBytes(MAX_BODY_BYTES + 1);
+                if (bytes.length > MAX_BODY_BYTES) {
+                    throw new PayloadTooLargeException();
+                }
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+
+        private void addEncoded(String encoded) {
+            if (encoded == null || encoded.isEmpty()) {
+                return;
+            }
+            for (String pair : encoded.split("&")) {
+                int eq = pair.indexOf('=');
+                String key = eq < 0 ? pair : pair.substring(0, eq);
+                String value = eq < 0 ? "" : pair.substring(eq + 1);
+                values.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                        URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+
+        String required(String name) {
+            String value = values.get(name);
+            if (value == null || value.isEmpty()) {
+                throw new IllegalArgumentException("Missing parameter: " + name);
+            }
+            return value;
+        }
+
+        String optional(String name, String defaultValue) {
+            return values.getOrDefault(name, defaultValue);
+        }
+
+        int integer(String name, int defaultValue) {
+            String value = values.get(name);
+            return value == null ? defaultValue : Integer.parseInt(value);
+        }
+
+        /**
+         * Bearer token from the Authorization header, null when absent
+         */
+        String token() {
+            return token;
+        }
+
+        /**
+         * Whether the request came from this machine
+         */
+        boolean isLocal() {
+            return local;
+        }
+
+        /**
+         * Idempotency-Key header of a Start/Stop, null when absent
+         */
+        String idempotencyKey() {
+            return idempotencyKey;
+        }
+
+        LocalDate date(String name, LocalDate defaultValue) {
+            String value = values.get(name);
+            return value == null ? defaultValue : LocalDate.parse(value);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.api;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-route request latency recorder
+ * Keeps the most recent samples of each route in a fixed ring, so recording
+ * is lock-free and allocation-free, and percentiles are computed on demand
+ */
+public class LatencyRecorder {
+    private static final int SAMPLES_PER_ROUTE = 8192;
+
+    private final Map<String, RouteSamples> routes = new ConcurrentHashMap<>();
+
+    public void record(String route, long nanos) {
+        routes.computeIfAbsent(route, r -> new RouteSamples()).record(nanos);
+    }
+
+    public Map<String, RouteSamples> getRoutes() {
+        return routes;
+    }
+
+    /**
+     * One-line summary per route, e.g. for logging on shutdown
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        routes.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    Snapshot snapshot = entry.getValue().snapshot();
+                    report.append(String.format("%-32s count=%-8d p50=%8.3f ms  p99=%8.3f ms  max=%8.3f ms%n",
+                            entry.getKey(), snapshot.getCount(),
+                            snapshot.getP50Millis(), snapshot.getP99Millis(), snapshot.getMaxMillis()));
+                });
+        return report.toString();
+    }
+
+    /**
+     * Ring of the most recent latency samples of one route
+     */
+    public static class RouteSamples {
+        private final AtomicLongArray samples = new AtomicLongArray(SAMPLES_PER_ROUTE);
+        private final AtomicLong count = new AtomicLong();
+
+        void record(long nanos) {
+            long index = count.getAndIncrement();
+            samples.set((int) (index % SAMPLES_PER_ROUTE), nanos);
+        }
+
+        public Snapshot snapshot() {
+            long total = count.get();
+            int size = (int) Math.min(total, SAMPLES_PER_ROUTE);
+            long[] copy = new long[size];
+            for (int i = 0; i < size; i++) {
+                copy[i] = samples.get(i);
+            }
+            Arrays.sort(copy);
+            return new Snapshot(total, copy);
+        }
+    }
+
+    /**
+     * Sorted copy of a route's recent samples
+     */
+    public static class Snapshot {
+        private final long count;
+        private final long[] sorted;
+
+        Snapshot(long count, long[] sorted) {
+            this.count = count;
+            this.sorted = sorted;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getP50Millis() {
+            return percentile(0.50);
+        }
+
+        public double getP99Millis() {
+            return percentile(0.99);
+        }
+
+        public double getMaxMillis() {
+            return sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000_000.0;
+        }
+
+        private double percentile(double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
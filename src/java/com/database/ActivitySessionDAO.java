@@ -1,109 +1,252 @@
 package com.database;
 
 import com.models.ActivitySession;
+import com.abstracts.BaseDAO;
+import com.metrics.DaoQueryEvent;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * ActivitySession Data Access Object - Core time-tracking operations
+ * Extends BaseDAO so sessions get the generic and batch Repository operations
+ *
+ * Start/Stop are read-modify-write transitions. Within this process they are
+ * serialized per user by a striped lock; against other connections (the
+ * session writer, another process) the stop is a compare-and-set on the
+ * session's version column, and the partial unique index on active sessions
+ * rejects a second active session outright.
  */
-public class ActivitySessionDAO {
+public class ActivitySessionDAO extends BaseDAO<ActivitySession, Integer> {
+    private static final String SESSION_INSERT_PREFIX =
+            "INSERT INTO activity_sessions (user_id, activity_type, start_time, end_time, " +
+            "duration_minutes, session_date, is_active) VALUES ";
+    
+    static {
+        // Per-user lookups behind every page and the start/stop path
+        SlowQueryLog.registerHotQueries(ActivitySessionDAO.class, "getActiveSession", "getSessionsByDate",
+                "getSessionsByDateRange", "getTotalTimeByActivity");
+    }
+    
+    // Shared by all DAO instances: a fixed set of locks, none allocated per user
+    private static final StripedLocks USER_LOCKS = new StripedLocks(64);
+    private static final int MAX_VERSION_CONFLICTS = 16;
+    private static final LongAdder versionConflicts = new LongAdder();
+
     private DBConnection dbConnection;
     
     public ActivitySessionDAO() {
+        super("activity_sessions");
         this.dbConnection = DBConnection.getInstance();
     }
     
     /**
      * Start a new activity session
+     * Holds the user's lock; the stop of the previous session and the insert commit together
      */
     public ActivitySession startSession(int userId, String activityType, LocalDateTime startTime) {
+        ReentrantLock lock = USER_LOCKS.forKey(userId);
+        lock.lock();
+        try {
+            return inTransaction("startSession", conn -> startSession(conn, userId, activityType, startTime));
+        } catch (SQLException e) {
+            recordQueryError("startSession");
+            System.err.println(" Start session failed: " + e.getMessage());
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Start a new activity session on the given connection
+     * Used by the session writer so the statements join its group transaction
+     * The session starts no earlier than the one it replaces
+     */
+    public ActivitySession startSession(Connection conn, int userId, String activityType,
+                                        LocalDateTime startTime) throws SQLException {
+        DaoQueryEvent query = DaoQueryEvent.start();
+        ActivitySession session = null;
+
         // First, stop any active session for this user
-        stopActiveSession(userId, startTime);
+        ActivitySession previous = stopActive(conn, userId, startTime);
+        LocalDateTime effectiveStart = previous != null && previous.getEndTime().isAfter(startTime)
+                ? previous.getEndTime() : startTime;
         
         String sql = "INSERT INTO activity_sessions (user_id, activity_type, start_time, session_date, is_active) " +
                      "VALUES (?, ?, ?, ?, 1)";
         
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, userId);
             stmt.setString(2, activityType);
-            stmt.setTimestamp(3, Timestamp.valueOf(startTime));
-            stmt.setDate(4, Date.valueOf(startTime.toLocalDate()));
+            stmt.setTimestamp(3, Timestamp.valueOf(effectiveStart));
+            stmt.setDate(4, Date.valueOf(effectiveStart.toLocalDate()));
             
             int affected = stmt.executeUpdate();
             
             if (affected > 0) {
                 // Get the generated ID using SQLite's last_insert_rowid()
                 String getIdSql = "SELECT last_insert_rowid()";
-                try (PreparedStatement idStmt = dbConnection.getConnection().prepareStatement(getIdSql);
+                try (PreparedStatement idStmt = conn.prepareStatement(getIdSql);
                      ResultSet rs = idStmt.executeQuery()) {
                     if (rs.next()) {
-                        ActivitySession session = new ActivitySession(userId, activityType, startTime);
+                        session = new ActivitySession(userId, activityType, effectiveStart);
                         session.setSessionId(rs.getInt(1));
-                        return session;
                     }
                 }
             }
-            
-        } catch (SQLException e) {
-            System.err.println(" Start session failed: " + e.getMessage());
         }
         
-        return null;
+        recordQuery("startSession", query, session != null ? 1 : 0);
+        return session;
     }
     
     /**
      * Stop the active session for a user
+     * Holds the user's lock, so it does not interleave with the user's other Start/Stop calls
      */
     public boolean stopActiveSession(int userId, LocalDateTime endTime) {
-        // Get active session
-        ActivitySession activeSession = getActiveSession(userId);
-        if (activeSession == null) {
-            return false;
-        }
-        
-        // Calculate duration
-        activeSession.stopActivity(endTime);
-        
-        String sql = "UPDATE activity_sessions SET end_time = ?, duration_minutes = ?, is_active = 0 " +
-                     "WHERE session_id = ?";
-        
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(sql)) {
-            stmt.setTimestamp(1, Timestamp.valueOf(endTime));
-            stmt.setInt(2, activeSession.getDurationMinutes());
-            stmt.setInt(3, activeSession.getSessionId());
-            
-            return stmt.executeUpdate() > 0;
-            
+        ReentrantLock lock = USER_LOCKS.forKey(userId);
+        lock.lock();
+        try {
+            Connection conn = dbConnection.getConnection();
+            return withBusyRetry("stopActiveSession", () -> stopActiveSession(conn, userId, endTime));
         } catch (SQLException e) {
+            recordQueryError("stopActiveSession");
             System.err.println(" Stop session failed: " + e.getMessage());
             return false;
+        } finally {
+            lock.unlock();
         }
     }
     
+    /**
+     * Stop the active session for a user on the given connection
+     */
+    public boolean stopActiveSession(Connection conn, int userId, LocalDateTime endTime) throws SQLException {
+        return stopActive(conn, userId, endTime) != null;
+    }
+
+    /**
+     * Start/Stop transitions that found the active session changed by another
+     * connection between reading and updating it, and read it again
+     */
+    public static long getVersionConflicts() {
+        return versionConflicts.sum();
+    }
+
+    /**
+     * Stop the active session with a compare-and-set on its version; returns it, or null if none was active
+     * A session is never stopped before it started, even if the stop was timed before a racing start
+     */
+    private ActivitySession stopActive(Connection conn, int userId, LocalDateTime endTime) throws SQLException {
+        DaoQueryEvent query = DaoQueryEvent.start();
+        String sql = "UPDATE activity_sessions SET end_time = ?, duration_minutes = ?, is_active = 0, " +
+                     "version = version + 1 WHERE session_id = ? AND version = ?";
+
+        for (int attempt = 0; attempt < MAX_VERSION_CONFLICTS; attempt++) {
+            ActivitySession activeSession = getActiveSession(conn, userId);
+            if (activeSession == null) {
+                recordQuery("stopActiveSession", query, 0);
+                return null;
+            }
+
+            // Calculate duration
+            activeSession.stopActivity(endTime.isBefore(activeSession.getStartTime())
+                    ? activeSession.getStartTime() : endTime);
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setTimestamp(1, Timestamp.valueOf(activeSession.getEndTime()));
+                stmt.setInt(2, activeSession.getDurationMinutes());
+                stmt.setInt(3, activeSession.getSessionId());
+                stmt.setInt(4, activeSession.getVersion());
+
+                if (stmt.executeUpdate() > 0) {
+                    recordQuery("stopActiveSession", query, 1, conn, sql, activeSession.getEndTime(),
+                            activeSession.getDurationMinutes(), activeSession.getSessionId(), activeSession.getVersion());
+                    activeSession.setVersion(activeSession.getVersion() + 1);
+                    return activeSession;
+                }
+            }
+            versionConflicts.increment();
+        }
+
+        recordQueryError("stopActiveSession");
+        throw new SQLException("Active session of user " + userId + " kept changing; gave up after "
+                + MAX_VERSION_CONFLICTS + " attempts");
+    }
+    
     /**
      * Get the currently active session for a user
      */
     public ActivitySession getActiveSession(int userId) {
+        try {
+            return getActiveSession(dbConnection.getConnection(), userId);
+        } catch (SQLException e) {
+            recordQueryError("getActiveSession");
+            System.err.println(" Get active session failed: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Get the currently active session for a user on the given connection
+     */
+    public ActivitySession getActiveSession(Connection conn, int userId) throws SQLException {
         String sql = "SELECT * FROM activity_sessions WHERE user_id = ? AND is_active = 1 LIMIT 1";
+        DaoQueryEvent query = DaoQueryEvent.start();
+        ActivitySession session = null;
         
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return mapResultSetToSession(rs);
+                session = mapResultSetToEntity(rs);
+            }
+        }
+        
+        recordQuery("getActiveSession", query, session != null ? 1 : 0, conn, sql, userId);
+        return session;
+    }
+    
+    /**
+     * Insert imported sessions on the given connection
+     * The caller owns the transaction
+     */
+    public void insertAll(Connection conn, List<ActivitySession> sessions) throws SQLException {
+        DaoQueryEvent query = DaoQueryEvent.start();
+        insertMultiRow(conn, sessions, SESSION_INSERT_PREFIX, 7, this::bindSessionColumns);
+        recordQuery("insertAll", query, sessions.size());
+    }
+    
+    /**
+     * Get the active sessions of all users
+     */
+    public List<ActivitySession> getAllActiveSessions() {
+        List<ActivitySession> sessions = new ArrayList<>();
+        String sql = "SELECT * FROM activity_sessions WHERE is_active = 1";
+        DaoQueryEvent query = DaoQueryEvent.start();
+        
+        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(sql)) {
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                sessions.add(mapResultSetToEntity(rs));
             }
             
         } catch (SQLException e) {
-            System.err.println(" Get active session failed: " + e.getMessage());
+            recordQueryError("getAllActiveSessions");
+            System.err.println(" Get all active sessions failed: " + e.getMessage());
         }
         
-        return null;
+        recordQuery("getAllActiveSessions", query, sessions.size(), dbConnection.getConnection(), sql);
+        return sessions;
     }
     
     /**
@@ -113,6 +256,7 @@ public class ActivitySessionDAO {
         List<ActivitySession> sessions = new ArrayList<>();
         String sql = "SELECT * FROM activity_sessions WHERE user_id = ? AND session_date = ? " +
                      "ORDER BY start_time ASC";
+        DaoQueryEvent query = DaoQueryEvent.start();
         
         try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(sql)) {
             stmt.setInt(1, userId);
@@ -120,39 +264,54 @@ public class ActivitySessionDAO {
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
-                sessions.add(mapResultSetToSession(rs));
+                sessions.add(mapResultSetToEntity(rs));
             }
             
         } catch (SQLException e) {
+            recordQueryError("getSessionsByDate");
             System.err.println(" Get sessions by date failed: " + e.getMessage());
         }
         
-        return sessions;
+        recordQuery("getSessionsByDate", query, sessions.size(), dbConnection.getConnection(), sql, userId, date);
+        return withArchivedSessions("getSessionsByDate", sessions, userId, date, date);
     }
     
     /**
      * Get all sessions for a user in a date range
+     * Ordered by day, then start time - the same order as by start time, since a
+     * session's date is its start date, but read straight off the index without a sort
      */
     public List<ActivitySession> getSessionsByDateRange(int userId, LocalDate startDate, LocalDate endDate) {
+        return getSessionsByDateRange(dbConnection.getConnection(), userId, startDate, endDate);
+    }
+
+    /**
+     * Get all sessions for a user in a date range on the given connection, e.g. a report snapshot's
+     */
+    public List<ActivitySession> getSessionsByDateRange(Connection conn, int userId, LocalDate startDate,
+                                                        LocalDate endDate) {
         List<ActivitySession> sessions = new ArrayList<>();
         String sql = "SELECT * FROM activity_sessions WHERE user_id = ? " +
-                     "AND session_date BETWEEN ? AND ? ORDER BY start_time ASC";
+                     "AND session_date BETWEEN ? AND ? ORDER BY session_date ASC, start_time ASC";
+        DaoQueryEvent query = DaoQueryEvent.start();
         
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, userId);
             stmt.setDate(2, Date.valueOf(startDate));
             stmt.setDate(3, Date.valueOf(endDate));
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
-                sessions.add(mapResultSetToSession(rs));
+                sessions.add(mapResultSetToEntity(rs));
             }
             
         } catch (SQLException e) {
+            recordQueryError("getSessionsByDateRange");
             System.err.println(" Get sessions by date range failed: " + e.getMessage());
         }
         
-        return sessions;
+        recordQuery("getSessionsByDateRange", query, sessions.size(), conn, sql, userId, startDate, endDate);
+        return withArchivedSessions("getSessionsByDateRange", sessions, userId, startDate, endDate);
     }
     
     /**
@@ -160,9 +319,19 @@ public class ActivitySessionDAO {
      */
     public java.util.Map<String, Integer> getTotalTimeByActivity(int userId, LocalDate date) {
         java.util.Map<String, Integer> timeMap = new java.util.HashMap<>();
+        if (!SessionArchive.getInstance().yearsFor(date, date).isEmpty()) {
+            // Summed from the sessions, so a session in both the archive and the hot table counts once
+            for (ActivitySession session : getSessionsByDate(userId, date)) {
+                if (session.getEndTime() != null) {
+                    timeMap.merge(session.getActivityType(), session.getDurationMinutes(), Integer::sum);
+                }
+            }
+            return timeMap;
+        }
         String sql = "SELECT activity_type, SUM(duration_minutes) as total_minutes " +
                      "FROM activity_sessions WHERE user_id = ? AND session_date = ? " +
                      "AND duration_minutes IS NOT NULL GROUP BY activity_type";
+        DaoQueryEvent query = DaoQueryEvent.start();
         
         try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(sql)) {
             stmt.setInt(1, userId);
@@ -174,16 +343,199 @@ public class ActivitySessionDAO {
             }
             
         } catch (SQLException e) {
+            recordQueryError("getTotalTimeByActivity");
             System.err.println(" Get total time failed: " + e.getMessage());
         }
         
+        recordQuery("getTotalTimeByActivity", query, timeMap.size(), dbConnection.getConnection(), sql,
+                userId, date);
         return timeMap;
     }
     
+    /**
+     * Add the archived sessions of a date range to the hot table's, in day and start order
+     * Returns hotSessions as they are for recent dates. A session an interrupted archive run
+     * left in both files is kept once, the newer version winning and the hot copy on a tie.
+     * Recorded as "<operation>WithArchives". An archive that cannot be read is logged and
+     * skipped, like any failed read in this DAO, so the result then lacks that year only
+     */
+    private List<ActivitySession> withArchivedSessions(String operation, List<ActivitySession> hotSessions,
+                                                       int userId, LocalDate startDate, LocalDate endDate) {
+        SessionArchive archive = SessionArchive.getInstance();
+        List<Integer> years = archive.yearsFor(startDate, endDate);
+        if (years.isEmpty()) {
+            return hotSessions;
+        }
+        String sql = "SELECT * FROM activity_sessions WHERE user_id = ? AND session_date BETWEEN ? AND ?";
+        DaoQueryEvent query = DaoQueryEvent.start();
+        java.util.Map<Integer, ActivitySession> byId = new java.util.HashMap<>();
+
+        for (int year : years) {
+            List<ActivitySession> archived;
+            try {
+                archived = archive.read(year, conn -> {
+                    List<ActivitySession> rows = new ArrayList<>();
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        stmt.setInt(1, userId);
+                        stmt.setDate(2, Date.valueOf(startDate));
+                        stmt.setDate(3, Date.valueOf(endDate));
+                        ResultSet rs = stmt.executeQuery();
+                        while (rs.next()) {
+                            rows.add(mapResultSetToEntity(rs));
+                        }
+                    }
+                    return rows;
+                });
+            } catch (SQLException e) {
+                // Merge nothing from a year that failed part way
+                handleSQLException(operation + "WithArchives",
+                        new SQLException("Session archive " + year + " skipped: " + e.getMessage(), e));
+                continue;
+            }
+            for (ActivitySession session : archived) {
+                byId.merge(session.getSessionId(), session, ActivitySessionDAO::newer);
+            }
+        }
+        for (ActivitySession session : hotSessions) {
+            byId.merge(session.getSessionId(), session, ActivitySessionDAO::newer);
+        }
+
+        List<ActivitySession> sessions = new ArrayList<>(byId.values());
+        sessions.sort(java.util.Comparator.comparing(ActivitySession::getSessionDate)
+                .thenComparing(ActivitySession::getStartTime));
+        recordQuery(operation + "WithArchives", query, sessions.size());
+        return sessions;
+    }
+
+    private static ActivitySession newer(ActivitySession known, ActivitySession other) {
+        return other.getVersion() >= known.getVersion() ? other : known;
+    }
+    
+    // Repository implementations
+
+    @Override
+    public ActivitySession save(ActivitySession session) {
+        DaoQueryEvent query = DaoQueryEvent.start();
+        ActivitySession saved = null;
+        try {
+            if (insertReturningId("save", session)) {
+                saved = session;
+            }
+
+        } catch (SQLException e) {
+            handleSQLException("save", e);
+        }
+
+        recordQuery("save", query, saved != null ? 1 : 0);
+        return saved;
+    }
+
+    /**
+     * Import sessions with multi-row INSERT statements in one transaction
+     */
+    @Override
+    public List<ActivitySession> saveAll(List<ActivitySession> sessions) {
+        return saveAllMultiRow(sessions, SESSION_INSERT_PREFIX, 7, this::bindSessionColumns);
+    }
+
+    @Override
+    public List<ActivitySession> findAll() {
+        List<ActivitySession> sessions = new ArrayList<>();
+        String sql = "SELECT * FROM activity_sessions ORDER BY start_time ASC";
+        DaoQueryEvent query = DaoQueryEvent.start();
+
+        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(sql)) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                sessions.add(mapResultSetToEntity(rs));
+            }
+
+        } catch (SQLException e) {
+            handleSQLException("findAll", e);
+        }
+
+        recordQuery("findAll", query, sessions.size(), dbConnection.getConnection(), sql);
+        return sessions;
+    }
+
+    @Override
+    public boolean update(ActivitySession session) {
+        DaoQueryEvent query = DaoQueryEvent.start();
+        int updated = 0;
+        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(getUpdateSQL())) {
+            setUpdateParameters(stmt, session);
+            updated = withBusyRetry("update", stmt::executeUpdate);
+
+        } catch (SQLException e) {
+            handleSQLException("update", e);
+        }
+
+        recordQuery("update", query, updated);
+        return updated > 0;
+    }
+
+    @Override
+    protected Integer getEntityId(ActivitySession session) {
+        return session.getSessionId();
+    }
+
+    @Override
+    protected void applyGeneratedId(ActivitySession session, long generatedId) {
+        session.setSessionId((int) generatedId);
+    }
+
+    @Override
+    protected String getInsertSQL() {
+        return "INSERT INTO activity_sessions (user_id, activity_type, start_time, end_time, " +
+               "duration_minutes, session_date, is_active) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    }
+
+    @Override
+    protected String getUpdateSQL() {
+        // Any change bumps the version, so a concurrent stop's compare-and-set sees it
+        return "UPDATE activity_sessions SET user_id = ?, activity_type = ?, start_time = ?, end_time = ?, " +
+               "duration_minutes = ?, session_date = ?, is_active = ?, version = version + 1 WHERE session_id = ?";
+    }
+
+    @Override
+    protected void setInsertParameters(PreparedStatement stmt, ActivitySession session) throws SQLException {
+        bindSessionColumns(stmt, 1, session);
+    }
+
+    @Override
+    protected void setUpdateParameters(PreparedStatement stmt, ActivitySession session) throws SQLException {
+        bindSessionColumns(stmt, 1, session);
+        stmt.setInt(8, session.getSessionId());
+    }
+
+    @Override
+    protected String getPrimaryKeyColumn() {
+        return "session_id";
+    }
+
+    /**
+     * Bind the seven insert/update columns of a session starting at the given index
+     */
+    private void bindSessionColumns(PreparedStatement stmt, int index, ActivitySession session) throws SQLException {
+        stmt.setInt(index, session.getUserId());
+        stmt.setString(index + 1, session.getActivityType());
+        stmt.setTimestamp(index + 2, Timestamp.valueOf(session.getStartTime()));
+        if (session.getEndTime() != null) {
+            stmt.setTimestamp(index + 3, Timestamp.valueOf(session.getEndTime()));
+            stmt.setInt(index + 4, session.getDurationMinutes());
+        } else {
+            stmt.setNull(index + 3, Types.TIMESTAMP);
+            stmt.setNull(index + 4, Types.INTEGER);
+        }
+        stmt.setDate(index + 5, Date.valueOf(session.getSessionDate()));
+        stmt.setBoolean(index + 6, session.isActive());
+    }
+
     /**
      * Map ResultSet to ActivitySession object
      */
-    private ActivitySession mapResultSetToSession(ResultSet rs) throws SQLException {
+    @Override
+    protected ActivitySession mapResultSetToEntity(ResultSet rs) throws SQLException {
         ActivitySession session = new ActivitySession();
         session.setSessionId(rs.getInt("session_id"));
         session.setUserId(rs.getInt("user_id"));
@@ -207,6 +559,7 @@ public class ActivitySessionDAO {
         }
         
         session.setActive(rs.getBoolean("is_active"));
+        session.setVersion(rs.getInt("version"));
         
         Timestamp createdAt = rs.getTimestamp("created_at");
         if (createdAt != null) {
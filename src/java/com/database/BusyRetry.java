@@ -0,0 +1,121 @@
+package com.database;
+
+import com.metrics.QueryMetrics;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retry policy for SQLITE_BUSY / SQLITE_LOCKED - Singleton pattern
+ *
+ * busy_timeout already makes a statement wait for the write lock, but SQLite
+ * still returns BUSY when the wait runs out, and at once when a transaction
+ * that has read must upgrade to a write after another connection committed
+ * (SQLITE_BUSY_SNAPSHOT). An operation run through here is retried with
+ * jittered exponential backoff until it succeeds, fails for another reason,
+ * or its deadline passes. The operation must be safe to run again, i.e. a
+ * single statement or a whole transaction that was rolled back.
+ *
+ * The first backoff step adapts to recent contention: it doubles whenever an
+ * operation needs a retry and halves whenever one succeeds first time.
+ * Retries and give-ups are counted per operation in QueryMetrics.
+ *
+ * Settings (system properties):
+ * - intellicoach.busyRetry.initialMillis: smallest backoff step, default 2
+ * - intellicoach.busyRetry.maxMillis: largest backoff step, default 250
+ * - intellicoach.busyRetry.deadlineMillis: time budget per operation, default 10000
+ */
+public class BusyRetry {
+    private static final int SQLITE_BUSY = 5;
+    private static final int SQLITE_LOCKED = 6;
+
+    private static BusyRetry instance;
+
+    private final long initialNanos;
+    private final long maxNanos;
+    private final long deadlineNanos;
+    private final AtomicLong firstStepNanos;
+
+    private BusyRetry() {
+        this.initialNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("intellicoach.busyRetry.initialMillis", 2));
+        this.maxNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("intellicoach.busyRetry.maxMillis", 250));
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("intellicoach.busyRetry.deadlineMillis", 10_000));
+        this.firstStepNanos = new AtomicLong(initialNanos);
+    }
+
+    public static synchronized BusyRetry getInstance() {
+        if (instance == null) {
+            instance = new BusyRetry();
+        }
+        return instance;
+    }
+
+    /**
+     * One attempt of a retryable operation
+     */
+    @FunctionalInterface
+    public interface Attempt<R> {
+        R run() throws SQLException;
+    }
+
+    /**
+     * Run an operation, retrying it while the database is busy
+     * Throws the last BUSY error once the deadline has passed; other errors are thrown at once
+     */
+    public <R> R execute(Class<?> owner, String operation, Attempt<R> attempt) throws SQLException {
+        long deadline = System.nanoTime() + deadlineNanos;
+        long step = firstStepNanos.get();
+        int retries = 0;
+
+        while (true) {
+            try {
+                R result = attempt.run();
+                if (retries == 0) {
+                    firstStepNanos.getAndUpdate(current -> Math.max(initialNanos, current / 2));
+                }
+                return result;
+            } catch (SQLException e) {
+                if (!isBusy(e)) {
+                    throw e;
+                }
+                // Sleep between half and all of the step, so waiting writers spread out
+                long sleep = step / 2 + ThreadLocalRandom.current().nextLong(step / 2 + 1);
+                if (System.nanoTime() + sleep >= deadline) {
+                    QueryMetrics.getInstance().recordGiveUp(owner, operation);
+                    System.err.println(" " + owner.getSimpleName() + "." + operation + " gave up after "
+                            + retries + " retries: " + e.getMessage());
+                    throw e;
+                }
+                if (retries == 0) {
+                    firstStepNanos.getAndUpdate(current -> Math.min(maxNanos, current * 2));
+                }
+                QueryMetrics.getInstance().recordRetry(owner, operation);
+                retries++;
+
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                step = Math.min(maxNanos, step * 2);
+            }
+        }
+    }
+
+    /**
+     * Whether an error means another connection holds the lock (SQLITE_BUSY or SQLITE_LOCKED, any variant)
+     */
+    public static boolean isBusy(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql) {
+                int primary = sql.getErrorCode() & 0xff;
+                if (primary == SQLITE_BUSY || primary == SQLITE_LOCKED) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -2,6 +2,8 @@ package com.database;
 
 import java.sql.*;
 import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 /**
  * Database connection manager - Singleton pattern
@@ -9,7 +11,16 @@ import java.io.File;
 public class DBConnection {
     private static DBConnection instance;
     private Connection connection;
-    private static final String DB_PATH = "database/intellicoach.db";
+    // Overridable with -Dintellicoach.db=<path>, e.g. to run benchmarks against a scratch database
+    private static final String DB_PATH = System.getProperty("intellicoach.db", "database/intellicoach.db");
+    private static final int BUSY_TIMEOUT_MS = 5000;
+    private static final int MAX_IDLE_TRANSACTION_CONNECTIONS = 4;
+    // Connections lent out for transactions, so the shared connection never leaves auto-commit
+    private final Deque<Connection> idleTransactionConnections = new ArrayDeque<>();
+
+    // Startup timings of the first connect, for the startup timeline
+    private long connectNanos;
+    private long schemaNanos;
 
     private DBConnection() {
         connect();
@@ -31,6 +42,8 @@ public class DBConnection {
                 dbDir.mkdirs();
             }
 
+            long start = System.nanoTime();
+
             // Load SQLite JDBC driver
             Class.forName("org.sqlite.JDBC");
 
@@ -38,11 +51,15 @@ public class DBConnection {
             String url = "jdbc:sqlite:" + DB_PATH;
             connection = DriverManager.getConnection(url);
             connection.setAutoCommit(true);
+            configure(connection);
 
             System.out.println(" Database connected: " + DB_PATH);
+            connectNanos = System.nanoTime() - start;
 
             // Initialize schema
+            start = System.nanoTime();
             initializeSchema();
+            schemaNanos = System.nanoTime() - start;
 
         } catch (ClassNotFoundException e) {
             System.err.println(" SQLite JDBC driver not found!");
@@ -55,6 +72,64 @@ public class DBConnection {
         }
     }
 
+    /**
+     * Open an additional connection to the same database file
+     * Used by components that need their own connection, e.g. the session writer
+     */
+    public Connection openConnection() throws SQLException {
+        Connection extra = DriverManager.getConnection("jdbc:sqlite:" + DB_PATH);
+        configure(extra);
+        return extra;
+    }
+
+    /**
+     * Borrow a connection of its own for one transaction; hand it back with releaseConnection
+     * The shared connection is used by every thread in auto-commit mode, so a
+     * transaction on it would take in other threads' statements
+     */
+    public Connection borrowConnection() throws SQLException {
+        synchronized (idleTransactionConnections) {
+            Connection idle = idleTransactionConnections.pollFirst();
+            if (idle != null && !idle.isClosed()) {
+                return idle;
+            }
+        }
+        return openConnection();
+    }
+
+    /**
+     * Return a borrowed connection; an unfinished transaction on it is rolled back
+     */
+    public void releaseConnection(Connection conn) {
+        try {
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+            synchronized (idleTransactionConnections) {
+                if (idleTransactionConnections.size() < MAX_IDLE_TRANSACTION_CONNECTIONS) {
+                    idleTransactionConnections.addFirst(conn);
+                    return;
+                }
+            }
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println(" Release connection failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Per-connection settings
+     * WAL lets readers run while the writer commits; busy_timeout makes
+     * connections wait for the write lock instead of failing immediately
+     */
+    private void configure(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
+        }
+    }
+
     private void initializeSchema() {
         try {
             Statement stmt = connection.createStatement();
@@ -71,6 +146,9 @@ public class DBConnection {
 
             System.out.println(" Database schema initialized");
 
+            // Indexes and later changes are versioned migrations
+            SchemaMigrations.migrate(connection);
+
         } catch (SQLException e) {
             System.err.println(" Schema initialization failed: " + e.getMessage());
             e.printStackTrace();
@@ -121,6 +199,11 @@ public class DBConnection {
                     FOREIGN KEY (user_id) REFERENCES users(user_id)
                 );
 
+                CREATE TABLE IF NOT EXISTS session_journal_state (
+                    id INTEGER PRIMARY KEY CHECK (id = 1),
+                    applied_seq INTEGER NOT NULL
+                );
+
                 INSERT OR REPLACE INTO recommended_times (activity_type, min_minutes, max_minutes, description) VALUES
                 ('Academic', 360, 480, 'Study, homework, classes - 6 to 8 hours per day'),
                 ('Sleep', 420, 540, 'Essential rest - 7 to 9 hours per day'),
@@ -129,9 +212,6 @@ public class DBConnection {
                 ('Extra Activity', 60, 120, 'Clubs, volunteering, hobbies - 1 to 2 hours per day'),
                 ('Health / Hygiene', 30, 60, 'Personal care, meals - 30 to 60 minutes per day');
 
-                CREATE INDEX IF NOT EXISTS idx_sessions_user_date ON activity_sessions(user_id, session_date);
-                CREATE INDEX IF NOT EXISTS idx_sessions_active ON activity_sessions(user_id, is_active);
-                CREATE INDEX IF NOT EXISTS idx_recommendations_user ON recommendations(user_id, created_at);
                 """;
     }
 
@@ -146,7 +226,31 @@ public class DBConnection {
         return connection;
     }
 
+    public static String getDatabasePath() {
+        return DB_PATH;
+    }
+
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    public long getSchemaNanos() {
+        return schemaNanos;
+    }
+
     public void disconnect() {
+        ReportSnapshot.closeIdleReaders();
+        SessionArchive.closeIdleReaders();
+        synchronized (idleTransactionConnections) {
+            for (Connection idle : idleTransactionConnections) {
+                try {
+                    idle.close();
+                } catch (SQLException e) {
+                    System.err.println(" Connection close failed: " + e.getMessage());
+                }
+            }
+            idleTransactionConnections.clear();
+        }
         try {
             if (connection != null && !connection.isClosed()) {
                 connection.close();
@@ -0,0 +1,200 @@
+package com.database;
+
+import com.models.Recommendation;
+import com.abstracts.BaseDAO;
+import com.metrics.DaoQueryEvent;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recommendation Data Access Object - Persists generated recommendations
+ */
+public class RecommendationDAO extends BaseDAO<Recommendation, Integer> {
+    private static final String RECOMMENDATION_INSERT_PREFIX =
+            "INSERT INTO recommendations (user_id, recommendation_text, recommendation_type, priority, " +
+            "based_on_date, is_read) VALUES ";
+
+    static {
+        SlowQueryLog.registerHotQueries(RecommendationDAO.class, "findByUserAndDate");
+    }
+
+    private DBConnection dbConnection;
+
+    public RecommendationDAO() {
+        super("recommendations");
+        this.dbConnection = DBConnection.getInstance();
+    }
+
+    /**
+     * Get all recommendations generated for a user on a specific date
+     */
+    public List<Recommendation> findByUserAndDate(int userId, LocalDate date) {
+        List<Recommendation> recommendations = new ArrayList<>();
+        String sql = "SELECT * FROM recommendations WHERE user_id = ? AND based_on_date = ? " +
+                     "ORDER BY recommendation_id ASC";
+        DaoQueryEvent query = DaoQueryEvent.start();
+
+        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setDate(2, Date.valueOf(date));
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                recommendations.add(mapResultSetToEntity(rs));
+            }
+
+        } catch (SQLException e) {
+            handleSQLException("findByUserAndDate", e);
+        }
+
+        recordQuery("findByUserAndDate", query, recommendations.size(), dbConnection.getConnection(), sql,
+                userId, date);
+        return recommendations;
+    }
+
+    /**
+     * Insert recommendations on the given connection
+     * The caller owns the transaction
+     */
+    public void insertAll(Connection conn, List<Recommendation> recommendations) throws SQLException {
+        DaoQueryEvent query = DaoQueryEvent.start();
+        insertMultiRow(conn, recommendations, RECOMMENDATION_INSERT_PREFIX, 6, this::bindRecommendationColumns);
+        recordQuery("insertAll", query, recommendations.size());
+    }
+
+    // Repository implementations
+
+    @Override
+    public Recommendation save(Recommendation recommendation) {
+        DaoQueryEvent query = DaoQueryEvent.start();
+        Recommendation saved = null;
+        try {
+            if (insertReturningId("save", recommendation)) {
+                saved = recommendation;
+            }
+
+        } catch (SQLException e) {
+            handleSQLException("save", e);
+        }
+
+        recordQuery("save", query, saved != null ? 1 : 0);
+        return saved;
+    }
+
+    @Override
+    public List<Recommendation> saveAll(List<Recommendation> recommendations) {
+        return saveAllMultiRow(recommendations, RECOMMENDATION_INSERT_PREFIX, 6, this::bindRecommendationColumns);
+    }
+
+    @Override
+    public List<Recommendation> findAll() {
+        List<Recommendation> recommendations = new ArrayList<>();
+        String sql = "SELECT * FROM recommendations ORDER BY created_at DESC";
+        DaoQueryEvent query = DaoQueryEvent.start();
+
+        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(sql)) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                recommendations.add(mapResultSetToEntity(rs));
+            }
+
+        } catch (SQLException e) {
+            handleSQLException("findAll", e);
+        }
+
+        recordQuery("findAll", query, recommendations.size(), dbConnection.getConnection(), sql);
+        return recommendations;
+    }
+
+    @Override
+    public boolean update(Recommendation recommendation) {
+        DaoQueryEvent query = DaoQueryEvent.start();
+        int updated = 0;
+        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(getUpdateSQL())) {
+            setUpdateParameters(stmt, recommendation);
+            updated = withBusyRetry("update", stmt::executeUpdate);
+
+        } catch (SQLException e) {
+            handleSQLException("update", e);
+        }
+
+        recordQuery("update", query, updated);
+        return updated > 0;
+    }
+
+    @Override
+    protected Recommendation mapResultSetToEntity(ResultSet rs) throws SQLException {
+        Recommendation recommendation = new Recommendation();
+        recommendation.setRecommendationId(rs.getInt("recommendation_id"));
+        recommendation.setUserId(rs.getInt("user_id"));
+        recommendation.setRecommendationText(rs.getString("recommendation_text"));
+        recommendation.setRecommendationType(rs.getString("recommendation_type"));
+        recommendation.setPriority(rs.getString("priority"));
+
+        Date basedOnDate = rs.getDate("based_on_date");
+        if (basedOnDate != null) {
+            recommendation.setBasedOnDate(basedOnDate.toLocalDate());
+        }
+
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            recommendation.setCreatedAt(createdAt.toLocalDateTime());
+        }
+
+        recommendation.setRead(rs.getBoolean("is_read"));
+        return recommendation;
+    }
+
+    @Override
+    protected Integer getEntityId(Recommendation recommendation) {
+        return recommendation.getRecommendationId();
+    }
+
+    @Override
+    protected void applyGeneratedId(Recommendation recommendation, long generatedId) {
+        recommendation.setRecommendationId((int) generatedId);
+    }
+
+    @Override
+    protected String getInsertSQL() {
+        return "INSERT INTO recommendations (user_id, recommendation_text, recommendation_type, priority, " +
+               "based_on_date, is_read) VALUES (?, ?, ?, ?, ?, ?)";
+    }
+
+    @Override
+    protected String getUpdateSQL() {
+        return "UPDATE recommendations SET user_id = ?, recommendation_text = ?, recommendation_type = ?, " +
+               "priority = ?, based_on_date = ?, is_read = ? WHERE recommendation_id = ?";
+    }
+
+    @Override
+    protected void setInsertParameters(PreparedStatement stmt, Recommendation recommendation) throws SQLException {
+        bindRecommendationColumns(stmt, 1, recommendation);
+    }
+
+    @Override
+    protected void setUpdateParameters(PreparedStatement stmt, Recommendation recommendation) throws SQLException {
+        bindRecommendationColumns(stmt, 1, recommendation);
+        stmt.setInt(7, recommendation.getRecommendationId());
+    }
+
+    @Override
+    protected String getPrimaryKeyColumn() {
+        return "recommendation_id";
+    }
+
+    /**
+     * Bind the six insert/update columns of a recommendation starting at the given index
+     */
+    private void bindRecommendationColumns(PreparedStatement stmt, int index, Recommendation recommendation)
+            throws SQLException {
+        stmt.setInt(index, recommendation.getUserId());
+        stmt.setString(index + 1, recommendation.getRecommendationText());
+        stmt.setString(index + 2, recommendation.getRecommendationType());
+        stmt.setString(index + 3, recommendation.getPriority());
+        stmt.setDate(index + 4, Date.valueOf(recommendation.getBasedOnDate()));
+        stmt.setBoolean(index + 5, recommendation.isRead());
+    }
+}
@@ -0,0 +1,125 @@
+package com.database;
+
+import com.metrics.QueryMetrics;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Read snapshot for one report or export job
+ *
+ * Opens a read transaction on a reader connection of its own and pins it with
+ * a first read, so every query run on getConnection() sees the database as of
+ * open(), whatever commits meanwhile. In WAL mode the reader and the writers
+ * do not block each other: Start/Stop keep committing while a long report
+ * runs, and the report never waits on the shared connection. A pinned
+ * snapshot does hold back WAL checkpoints, so close it as soon as the rows
+ * are read - in particular, not while a file dialog is open.
+ *
+ * Reader connections are query-only and reused; a few idle ones are kept.
+ * How long snapshots were held is recorded in QueryMetrics as "snapshot".
+ */
+public class ReportSnapshot implements AutoCloseable {
+    private static final int MAX_IDLE_READERS = 2;
+    private static final Deque<Connection> idleReaders = new ArrayDeque<>();
+
+    private final Connection connection;
+    private final long openedNanos;
+    private boolean closed;
+
+    private ReportSnapshot(Connection connection) {
+        this.connection = connection;
+        this.openedNanos = System.nanoTime();
+    }
+
+    /**
+     * Begin a snapshot; the caller must close it
+     */
+    public static ReportSnapshot open() throws SQLException {
+        Connection conn = borrowReader();
+        try {
+            conn.setAutoCommit(false);
+            // A deferred transaction takes its snapshot at the first read, so read now
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM sqlite_schema")) {
+                rs.next();
+            }
+            return new ReportSnapshot(conn);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * End the read transaction and return the connection to the idle readers
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        QueryMetrics.getInstance().record(ReportSnapshot.class, "snapshot", System.nanoTime() - openedNanos, 0);
+
+        try {
+            connection.rollback();
+            connection.setAutoCommit(true);
+            returnReader(connection);
+        } catch (SQLException e) {
+            System.err.println(" Report snapshot release failed: " + e.getMessage());
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // Already broken; nothing left to release
+            }
+        }
+    }
+
+    /**
+     * Close idle reader connections, e.g. on shutdown
+     */
+    public static void closeIdleReaders() {
+        synchronized (idleReaders) {
+            for (Connection conn : idleReaders) {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    System.err.println(" Reader connection close failed: " + e.getMessage());
+                }
+            }
+            idleReaders.clear();
+        }
+    }
+
+    private static Connection borrowReader() throws SQLException {
+        synchronized (idleReaders) {
+            Connection idle = idleReaders.pollFirst();
+            if (idle != null && !idle.isClosed()) {
+                return idle;
+            }
+        }
+        Connection conn = DBConnection.getInstance().openConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA query_only = 1");
+        }
+        return conn;
+    }
+
+    private static void returnReader(Connection conn) throws SQLException {
+        synchronized (idleReaders) {
+            if (idleReaders.size() < MAX_IDLE_READERS) {
+                idleReaders.addFirst(conn);
+                return;
+            }
+        }
+        conn.close();
+    }
+}
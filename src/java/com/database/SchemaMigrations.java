@@ -0,0 +1,142 @@
+package com.database;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Versioned schema changes, applied in order on top of the base schema
+ *
+ * PRAGMA user_version records how many migrations a database has had. Each
+ * migration runs in one transaction together with the version bump, so a
+ * failed migration leaves the database as it was and is retried on the next
+ * start. Append new migrations at the end and never edit one that has shipped.
+ * Statements are split on semicolons, so comments must not contain one.
+ */
+public class SchemaMigrations {
+    private static final String[] MIGRATIONS = {
+            // 1: indexes matched to the DAO query shapes (checked by com.benchmarks.QueryPlanCheck)
+            """
+            -- Deactivate all but the newest active session per user so the unique index can be built
+            UPDATE activity_sessions SET is_active = 0
+            WHERE is_active = 1 AND session_id NOT IN (
+                SELECT MAX(session_id) FROM activity_sessions WHERE is_active = 1 GROUP BY user_id);
+
+            DROP INDEX IF EXISTS idx_sessions_user_date;
+            DROP INDEX IF EXISTS idx_sessions_active;
+            DROP INDEX IF EXISTS idx_recommendations_user;
+
+            -- A user's sessions by day in start order: no sort for getSessionsByDate(Range)
+            CREATE INDEX IF NOT EXISTS idx_sessions_user_date_start
+                ON activity_sessions(user_id, session_date, start_time);
+            -- Covers getTotalTimeByActivity, which then reads no table rows and needs no grouping sort
+            CREATE INDEX IF NOT EXISTS idx_sessions_daily_totals
+                ON activity_sessions(user_id, session_date, activity_type, duration_minutes);
+            -- Holds only active sessions, at most one per user
+            CREATE UNIQUE INDEX IF NOT EXISTS idx_sessions_one_active
+                ON activity_sessions(user_id) WHERE is_active = 1;
+            -- findByUserAndDate, already in rowid order within a day
+            CREATE INDEX IF NOT EXISTS idx_recommendations_user_date
+                ON recommendations(user_id, based_on_date);
+            """,
+            // 2: version for optimistic compare-and-set of Start/Stop transitions
+            """
+            ALTER TABLE activity_sessions ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
+            """,
+            // 3: date before which sessions may be in the per-year archives (see SessionArchive)
+            """
+            CREATE TABLE IF NOT EXISTS session_archive_state (
+                id INTEGER PRIMARY KEY CHECK (id = 1),
+                archived_before DATE NOT NULL
+            );
+            """,
+            // 4: journal records that kept failing to apply (see SessionJournal)
+            """
+            CREATE TABLE IF NOT EXISTS session_journal_dead_letters (
+                seq INTEGER PRIMARY KEY,
+                event_type INTEGER NOT NULL,
+                user_id INTEGER NOT NULL,
+                activity INTEGER NOT NULL,
+                event_time TIMESTAMP NOT NULL,
+                error TEXT,
+                failed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            );
+            """,
+            // 5: close the sessions migration 1 deactivated without an end, so they count in totals again
+            """
+            -- Each ended when the user's next session started (times are epoch milliseconds)
+            UPDATE activity_sessions
+            SET end_time = COALESCE((
+                    SELECT MIN(later.start_time) FROM activity_sessions later
+                    WHERE later.user_id = activity_sessions.user_id
+                      AND later.start_time > activity_sessions.start_time), start_time),
+                version = version + 1
+            WHERE is_active = 0 AND end_time IS NULL;
+
+            UPDATE activity_sessions SET duration_minutes = (end_time - start_time) / 60000
+            WHERE is_active = 0 AND duration_minutes IS NULL AND end_time IS NOT NULL;
+            """
+    };
+
+    private SchemaMigrations() {
+    }
+
+    /**
+     * Schema version of a fully migrated database
+     */
+    public static int latestVersion() {
+        return MIGRATIONS.length;
+    }
+
+    /**
+     * Apply the migrations the database has not had yet; returns its version afterwards
+     */
+    public static int migrate(Connection conn) throws SQLException {
+        int version = currentVersion(conn);
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            while (version < MIGRATIONS.length) {
+                conn.setAutoCommit(false);
+                long changed;
+                try (Statement stmt = conn.createStatement()) {
+                    long changesBefore = totalChanges(conn);
+                    for (String sql : MIGRATIONS[version].split(";")) {
+                        if (sql.trim().length() > 0) {
+                            stmt.execute(sql.trim());
+                        }
+                    }
+                    changed = totalChanges(conn) - changesBefore;
+                    stmt.execute("PRAGMA user_version = " + (version + 1));
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw new SQLException("Migration " + (version + 1) + " failed: " + e.getMessage(), e);
+                }
+                version++;
+                System.out.println(" Database migrated to version " + version
+                        + (changed > 0 ? " (" + changed + " rows changed)" : ""));
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return version;
+    }
+
+    /**
+     * Rows inserted, updated or deleted on this connection so far; schema changes do not count
+     */
+    private static long totalChanges(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT total_changes()")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    public static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
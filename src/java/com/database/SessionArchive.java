@@ -0,0 +1,393 @@
+package com.database;
+
+import com.metrics.QueryMetrics;
+import java.io.File;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Archive of old sessions in per-year SQLite files - Singleton pattern
+ *
+ * Closed sessions older than a horizon are moved out of activity_sessions
+ * into <db name>-archive-<year>.db next to the database, one transaction per
+ * user and year, so the hot table and its indexes only hold recent history
+ * and Start/Stop are never held up for long. Active sessions are never moved.
+ * Freed pages in the hot file are reused by new sessions, so the file stops
+ * growing; run VACUUM offline to shrink it.
+ *
+ * session_archive_state records the date before which sessions may have been
+ * archived. Range queries starting on or after it - nearly all of them - read
+ * the hot table only. Older ranges also read the archives of the years they
+ * touch (see yearsFor), each on a query-only reader connection opened on the
+ * archive file itself; archives are only ever attached to the archiver's own
+ * connection. Archive reads are not part of a ReportSnapshot: archived
+ * sessions are closed and do not change.
+ *
+ * A run that is interrupted between its commits to the two files leaves
+ * copies in both, which the next run removes; runs are idempotent. Until
+ * then readers see a session twice, so they keep one row per session_id.
+ *
+ * Settings (system properties):
+ * - intellicoach.archive.horizonDays: archive sessions older than this, default 365; 0 disables archival
+ * - intellicoach.archive.dir: directory of the archive files, default the database's directory
+ */
+public class SessionArchive {
+    // Same order as activity_sessions, so SELECT * of either reads alike
+    public static final String COLUMNS = "session_id, user_id, activity_type, start_time, end_time, "
+            + "duration_minutes, session_date, is_active, created_at, version";
+
+    private static final int HORIZON_DAYS = Integer.getInteger("intellicoach.archive.horizonDays", 365);
+    private static final String ARCHIVE_DIR = System.getProperty("intellicoach.archive.dir");
+    private static final int MAX_IDLE_READERS_PER_YEAR = 2;
+    private static final int READER_BUSY_TIMEOUT_MS = 5000;
+    // How long a process trusts its view of the archive before reading it again
+    private static final long STATE_TTL_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private static SessionArchive instance;
+    // Year -> idle query-only connections on that year's archive file
+    private static final Map<Integer, Deque<Connection>> idleReaders = new HashMap<>();
+
+    private final File directory;
+    private final String filePrefix;
+    private ScheduledExecutorService archiver;
+
+    // Reloaded from the database and the directory every STATE_TTL_NANOS
+    private volatile LocalDate archivedBefore;
+    private volatile Set<Integer> years = Set.of();
+    private volatile long loadedNanos;
+    private volatile boolean loaded;
+
+    private SessionArchive() {
+        File database = new File(DBConnection.getDatabasePath()).getAbsoluteFile();
+        this.directory = ARCHIVE_DIR != null ? new File(ARCHIVE_DIR) : database.getParentFile();
+        String name = database.getName();
+        this.filePrefix = (name.endsWith(".db") ? name.substring(0, name.length() - 3) : name) + "-archive-";
+    }
+
+    public static synchronized SessionArchive getInstance() {
+        if (instance == null) {
+            instance = new SessionArchive();
+        }
+        return instance;
+    }
+
+    /**
+     * Archive once now and then daily in the background, unless archival is disabled
+     */
+    public synchronized void startArchival() {
+        if (HORIZON_DAYS <= 0 || archiver != null) {
+            return;
+        }
+        archiver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        archiver.scheduleWithFixedDelay(() -> {
+            try {
+                archive(LocalDate.now().minusDays(HORIZON_DAYS));
+            } catch (SQLException e) {
+                System.err.println(" Session archival failed: " + e.getMessage());
+            }
+        }, 0, 1, TimeUnit.DAYS);
+    }
+
+    /**
+     * Move closed sessions dated before the cutoff into the archives; returns how many moved
+     */
+    public synchronized int archive(LocalDate cutoff) throws SQLException {
+        long start = System.nanoTime();
+        int moved = 0;
+
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            Map<Integer, LocalDate> oldestByUser = oldestClosedSessions(conn, cutoff);
+            if (oldestByUser.isEmpty()) {
+                return 0;
+            }
+            // Published before anything moves, so queries look in the archives from now on
+            storeArchivedBefore(conn, cutoff);
+            refresh();
+
+            int firstYear = oldestByUser.values().stream().mapToInt(LocalDate::getYear).min().getAsInt();
+            for (int year = firstYear; year <= cutoff.minusDays(1).getYear(); year++) {
+                LocalDate from = LocalDate.of(year, 1, 1);
+                LocalDate to = cutoff.isBefore(from.plusYears(1)) ? cutoff : from.plusYears(1);
+                String schema = attach(conn, year);
+                years = union(years, year);
+
+                for (Map.Entry<Integer, LocalDate> user : oldestByUser.entrySet()) {
+                    if (user.getValue().getYear() <= year) {
+                        int userId = user.getKey();
+                        moved += BusyRetry.getInstance().execute(SessionArchive.class, "archive",
+                                () -> moveSessions(conn, schema, userId, from, to));
+                    }
+                }
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("DETACH DATABASE " + schema);
+                }
+            }
+        }
+
+        QueryMetrics.getInstance().record(SessionArchive.class, "archive", System.nanoTime() - start, moved);
+        System.out.println(" Archived " + moved + " sessions dated before " + cutoff);
+        return moved;
+    }
+
+    /**
+     * Years whose archives a query over [startDate, endDate] must read besides the hot table
+     * Empty when the hot table holds the whole range
+     */
+    public List<Integer> yearsFor(LocalDate startDate, LocalDate endDate) {
+        if (!loaded || System.nanoTime() - loadedNanos > STATE_TTL_NANOS) {
+            refresh();
+        }
+        LocalDate before = archivedBefore;
+        if (before == null || !startDate.isBefore(before)) {
+            return List.of();
+        }
+
+        List<Integer> found = new ArrayList<>();
+        LocalDate last = endDate.isBefore(before) ? endDate : before.minusDays(1);
+        for (int year = startDate.getYear(); year <= last.getYear(); year++) {
+            if (years.contains(year)) {
+                found.add(year);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Run a read on a query-only connection to a year's archive; the connection is reused afterwards
+     */
+    public <R> R read(int year, ArchiveRead<R> read) throws SQLException {
+        Connection conn = borrowReader(year);
+        try {
+            R result = read.execute(conn);
+            returnReader(year, conn);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Close idle archive reader connections, e.g. on shutdown
+     */
+    public static void closeIdleReaders() {
+        synchronized (idleReaders) {
+            for (Deque<Connection> readers : idleReaders.values()) {
+                for (Connection conn : readers) {
+                    try {
+                        conn.close();
+                    } catch (SQLException e) {
+                        System.err.println(" Archive reader close failed: " + e.getMessage());
+                    }
+                }
+            }
+            idleReaders.clear();
+        }
+    }
+
+    public LocalDate getArchivedBefore() {
+        return archivedBefore;
+    }
+
+    /**
+     * Years with an archive file
+     */
+    public Set<Integer> getYears() {
+        return years;
+    }
+
+    /**
+     * Reload the archive state from the database and the archive directory
+     */
+    public void refresh() {
+        String sql = "SELECT archived_before FROM session_archive_state WHERE id = 1";
+        try (PreparedStatement stmt = DBConnection.getInstance().getConnection().prepareStatement(sql)) {
+            ResultSet rs = stmt.executeQuery();
+            archivedBefore = rs.next() ? rs.getDate(1).toLocalDate() : null;
+        } catch (SQLException e) {
+            System.err.println(" Load archive state failed: " + e.getMessage());
+        }
+
+        Set<Integer> found = new TreeSet<>();
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(filePrefix) && name.endsWith(".db"));
+        if (files != null) {
+            for (File file : files) {
+                String year = file.getName().substring(filePrefix.length(), file.getName().length() - 3);
+                if (year.matches("\\d{4}")) {
+                    found.add(Integer.parseInt(year));
+                }
+            }
+        }
+        years = found;
+        loadedNanos = System.nanoTime();
+        loaded = true;
+    }
+
+    private Connection borrowReader(int year) throws SQLException {
+        synchronized (idleReaders) {
+            Deque<Connection> readers = idleReaders.get(year);
+            Connection idle = readers != null ? readers.pollFirst() : null;
+            if (idle != null && !idle.isClosed()) {
+                return idle;
+            }
+        }
+        Connection conn = DriverManager.getConnection("jdbc:sqlite:" + archiveFile(year).getPath());
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA query_only = 1");
+            stmt.execute("PRAGMA busy_timeout = " + READER_BUSY_TIMEOUT_MS);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+
+    private static void returnReader(int year, Connection conn) throws SQLException {
+        synchronized (idleReaders) {
+            Deque<Connection> readers = idleReaders.computeIfAbsent(year, y -> new ArrayDeque<>());
+            if (readers.size() < MAX_IDLE_READERS_PER_YEAR) {
+                readers.addFirst(conn);
+                return;
+            }
+        }
+        conn.close();
+    }
+
+    /**
+     * Attach a year's archive file, creating it with the session table and indexes if needed
+     */
+    private String attach(Connection conn, int year) throws SQLException {
+        String schema = schemaName(year);
+        try (PreparedStatement attach = conn.prepareStatement("ATTACH DATABASE ? AS " + schema)) {
+            attach.setString(1, archiveFile(year).getPath());
+            attach.execute();
+        }
+        try (Statement stmt = conn.createStatement()) {
+            // Readers keep reading the archive while a run writes to it
+            stmt.execute("PRAGMA " + schema + ".journal_mode = WAL");
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + schema + ".activity_sessions ("
+                    + "session_id INTEGER PRIMARY KEY, "
+                    + "user_id INTEGER NOT NULL, "
+                    + "activity_type VARCHAR(50) NOT NULL, "
+                    + "start_time TIMESTAMP NOT NULL, "
+                    + "end_time TIMESTAMP, "
+                    + "duration_minutes INTEGER, "
+                    + "session_date DATE NOT NULL, "
+                    + "is_active BOOLEAN DEFAULT 0, "
+                    + "created_at TIMESTAMP, "
+                    + "version INTEGER NOT NULL DEFAULT 0)");
+            // Same access paths as the hot table for the range queries
+            stmt.execute("CREATE INDEX IF NOT EXISTS " + schema + ".idx_sessions_user_date_start "
+                    + "ON activity_sessions(user_id, session_date, start_time)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS " + schema + ".idx_sessions_daily_totals "
+                    + "ON activity_sessions(user_id, session_date, activity_type, duration_minutes)");
+        }
+        return schema;
+    }
+
+    /**
+     * Copy one user's closed sessions in [from, to) to the archive and delete them from the hot table
+     */
+    private static int moveSessions(Connection conn, String schema, int userId, LocalDate from, LocalDate to)
+            throws SQLException {
+        String where = "user_id = ? AND session_date >= ? AND session_date < ? AND is_active = 0";
+        // OR IGNORE: rows left in both files by an interrupted run are already archived
+        String copySql = "INSERT OR IGNORE INTO " + schema + ".activity_sessions (" + COLUMNS + ") "
+                + "SELECT " + COLUMNS + " FROM main.activity_sessions WHERE " + where;
+        String deleteSql = "DELETE FROM main.activity_sessions WHERE " + where;
+
+        try (Statement transaction = conn.createStatement();
+             PreparedStatement copy = conn.prepareStatement(copySql);
+             PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+            for (PreparedStatement stmt : new PreparedStatement[] {copy, delete}) {
+                stmt.setInt(1, userId);
+                stmt.setDate(2, Date.valueOf(from));
+                stmt.setDate(3, Date.valueOf(to));
+            }
+            // IMMEDIATE takes the write lock before the copy reads: a deferred transaction that
+            // reads first fails with BUSY_SNAPSHOT at the delete whenever a Start/Stop committed meanwhile
+            transaction.execute("BEGIN IMMEDIATE");
+            try {
+                copy.executeUpdate();
+                int moved = delete.executeUpdate();
+                transaction.execute("COMMIT");
+                return moved;
+            } catch (SQLException e) {
+                transaction.execute("ROLLBACK");
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Oldest closed session date before the cutoff, per user that has one
+     */
+    private static Map<Integer, LocalDate> oldestClosedSessions(Connection conn, LocalDate cutoff) throws SQLException {
+        Map<Integer, LocalDate> oldest = new LinkedHashMap<>();
+        String sql = "SELECT user_id, MIN(session_date) FROM activity_sessions "
+                + "WHERE session_date < ? AND is_active = 0 GROUP BY user_id";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, Date.valueOf(cutoff));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    oldest.put(rs.getInt(1), rs.getDate(2).toLocalDate());
+                }
+            }
+        }
+        return oldest;
+    }
+
+    private static void storeArchivedBefore(Connection conn, LocalDate cutoff) throws SQLException {
+        // Never moves back, e.g. when the horizon is raised: what is archived stays archived
+        String sql = "INSERT INTO session_archive_state (id, archived_before) VALUES (1, ?) "
+                + "ON CONFLICT(id) DO UPDATE SET archived_before = MAX(archived_before, excluded.archived_before)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, Date.valueOf(cutoff));
+            BusyRetry.getInstance().execute(SessionArchive.class, "storeArchivedBefore", stmt::executeUpdate);
+        }
+    }
+
+    private static Set<Integer> union(Set<Integer> years, int year) {
+        Set<Integer> updated = new TreeSet<>(years);
+        updated.add(year);
+        return updated;
+    }
+
+    private File archiveFile(int year) {
+        return new File(directory, filePrefix + year + ".db");
+    }
+
+    private static String schemaName(int year) {
+        return "archive_" + year;
+    }
+
+    /**
+     * Read run on an archive reader connection
+     */
+    @FunctionalInterface
+    public interface ArchiveRead<R> {
+        R execute(Connection conn) throws SQLException;
+    }
+}
@@ -0,0 +1,582 @@
+package com.database;
+
+import com.models.ActivitySession;
+import com.models.ActivityType;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only Start/Stop event journal - Singleton pattern
+ *
+ * SessionStarted/SessionStopped events are appended as fixed-size, CRC-checked
+ * records to a memory-mapped file, so a Start/Stop click returns as soon as the
+ * record is in the page cache (it survives a crash of the application).
+ * A background applier replays the records into activity_sessions through the
+ * SessionWriteExecutor and stores the last applied sequence number in the same
+ * transaction, so every record is applied exactly once. Records left unapplied
+ * by a crash are replayed when the journal is opened. A record that keeps
+ * failing with an error other than a busy database is moved, after
+ * MAX_RECORD_ATTEMPTS tries, to session_journal_dead_letters so the records
+ * behind it are not held up.
+ *
+ * Waiting for the applier is bounded by -Dintellicoach.journal.applyTimeoutMillis
+ * (default 10000): a read path or a Start/Stop that would wait longer fails
+ * with an IllegalStateException instead of hanging.
+ *
+ * Start and Stop accept an idempotency key: a request repeated with the key
+ * of one already journaled (a client retrying after a timeout) returns the
+ * first result instead of appending again. The most recent keys are kept in
+ * memory, per user.
+ *
+ * The active session of the most recently seen users is cached, so Start and
+ * Stop never wait for the applier: a user with unapplied events always has an
+ * entry, and a user without one is looked up in SQLite, which already holds
+ * all of that user's events.
+ *
+ * Record layout (32 bytes, big-endian):
+ * seq(8) type(1) activity(1) reserved(2) userId(4) epochSecond(8) nanos(4) crc32(4)
+ */
+public class SessionJournal {
+    // Overridable with -Dintellicoach.journal=<path>, to pair with a scratch database
+    private static final String JOURNAL_PATH = System.getProperty("intellicoach.journal", "database/session.journal");
+    private static final int RECORD_SIZE = 32;
+    private static final int CRC_OFFSET = 28;
+    private static final int JOURNAL_RECORDS = 256 * 1024;
+    private static final int MAX_APPLY_BATCH = 1024;
+    private static final int IDEMPOTENCY_KEYS = 10_000;
+    private static final int ACTIVE_USERS = 10_000;
+    private static final int MAX_RECORD_ATTEMPTS = 3;
+    private static final long APPLY_TIMEOUT_MILLIS = Long.getLong("intellicoach.journal.applyTimeoutMillis", 10_000);
+
+    private static final byte SESSION_STARTED = 1;
+    private static final byte SESSION_STOPPED = 2;
+
+    private static SessionJournal instance;
+
+    private final MappedByteBuffer buffer;
+    private final FileChannel channel;
+    private final ActivitySessionDAO sessionDAO;
+    private final SessionWriteExecutor writeExecutor;
+    // Least recently used users are dropped, but only once their last event is applied
+    private final Map<Integer, CachedActive> activeByUser = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, CachedActive> eldest) {
+                    return size() > ACTIVE_USERS && eldest.getValue().seq() <= appliedSeq;
+                }
+            });
+    private final Object appliedMonitor = new Object();
+    // "<userId>:<key>" -> result of the request that first used the key; guarded by this
+    private final Map<String, Object> completedRequests = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > IDEMPOTENCY_KEYS;
+        }
+    };
+    private long repeatedRequests;
+    private final Thread applierThread;
+
+    // Written under the append lock, read by the applier
+    private volatile long baseSeq;
+    private volatile long lastSeq;
+    private volatile long appliedSeq;
+    private volatile boolean running = true;
+    private volatile long deadLetters;
+    // Applier thread only: the record that failed last and how often in a row
+    private long failedSeq;
+    private int failedAttempts;
+
+    private SessionJournal() throws IOException {
+        File journalFile = new File(JOURNAL_PATH);
+        File journalDir = journalFile.getParentFile();
+        if (journalDir != null && !journalDir.exists()) {
+            journalDir.mkdirs();
+        }
+
+        this.sessionDAO = new ActivitySessionDAO();
+        this.writeExecutor = SessionWriteExecutor.getInstance();
+        this.channel = new RandomAccessFile(journalFile, "rw").getChannel();
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) JOURNAL_RECORDS * RECORD_SIZE);
+
+        recover();
+
+        this.applierThread = new Thread(this::runApplier, "journal-applier");
+        this.applierThread.setDaemon(true);
+        this.applierThread.start();
+    }
+
+    public static synchronized SessionJournal getInstance() {
+        if (instance == null) {
+            try {
+                instance = new SessionJournal();
+            } catch (IOException e) {
+                throw new IllegalStateException("Session journal could not be opened: " + e.getMessage(), e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Shut down the journal if it was ever opened (called on application exit)
+     */
+    public static synchronized void shutdownIfStarted() {
+        if (instance != null) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    /**
+     * Append a SessionStarted event
+     * The returned session has no ID yet; it is assigned when the event is applied
+     */
+    public synchronized ActivitySession appendStart(int userId, String activityType, LocalDateTime startTime) {
+        append(SESSION_STARTED, userId, ActivityType.fromDisplayName(activityType), startTime);
+
+        ActivitySession session = new ActivitySession(userId, activityType, startTime);
+        activeByUser.put(userId, new CachedActive(Optional.of(session), lastSeq));
+        return session;
+    }
+
+    /**
+     * Append a SessionStarted event unless the idempotency key was already used
+     * A repeated key returns the session of the first request; a null key is never repeated
+     */
+    public synchronized Outcome<ActivitySession> appendStart(int userId, String activityType,
+                                                             LocalDateTime startTime, String idempotencyKey) {
+        Object earlier = completedRequest(userId, idempotencyKey, ActivitySession.class);
+        if (earlier != null) {
+            return new Outcome<>((ActivitySession) earlier, true);
+        }
+        ActivitySession session = appendStart(userId, activityType, startTime);
+        rememberRequest(userId, idempotencyKey, session);
+        return new Outcome<>(session, false);
+    }
+
+    /**
+     * Append a SessionStopped event
+     * Returns false without appending when the user has no active session
+     */
+    public synchronized boolean appendStop(int userId, LocalDateTime endTime) {
+        if (currentActive(userId).isEmpty()) {
+            return false;
+        }
+
+        append(SESSION_STOPPED, userId, null, endTime);
+        activeByUser.put(userId, new CachedActive(Optional.empty(), lastSeq));
+        return true;
+    }
+
+    /**
+     * Append a SessionStopped event unless the idempotency key was already used
+     * A repeated key returns the result of the first request
+     */
+    public synchronized Outcome<Boolean> appendStop(int userId, LocalDateTime endTime, String idempotencyKey) {
+        Object earlier = completedRequest(userId, idempotencyKey, Boolean.class);
+        if (earlier != null) {
+            return new Outcome<>((Boolean) earlier, true);
+        }
+        boolean stopped = appendStop(userId, endTime);
+        rememberRequest(userId, idempotencyKey, stopped);
+        return new Outcome<>(stopped, false);
+    }
+
+    /**
+     * Result of a keyed Start/Stop; repeated when it is the answer to an earlier request
+     */
+    public record Outcome<T>(T result, boolean repeated) {
+    }
+
+    /**
+     * Block until every event appended so far is committed to SQLite
+     * Read paths call this to see their own writes; it returns at once when nothing is pending.
+     * Throws IllegalStateException when the events are not applied within the apply timeout
+     */
+    public void awaitApplied() {
+        if (!awaitApplied(lastSeq)) {
+            throw new IllegalStateException(applyFailure());
+        }
+    }
+
+    /**
+     * Seed the active-session cache with every open session, e.g. during startup
+     * Users without an entry are still looked up on demand
+     */
+    public void preloadActiveSessions() {
+        awaitApplied();
+        for (ActivitySession session : sessionDAO.getAllActiveSessions()) {
+            activeByUser.putIfAbsent(session.getUserId(), new CachedActive(Optional.of(session), 0));
+        }
+    }
+
+    public long getLastSequence() {
+        return lastSeq;
+    }
+
+    public long getPendingEvents() {
+        return lastSeq - appliedSeq;
+    }
+
+    /**
+     * Records moved to session_journal_dead_letters since the journal was opened
+     */
+    public long getDeadLetters() {
+        return deadLetters;
+    }
+
+    /**
+     * Start/Stop requests answered from an earlier request with the same idempotency key
+     */
+    public synchronized long getRepeatedRequests() {
+        return repeatedRequests;
+    }
+
+    /**
+     * The user's active session as of the last appended event
+     * No wait on a miss: a user with unapplied events is never dropped from the cache
+     */
+    private Optional<ActivitySession> currentActive(int userId) {
+        CachedActive cached = activeByUser.get(userId);
+        if (cached != null) {
+            return cached.session();
+        }
+        Optional<ActivitySession> active = Optional.ofNullable(sessionDAO.getActiveSession(userId));
+        activeByUser.put(userId, new CachedActive(active, 0));
+        return active;
+    }
+
+    private Object completedRequest(int userId, String idempotencyKey, Class<?> resultType) {
+        if (idempotencyKey == null) {
+            return null;
+        }
+        Object earlier = completedRequests.get(userId + ":" + idempotencyKey);
+        if (earlier == null) {
+            return null;
+        }
+        if (!resultType.isInstance(earlier)) {
+            throw new IllegalArgumentException("Idempotency key was already used for a different request");
+        }
+        repeatedRequests++;
+        return earlier;
+    }
+
+    private void rememberRequest(int userId, String idempotencyKey, Object result) {
+        if (idempotencyKey != null) {
+            completedRequests.put(userId + ":" + idempotencyKey, result);
+        }
+    }
+
+    private void append(byte type, int userId, ActivityType activity, LocalDateTime time) {
+        long seq = lastSeq + 1;
+        if ((seq - baseSeq) >= JOURNAL_RECORDS) {
+            // Journal is full: once everything is applied, start over at the beginning.
+            // Never wrap over records that are not applied yet; reject the event instead
+            if (!awaitApplied(lastSeq)) {
+                throw new IllegalStateException("Session journal is full: " + applyFailure());
+            }
+            baseSeq = seq;
+        }
+
+        int position = (int) ((seq - baseSeq) * RECORD_SIZE);
+        ByteBuffer record = buffer.duplicate();
+        record.position(position);
+        record.putLong(seq);
+        record.put(type);
+        record.put(activity != null ? (byte) activity.ordinal() : (byte) -1);
+        record.putShort((short) 0);
+        record.putInt(userId);
+        record.putLong(time.toEpochSecond(ZoneOffset.UTC));
+        record.putInt(time.getNano());
+        record.putInt(checksum(position));
+
+        // Publishing lastSeq makes the complete record visible to the applier
+        lastSeq = seq;
+        LockSupport.unpark(applierThread);
+    }
+
+    /**
+     * Find the valid record chain in the file and replay what SQLite has not seen yet
+     */
+    private void recover() {
+        long applied = loadAppliedSeq();
+        long first = buffer.getLong(0);
+
+        long last = 0;
+        if (first > 0 && isValid(0)) {
+            last = first;
+            for (int i = 1; i < JOURNAL_RECORDS; i++) {
+                int position = i * RECORD_SIZE;
+                if (buffer.getLong(position) != last + 1 || !isValid(position)) {
+                    break; // torn write or a stale record from an earlier cycle
+                }
+                last++;
+            }
+        }
+
+        if (last == 0 || last < applied) {
+            // Empty or outdated journal: continue numbering after SQLite's checkpoint
+            baseSeq = applied + 1;
+            lastSeq = applied;
+        } else {
+            baseSeq = first;
+            lastSeq = last;
+        }
+        appliedSeq = Math.max(applied, baseSeq - 1);
+
+        if (lastSeq > appliedSeq) {
+            System.out.println(" Replaying " + (lastSeq - appliedSeq) + " journaled session events");
+            while (lastSeq > appliedSeq) {
+                try {
+                    applyPending();
+                } catch (CompletionException e) {
+                    // A failing record is retried, then dead-lettered; anything else aborts the open
+                    if (!(e.getCause() instanceof RecordFailedException)) {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    private void runApplier() {
+        while (running || lastSeq > appliedSeq) {
+            if (lastSeq == appliedSeq) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+                continue;
+            }
+            try {
+                applyPending();
+            } catch (RuntimeException e) {
+                System.err.println(" Journal apply failed: " + e.getMessage());
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+    }
+
+    /**
+     * Apply the next run of unapplied records in one writer command
+     * A record that failed MAX_RECORD_ATTEMPTS times in a row is dead-lettered
+     * together with the records before it; otherwise the failure is rethrown
+     */
+    private void applyPending() {
+        long from = appliedSeq + 1;
+        long to = Math.min(lastSeq, appliedSeq + MAX_APPLY_BATCH);
+        long base = baseSeq;
+
+        long applied;
+        try {
+            applied = writeExecutor.submit(conn -> applyRecords(conn, from, to, base)).join();
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof RecordFailedException failure)) {
+                throw e; // the writer itself failed; retry the run later
+            }
+            failedAttempts = failure.seq == failedSeq ? failedAttempts + 1 : 1;
+            failedSeq = failure.seq;
+            if (failedAttempts < MAX_RECORD_ATTEMPTS) {
+                throw e;
+            }
+            applied = deadLetter(from, failure, base);
+        }
+
+        synchronized (appliedMonitor) {
+            appliedSeq = applied;
+            appliedMonitor.notifyAll();
+        }
+    }
+
+    private long applyRecords(Connection conn, long from, long to, long base) throws SQLException {
+        for (long seq = from; seq <= to; seq++) {
+            try {
+                applyRecord(conn, (int) ((seq - base) * RECORD_SIZE));
+            } catch (SQLException | RuntimeException e) {
+                if (e instanceof SQLException sql && BusyRetry.isBusy(sql)) {
+                    throw sql;
+                }
+                throw new RecordFailedException(seq, e);
+            }
+        }
+        storeAppliedSeq(conn, to);
+        return to;
+    }
+
+    /**
+     * Apply the records before a poison record and park it in session_journal_dead_letters,
+     * all in one writer command; returns the poison record's sequence number
+     */
+    private long deadLetter(long from, RecordFailedException failure, long base) {
+        long seq = failure.seq;
+        int position = (int) ((seq - base) * RECORD_SIZE);
+        writeExecutor.submit(conn -> {
+            if (seq > from) {
+                applyRecords(conn, from, seq - 1, base);
+            }
+            storeDeadLetter(conn, seq, position, failure.getCause());
+            storeAppliedSeq(conn, seq);
+            return seq;
+        }).join();
+
+        deadLetters++;
+        failedAttempts = 0;
+        // The cached active session assumes the parked event happened, unless a later event replaced it
+        int userId = buffer.getInt(position + 12);
+        synchronized (activeByUser) {
+            CachedActive cached = activeByUser.get(userId);
+            if (cached != null && cached.seq() == seq) {
+                activeByUser.remove(userId);
+            }
+        }
+        System.err.println(" Journal record " + seq + " moved to dead letters after "
+                + MAX_RECORD_ATTEMPTS + " attempts: " + failure.getCause());
+        return seq;
+    }
+
+    private void storeDeadLetter(Connection conn, long seq, int position, Throwable error) throws SQLException {
+        String sql = "INSERT OR REPLACE INTO session_journal_dead_letters "
+                + "(seq, event_type, user_id, activity, event_time, error) VALUES (?, ?, ?, ?, ?, ?)";
+        byte type = buffer.get(position + 8);
+        LocalDateTime time = LocalDateTime.ofEpochSecond(
+                buffer.getLong(position + 16), buffer.getInt(position + 24), ZoneOffset.UTC);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, seq);
+            stmt.setInt(2, type);
+            stmt.setInt(3, buffer.getInt(position + 12));
+            stmt.setInt(4, buffer.get(position + 9));
+            stmt.setTimestamp(5, Timestamp.valueOf(time));
+            stmt.setString(6, String.valueOf(error));
+            stmt.executeUpdate();
+        }
+    }
+
+    private void applyRecord(Connection conn, int position) throws SQLException {
+        byte type = buffer.get(position + 8);
+        byte activity = buffer.get(position + 9);
+        int userId = buffer.getInt(position + 12);
+        LocalDateTime time = LocalDateTime.ofEpochSecond(
+                buffer.getLong(position + 16), buffer.getInt(position + 24), ZoneOffset.UTC);
+
+        if (type == SESSION_STARTED) {
+            sessionDAO.startSession(conn, userId, ActivityType.values()[activity].getDisplayName(), time);
+        } else if (type == SESSION_STOPPED) {
+            sessionDAO.stopActiveSession(conn, userId, time);
+        }
+    }
+
+    /**
+     * Wait up to the apply timeout for the records up to seq to be applied
+     * Returns false when the timeout passed or the thread was interrupted
+     */
+    private boolean awaitApplied(long seq) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(APPLY_TIMEOUT_MILLIS);
+        synchronized (appliedMonitor) {
+            while (appliedSeq < seq) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    appliedMonitor.wait(Math.min(remaining, 100));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private String applyFailure() {
+        String reason = Thread.currentThread().isInterrupted()
+                ? "interrupted while waiting"
+                : "not applied within " + APPLY_TIMEOUT_MILLIS + " ms";
+        return getPendingEvents() + " session events " + reason;
+    }
+
+    private long loadAppliedSeq() {
+        String sql = "SELECT applied_seq FROM session_journal_state WHERE id = 1";
+        try (PreparedStatement stmt = DBConnection.getInstance().getConnection().prepareStatement(sql)) {
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            System.err.println(" Load journal checkpoint failed: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private static void storeAppliedSeq(Connection conn, long seq) throws SQLException {
+        String sql = "INSERT OR REPLACE INTO session_journal_state (id, applied_seq) VALUES (1, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, seq);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Cached active session of a user and the sequence number of the event it reflects
+     * (0 when it was read from SQLite)
+     */
+    private record CachedActive(Optional<ActivitySession> session, long seq) {
+    }
+
+    /**
+     * A record failed in the writer for a reason other than a busy database
+     */
+    private static class RecordFailedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final long seq;
+
+        RecordFailedException(long seq, Exception cause) {
+            super("Journal record " + seq + " failed: " + cause.getMessage(), cause);
+            this.seq = seq;
+        }
+    }
+
+    private boolean isValid(int position) {
+        byte type = buffer.get(position + 8);
+        return (type == SESSION_STARTED || type == SESSION_STOPPED)
+                && buffer.getInt(position + CRC_OFFSET) == checksum(position);
+    }
+
+    private int checksum(int position) {
+        CRC32 crc = new CRC32();
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(position).limit(position + CRC_OFFSET);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private void shutdown() {
+        running = false;
+        LockSupport.unpark(applierThread);
+        try {
+            applierThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        buffer.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println(" Journal close failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.database;
+
+import com.metrics.QueryMetrics;
+import com.models.ActivitySession;
+import com.models.Recommendation;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-writer executor for session mutations - Singleton pattern
+ *
+ * One dedicated thread owns the write connection and drains a bounded queue
+ * of commands. Commands are committed in groups: one transaction per batch,
+ * bounded by MAX_BATCH_SIZE and MAX_BATCH_LATENCY_MICROS, so a burst of
+ * Start/Stop clicks costs one fsync instead of one per click. Each command
+ * runs inside its own savepoint, so a failing command - SQL error or
+ * runtime exception alike - does not roll back the rest of its group, and
+ * never ends the writer thread. When another connection holds the database,
+ * the group is rolled back and retried with backoff (BusyRetry) instead of failing.
+ */
+public class SessionWriteExecutor {
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final long MAX_BATCH_LATENCY_MICROS = 2000;
+
+    private static SessionWriteExecutor instance;
+
+    private final BlockingQueue<PendingWrite<?>> queue;
+    private final int maxBatchSize;
+    private final long maxBatchLatencyNanos;
+    private final ActivitySessionDAO sessionDAO;
+    private final RecommendationDAO recommendationDAO;
+    private final Thread writerThread;
+
+    private volatile boolean running = true;
+    private long committedBatches;
+    private long committedWrites;
+
+    private SessionWriteExecutor(int queueCapacity, int maxBatchSize, long maxBatchLatencyMicros) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchLatencyNanos = TimeUnit.MICROSECONDS.toNanos(maxBatchLatencyMicros);
+        this.sessionDAO = new ActivitySessionDAO();
+        this.recommendationDAO = new RecommendationDAO();
+
+        this.writerThread = new Thread(this::runWriter, "session-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public static synchronized SessionWriteExecutor getInstance() {
+        if (instance == null) {
+            instance = new SessionWriteExecutor(QUEUE_CAPACITY, MAX_BATCH_SIZE, MAX_BATCH_LATENCY_MICROS);
+        }
+        return instance;
+    }
+
+    /**
+     * Shut down the writer if it was ever started (called on application exit)
+     */
+    public static synchronized void shutdownIfStarted() {
+        if (instance != null) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    /**
+     * A mutation executed by the writer thread on its own connection
+     */
+    @FunctionalInterface
+    public interface WriteCommand<R> {
+        R execute(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Queue a start: stops the user's active session and inserts a new one
+     */
+    public CompletableFuture<ActivitySession> submitStart(int userId, String activityType, LocalDateTime startTime) {
+        return submit(conn -> sessionDAO.startSession(conn, userId, activityType, startTime));
+    }
+
+    /**
+     * Queue a stop of the user's active session
+     */
+    public CompletableFuture<Boolean> submitStop(int userId, LocalDateTime endTime) {
+        return submit(conn -> sessionDAO.stopActiveSession(conn, userId, endTime));
+    }
+
+    /**
+     * Queue an import of completed sessions
+     */
+    public CompletableFuture<List<ActivitySession>> submitImport(List<ActivitySession> sessions) {
+        return submit(conn -> {
+            sessionDAO.insertAll(conn, sessions);
+            return sessions;
+        });
+    }
+
+    /**
+     * Queue persisting generated recommendations
+     */
+    public CompletableFuture<List<Recommendation>> submitRecommendations(List<Recommendation> recommendations) {
+        return submit(conn -> {
+            recommendationDAO.insertAll(conn, recommendations);
+            return recommendations;
+        });
+    }
+
+    /**
+     * Queue an arbitrary write command
+     * Blocks the caller when the queue is full (back-pressure)
+     */
+    public <R> CompletableFuture<R> submit(WriteCommand<R> command) {
+        PendingWrite<R> pending = new PendingWrite<>(command);
+        if (!running) {
+            pending.result.completeExceptionally(new IllegalStateException("Session writer is shut down"));
+            return pending.result;
+        }
+
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.result.completeExceptionally(e);
+            return pending.result;
+        }
+
+        // The writer may have stopped and drained the queue between the check and
+        // the put; whoever removes the command from the queue completes it
+        if (!running && queue.remove(pending)) {
+            pending.result.completeExceptionally(new IllegalStateException("Session writer is shut down"));
+        }
+        return pending.result;
+    }
+
+    /**
+     * Stop accepting commands, commit everything already queued and close the connection
+     */
+    public void shutdown() {
+        running = false;
+        writerThread.interrupt();
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public synchronized long getCommittedBatches() {
+        return committedBatches;
+    }
+
+    public synchronized long getCommittedWrites() {
+        return committedWrites;
+    }
+
+    private void runWriter() {
+        List<PendingWrite<?>> batch = new ArrayList<>(maxBatchSize);
+
+        try (Connection conn = DBConnection.getInstance().openConnection()) {
+            while (running || !queue.isEmpty()) {
+                if (!collectBatch(batch)) {
+                    continue;
+                }
+                try {
+                    commitBatch(conn, batch);
+                } catch (RuntimeException e) {
+                    // Last line of defence: whatever escaped fails this group only
+                    System.err.println(" Group commit failed: " + e);
+                    failAll(batch, e);
+                }
+                batch.clear();
+            }
+
+        } catch (SQLException e) {
+            System.err.println(" Session writer failed: " + e.getMessage());
+            failAll(batch, e);
+        } finally {
+            // Later submits fail at once instead of waiting on a writer that is gone
+            running = false;
+            List<PendingWrite<?>> rejected = new ArrayList<>();
+            queue.drainTo(rejected);
+            failAll(rejected, new IllegalStateException("Session writer stopped"));
+        }
+    }
+
+    /**
+     * Wait for the first command, then gather more until the batch is full
+     * or the latency budget since the first command is spent
+     */
+    private boolean collectBatch(List<PendingWrite<?>> batch) {
+        try {
+            PendingWrite<?> first = running ? queue.take() : queue.poll();
+            if (first == null) {
+                return false;
+            }
+            batch.add(first);
+
+            long deadline = System.nanoTime() + maxBatchLatencyNanos;
+            while (batch.size() < maxBatchSize) {
+                if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !running) {
+                    break;
+                }
+                PendingWrite<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+        } catch (InterruptedException e) {
+            // shutdown() interrupts the wait; loop again to drain what is left
+        }
+        return !batch.isEmpty();
+    }
+
+    private void commitBatch(Connection conn, List<PendingWrite<?>> batch) {
+        List<Object> results = new ArrayList<>(batch.size());
+        List<Exception> errors = new ArrayList<>(batch.size());
+        long start = System.nanoTime();
+
+        try {
+            // A busy database rolls back the whole group, which then runs again
+            BusyRetry.getInstance().execute(SessionWriteExecutor.class, "groupCommit", () -> {
+                results.clear();
+                errors.clear();
+                try (Statement transaction = conn.createStatement()) {
+                    // IMMEDIATE: commands read before they write, which a deferred
+                    // transaction cannot do once another connection has committed
+                    transaction.execute("BEGIN IMMEDIATE");
+                    try {
+                        runBatch(conn, batch, results, errors);
+                        transaction.execute("COMMIT");
+                        return null;
+                    } catch (SQLException | RuntimeException e) {
+                        rollback(conn);
+                        throw e;
+                    }
+                }
+            });
+
+        } catch (SQLException e) {
+            System.err.println(" Group commit failed: " + e.getMessage());
+            failAll(batch, e);
+            return;
+        }
+
+        QueryMetrics.getInstance().record(SessionWriteExecutor.class, "groupCommit", System.nanoTime() - start, batch.size());
+        synchronized (this) {
+            committedBatches++;
+            committedWrites += batch.size();
+        }
+
+        // Complete futures only after the commit is durable
+        for (int i = 0; i < batch.size(); i++) {
+            if (errors.get(i) != null) {
+                batch.get(i).result.completeExceptionally(errors.get(i));
+            } else {
+                batch.get(i).completeWith(results.get(i));
+            }
+        }
+    }
+
+    /**
+     * Run each command of a group inside its own savepoint
+     * A command that fails, with an SQL error or a runtime exception, is rolled
+     * back alone, unless the database was busy: that aborts the group so it can
+     * be retried as a whole
+     */
+    private static void runBatch(Connection conn, List<PendingWrite<?>> batch, List<Object> results,
+            List<Exception> errors) throws SQLException {
+        try (Statement savepoints = conn.createStatement()) {
+            for (PendingWrite<?> pending : batch) {
+                savepoints.execute("SAVEPOINT write_command");
+                try {
+                    results.add(pending.command.execute(conn));
+                    errors.add(null);
+                    savepoints.execute("RELEASE SAVEPOINT write_command");
+                } catch (SQLException | RuntimeException e) {
+                    if (e instanceof SQLException sql && BusyRetry.isBusy(sql)) {
+                        throw sql;
+                    }
+                    results.add(null);
+                    errors.add(e);
+                    savepoints.execute("ROLLBACK TO SAVEPOINT write_command");
+                    savepoints.execute("RELEASE SAVEPOINT write_command");
+                }
+            }
+        }
+    }
+
+    private static void rollback(Connection conn) {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ROLLBACK");
+        } catch (SQLException rollbackError) {
+            System.err.println(" Group rollback failed: " + rollbackError.getMessage());
+        }
+    }
+
+    private static void failAll(List<PendingWrite<?>> writes, Throwable cause) {
+        for (PendingWrite<?> pending : writes) {
+            pending.result.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * A queued command together with the future handed back to the caller
+     */
+    private static class PendingWrite<R> {
+        private final WriteCommand<R> command;
+        private final CompletableFuture<R> result = new CompletableFuture<>();
+
+        PendingWrite(WriteCommand<R> command) {
+            this.command = command;
+        }
+
+        @SuppressWarnings("unchecked")
+        void completeWith(Object value) {
+            result.complete((R) value);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.database;
+
+import com.api.JsonWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Slow-query log of the data layer - Singleton pattern
+ *
+ * Statements slower than the threshold are written as one JSON object per
+ * line to a rotating log: query name, SQL, bound parameters (strings
+ * redacted), duration and rows. The first time a query is slow, its
+ * EXPLAIN QUERY PLAN is captured into the entry as well, flagging full table
+ * scans and temporary sort B-trees.
+ *
+ * In strict mode the plan of every registered hot query is checked the first
+ * time it runs, however fast, and a full table scan is recorded as a
+ * violation. The query itself still completes - it may be running on the
+ * session writer - and QueryPlanCheck and LoadTest fail the run at the end
+ * if getViolations() is not empty.
+ *
+ * The plan is explained on the connection the statement ran on, so it sees
+ * the same schema (and attached databases) the statement saw.
+ *
+ * Settings (system properties):
+ * - intellicoach.slowQueryMillis: threshold, default 100
+ * - intellicoach.slowQueryLog: log file, default logs/slow-queries.log; the
+ *   current file is slow-queries.0.log, rotated at 1 MB up to .4
+ * - intellicoach.strictPlans: true to enable strict mode
+ */
+public class SlowQueryLog {
+    private static final long THRESHOLD_NANOS =
+            Long.getLong("intellicoach.slowQueryMillis", 100) * 1_000_000L;
+    private static final String LOG_PATH = System.getProperty("intellicoach.slowQueryLog", "logs/slow-queries.log");
+    private static final boolean STRICT = Boolean.getBoolean("intellicoach.strictPlans");
+    private static final int LOG_LIMIT_BYTES = 1024 * 1024;
+    private static final int LOG_FILES = 5;
+
+    private static SlowQueryLog instance;
+
+    private final Logger logger = Logger.getLogger("com.intellicoach.slowqueries");
+    private final Set<String> hotQueries = ConcurrentHashMap.newKeySet();
+    // Query name -> captured plan; a query's plan is captured once
+    private final Map<String, List<String>> plans = new ConcurrentHashMap<>();
+    private final List<String> violations = new CopyOnWriteArrayList<>();
+
+    private SlowQueryLog() {
+        logger.setUseParentHandlers(false);
+        logger.setLevel(Level.INFO);
+        try {
+            File logFile = new File(LOG_PATH).getAbsoluteFile();
+            logFile.getParentFile().mkdirs();
+            FileHandler handler = new FileHandler(rotationPattern(logFile.getPath()), LOG_LIMIT_BYTES, LOG_FILES, true);
+            handler.setFormatter(new Formatter() {
+                @Override
+                public String format(LogRecord record) {
+                    return record.getMessage() + System.lineSeparator();
+                }
+            });
+            logger.addHandler(handler);
+        } catch (IOException e) {
+            System.err.println(" Slow query log unavailable: " + e.getMessage());
+        }
+    }
+
+    public static synchronized SlowQueryLog getInstance() {
+        if (instance == null) {
+            instance = new SlowQueryLog();
+        }
+        return instance;
+    }
+
+    /**
+     * Mark queries (by name, e.g. ActivitySessionDAO.getActiveSession) whose plans strict mode checks
+     */
+    public static void registerHotQueries(Class<?> dao, String... operations) {
+        for (String operation : operations) {
+            getInstance().hotQueries.add(dao.getSimpleName() + "." + operation);
+        }
+    }
+
+    public static boolean isStrict() {
+        return STRICT;
+    }
+
+    /**
+     * Check a finished statement against the threshold (and, in strict mode, its plan)
+     * conn is the connection the statement ran on; without one no plan is captured
+     * The common case - fast, and plan already checked or not hot - returns at once
+     */
+    public void check(String queryName, Connection conn, String sql, long nanos, int rows, Object[] params) {
+        boolean slow = nanos >= THRESHOLD_NANOS;
+        boolean verify = STRICT && sql != null && !plans.containsKey(queryName) && hotQueries.contains(queryName);
+        if (!slow && !verify) {
+            return;
+        }
+
+        List<String> plan = null;
+        if (sql != null && conn != null && !plans.containsKey(queryName)) {
+            plan = explain(conn, sql, params);
+            plans.putIfAbsent(queryName, plan);
+        }
+
+        boolean badPlan = verify && plan != null && hasFullScan(plan);
+        if (slow || badPlan) {
+            log(queryName, sql, nanos, rows, params, plan);
+        }
+        if (badPlan) {
+            String violation = "Hot query " + queryName + " does a full table scan: " + plan;
+            violations.add(violation);
+            System.err.println(" " + violation);
+        }
+    }
+
+    /**
+     * Strict-mode violations found so far; empty unless strict mode is on
+     */
+    public List<String> getViolations() {
+        return violations;
+    }
+
+    /**
+     * Plans captured so far, by query name
+     */
+    public Map<String, List<String>> getPlans() {
+        return plans;
+    }
+
+    /**
+     * Run EXPLAIN QUERY PLAN for a statement; one entry per plan step
+     */
+    public static List<String> explain(Connection conn, String sql, Object[] params) {
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            if (params != null) {
+                for (int i = 0; i < params.length; i++) {
+                    Object param = params[i];
+                    // Values do not change the plan; dates and times are bound as text
+                    if (param == null || param instanceof Number || param instanceof String || param instanceof Boolean) {
+                        stmt.setObject(i + 1, param);
+                    } else {
+                        stmt.setString(i + 1, param.toString());
+                    }
+                }
+            }
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                plan.add(rs.getString("detail"));
+            }
+        } catch (SQLException e) {
+            System.err.println(" Explain query plan failed: " + e.getMessage());
+        }
+        return plan;
+    }
+
+    /**
+     * Whether a plan reads a whole table (as opposed to SEARCH through an index)
+     */
+    public static boolean hasFullScan(List<String> plan) {
+        for (String step : plan) {
+            if (step.startsWith("SCAN ") && !step.startsWith("SCAN CONSTANT ROW")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void log(String queryName, String sql, long nanos, int rows, Object[] params, List<String> plan) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonWriter json = new JsonWriter(bytes)) {
+            json.beginObject()
+                    .field("time", LocalDateTime.now().toString())
+                    .field("query", queryName)
+                    .field("millis", nanos / 1_000_000.0)
+                    .field("rows", rows);
+            if (sql != null) {
+                json.field("sql", sql);
+            }
+            json.name("params").beginArray();
+            if (params != null) {
+                for (Object param : params) {
+                    json.value(redact(param));
+                }
+            }
+            json.endArray();
+            if (plan != null) {
+                json.name("plan").beginArray();
+                for (String step : plan) {
+                    json.value(step);
+                }
+                json.endArray()
+                        .field("fullScan", hasFullScan(plan))
+                        .field("tempBTree", plan.stream().anyMatch(step -> step.contains("TEMP B-TREE")));
+            }
+            json.endObject();
+        } catch (IOException e) {
+            System.err.println(" Slow query log write failed: " + e.getMessage());
+            return;
+        }
+        logger.info(bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Keep numbers, booleans and dates; hide text, which may be a name, email or password hash
+     */
+    private static String redact(Object param) {
+        if (param == null) {
+            return "null";
+        }
+        if (param instanceof String text) {
+            return "<redacted " + text.length() + " chars>";
+        }
+        return param.toString();
+    }
+
+    /**
+     * logs/slow-queries.log -> logs/slow-queries%g.log (FileHandler numbering)
+     */
+    private static String rotationPattern(String path) {
+        String escaped = path.replace("%", "%%");
+        int dot = escaped.lastIndexOf('.');
+        int separator = Math.max(escaped.lastIndexOf('/'), escaped.lastIndexOf(File.separatorChar));
+        if (dot > separator) {
+            return escaped.substring(0, dot) + ".%g" + escaped.substring(dot);
+        }
+        return escaped + ".%g";
+    }
+}
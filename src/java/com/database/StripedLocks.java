@@ -0,0 +1,38 @@
+package com.database;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed array of locks shared out by key, e.g. by user ID
+ *
+ * Work on one key is serialized, work on different keys mostly runs in
+ * parallel, and no lock is allocated per key: keys that hash to the same
+ * stripe simply share its lock. Locks are reentrant, so a method holding a
+ * key's lock may call another that takes it again.
+ */
+public class StripedLocks {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /**
+     * @param stripes number of locks, rounded up to a power of two
+     */
+    public StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public ReentrantLock forKey(int key) {
+        // Spread consecutive IDs (users 1, 2, 3...) over the stripes
+        int hash = key * 0x9E3779B9;
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+}
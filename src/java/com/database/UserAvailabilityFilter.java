@@ -0,0 +1,144 @@
+package com.database;
+
+import com.models.User;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Username/email availability checks backed by Bloom filters - Singleton pattern
+ *
+ * The filters hold the normalized usernames and emails of all users. They are
+ * built from the users table on first use and updated on every insert through
+ * UserDAO. A negative answer is definite and needs no query; only possible
+ * positives are confirmed with an EXISTS query. When inserts outgrow the
+ * sizing, the filters are rebuilt at twice the capacity.
+ */
+public class UserAvailabilityFilter {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final long MIN_CAPACITY = 65_536;
+
+    private static UserAvailabilityFilter instance;
+
+    private final UserDAO userDAO;
+    // Replaced as a whole on rebuild, so readers never see a half-built filter
+    private volatile Filters filters;
+
+    private final LongAdder definiteNegatives = new LongAdder();
+    private final LongAdder confirmedPositives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    private UserAvailabilityFilter() {
+        this.userDAO = new UserDAO();
+        this.filters = build(Math.max(MIN_CAPACITY, userDAO.count() * 2));
+    }
+
+    public static synchronized UserAvailabilityFilter getInstance() {
+        if (instance == null) {
+            instance = new UserAvailabilityFilter();
+        }
+        return instance;
+    }
+
+    /**
+     * Add a saved user to the filters if they have been built (called by UserDAO)
+     */
+    static void recordIfStarted(User user) {
+        UserAvailabilityFilter filter;
+        synchronized (UserAvailabilityFilter.class) {
+            filter = instance;
+        }
+        if (filter != null) {
+            filter.record(user.getUsername(), user.getEmail());
+        }
+    }
+
+    public boolean isUsernameTaken(String username) {
+        if (!filters.usernames.mightContain(normalize(username))) {
+            definiteNegatives.increment();
+            return false;
+        }
+        return confirm(userDAO.usernameExists(username));
+    }
+
+    public boolean isEmailTaken(String email) {
+        if (!filters.emails.mightContain(normalize(email))) {
+            definiteNegatives.increment();
+            return false;
+        }
+        return confirm(userDAO.emailExists(email));
+    }
+
+    public long getDefiniteNegatives() {
+        return definiteNegatives.sum();
+    }
+
+    public long getConfirmedPositives() {
+        return confirmedPositives.sum();
+    }
+
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+
+    public long getCapacity() {
+        return filters.capacity;
+    }
+
+    private boolean confirm(boolean exists) {
+        if (exists) {
+            confirmedPositives.increment();
+        } else {
+            falsePositives.increment();
+        }
+        return exists;
+    }
+
+    /**
+     * Inserts and rebuilds are serialized, so a user saved during a rebuild
+     * lands in the new filters either through the scan or through this call
+     */
+    private synchronized void record(String username, String email) {
+        Filters current = filters;
+        if (current.added + 1 > current.capacity) {
+            current = build(current.capacity * 2);
+            filters = current;
+        }
+        current.usernames.add(normalize(username));
+        current.emails.add(normalize(email));
+        current.added++;
+    }
+
+    private synchronized Filters build(long capacity) {
+        long start = System.nanoTime();
+        Filters built = new Filters(capacity);
+        userDAO.forEachUsernameAndEmail((username, email) -> {
+            built.usernames.add(normalize(username));
+            built.emails.add(normalize(email));
+            built.added++;
+        });
+
+        System.out.println(" Availability filter built: " + built.added + " users in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return built;
+    }
+
+    /**
+     * Normalizing only adds false positives: an exact match always has the same normalized form
+     */
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class Filters {
+        private final BloomFilter usernames;
+        private final BloomFilter emails;
+        private final long capacity;
+        private long added;
+
+        Filters(long capacity) {
+            this.usernames = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+            this.emails = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+            this.capacity = capacity;
+        }
+    }
+}
@@ -2,9 +2,11 @@ package com.database;
 
 import com.models.User;
 import com.abstracts.BaseDAO;
+import com.metrics.DaoQueryEvent;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 /**
  * User Data Access Object
@@ -12,6 +14,12 @@ import java.util.List;
  */
 public class UserDAO extends BaseDAO<User, Integer> {
 
+    static {
+        // Login and registration lookups
+        SlowQueryLog.registerHotQueries(UserDAO.class, "findByUsername", "findByEmail", "findByUsernameOrEmail",
+                "usernameExists", "emailExists");
+    }
+
     public UserDAO() {
         super("users");
     }
@@ -29,22 +37,24 @@ public class UserDAO extends BaseDAO<User, Integer> {
      */
     public User findByUsername(String username) {
         String sql = "SELECT * FROM users WHERE username = ?";
+        DaoQueryEvent query = DaoQueryEvent.start();
+        User user = null;
 
-        try (Connection conn = getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = getConnection().prepareStatement(sql)) {
 
             stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return mapResultSetToEntity(rs);
+                user = mapResultSetToEntity(rs);
             }
-            return null;
 
         } catch (SQLException e) {
             handleSQLException("findByUsername", e);
-            return null;
         }
+
+        recordQuery("findByUsername", query, user != null ? 1 : 0, getConnection(), sql, username);
+        return user;
     }
 
     /**
@@ -52,122 +62,228 @@ public class UserDAO extends BaseDAO<User, Integer> {
      */
     public User findByEmail(String email) {
         String sql = "SELECT * FROM users WHERE email = ?";
+        DaoQueryEvent query = DaoQueryEvent.start();
+        User user = null;
 
-        try (Connection conn = getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = getConnection().prepareStatement(sql)) {
 
             stmt.setString(1, email);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return mapResultSetToEntity(rs);
+                user = mapResultSetToEntity(rs);
             }
-            return null;
 
         } catch (SQLException e) {
             handleSQLException("findByEmail", e);
-            return null;
         }
+
+        recordQuery("findByEmail", query, user != null ? 1 : 0, getConnection(), sql, email);
+        return user;
     }
 
     /**
      * Find user by username or email
+     * One query over both unique indexes; a username match wins over an email match
      */
     public User findByUsernameOrEmail(String usernameOrEmail) {
-        String sql = "SELECT * FROM users WHERE username = ? OR email = ?";
+        String sql = "SELECT * FROM users WHERE username = ? OR email = ? ORDER BY username = ? DESC LIMIT 1";
+        DaoQueryEvent query = DaoQueryEvent.start();
+        User user = null;
 
-        try (Connection conn = getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = getConnection().prepareStatement(sql)) {
 
             stmt.setString(1, usernameOrEmail);
             stmt.setString(2, usernameOrEmail);
+            stmt.setString(3, usernameOrEmail);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return mapResultSetToEntity(rs);
+                user = mapResultSetToEntity(rs);
             }
-            return null;
 
         } catch (SQLException e) {
             handleSQLException("findByUsernameOrEmail", e);
-            return null;
         }
+
+        recordQuery("findByUsernameOrEmail", query, user != null ? 1 : 0, getConnection(), sql,
+                usernameOrEmail, usernameOrEmail, usernameOrEmail);
+        return user;
     }
 
     /**
      * Check if username exists
      */
     public boolean usernameExists(String username) {
-        String sql = "SELECT 1 FROM users WHERE username = ?";
+        String sql = "SELECT EXISTS (SELECT 1 FROM users WHERE username = ?)";
+        DaoQueryEvent query = DaoQueryEvent.start();
+        boolean exists = false;
 
-        try (Connection conn = getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = getConnection().prepareStatement(sql)) {
 
             stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
-            return rs.next();
+            exists = rs.next() && rs.getBoolean(1);
 
         } catch (SQLException e) {
             handleSQLException("usernameExists", e);
-            return false;
         }
+
+        recordQuery("usernameExists", query, 1, getConnection(), sql, username);
+        return exists;
     }
 
     /**
      * Check if email exists
      */
     public boolean emailExists(String email) {
-        String sql = "SELECT 1 FROM users WHERE email = ?";
+        String sql = "SELECT EXISTS (SELECT 1 FROM users WHERE email = ?)";
+        DaoQueryEvent query = DaoQueryEvent.start();
+        boolean exists = false;
 
-        try (Connection conn = getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = getConnection().prepareStatement(sql)) {
 
             stmt.setString(1, email);
             ResultSet rs = stmt.executeQuery();
-            return rs.next();
+            exists = rs.next() && rs.getBoolean(1);
 
         } catch (SQLException e) {
             handleSQLException("emailExists", e);
-            return false;
         }
+
+        recordQuery("emailExists", query, 1, getConnection(), sql, email);
+        return exists;
+    }
+
+    /**
+     * Find the most recently created users
+     */
+    public List<User> findMostRecent(int limit) {
+        List<User> users = new ArrayList<>();
+        String sql = "SELECT * FROM users ORDER BY user_id DESC LIMIT ?";
+        DaoQueryEvent query = DaoQueryEvent.start();
+
+        try (PreparedStatement stmt = getConnection().prepareStatement(sql)) {
+
+            stmt.setInt(1, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                users.add(mapResultSetToEntity(rs));
+            }
+
+        } catch (SQLException e) {
+            handleSQLException("findMostRecent", e);
+        }
+
+        recordQuery("findMostRecent", query, users.size(), getConnection(), sql, limit);
+        return users;
+    }
+
+    /**
+     * Stream every username and email without mapping full rows
+     */
+    public void forEachUsernameAndEmail(BiConsumer<String, String> consumer) {
+        String sql = "SELECT username, email FROM users";
+        DaoQueryEvent query = DaoQueryEvent.start();
+        int rows = 0;
+
+        try (PreparedStatement stmt = getConnection().prepareStatement(sql)) {
+
+            stmt.setFetchSize(1000);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                consumer.accept(rs.getString(1), rs.getString(2));
+                rows++;
+            }
+
+        } catch (SQLException e) {
+            handleSQLException("forEachUsernameAndEmail", e);
+        }
+
+        recordQuery("forEachUsernameAndEmail", query, rows, getConnection(), sql);
+    }
+
+    /**
+     * Report which of the given usernames and emails are already taken
+     * One set-based query; each list must fit the IN-list chunk size
+     */
+    public void forEachConflict(List<String> usernames, List<String> emails, BiConsumer<String, String> consumer)
+            throws SQLException {
+        if (usernames.isEmpty() && emails.isEmpty()) {
+            return;
+        }
+        String sql = "SELECT username, email FROM users WHERE username IN (" + placeholders(usernames.size())
+                + ") OR email IN (" + placeholders(emails.size()) + ")";
+        DaoQueryEvent query = DaoQueryEvent.start();
+        int rows = 0;
+
+        try (PreparedStatement stmt = getConnection().prepareStatement(sql)) {
+            int index = 1;
+            for (String username : usernames) {
+                stmt.setString(index++, username);
+            }
+            for (String email : emails) {
+                stmt.setString(index++, email);
+            }
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                consumer.accept(rs.getString(1), rs.getString(2));
+                rows++;
+            }
+        } catch (SQLException e) {
+            recordQueryError("forEachConflict");
+            throw e;
+        }
+
+        recordQuery("forEachConflict", query, rows, getConnection(), sql);
     }
 
     // Abstract method implementations from BaseDAO
     @Override
     public User save(User user) {
-        String sql = getInsertSQL();
-
-        try (Connection conn = getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            setInsertParameters(stmt, user);
-            int affectedRows = stmt.executeUpdate();
-
-            if (affectedRows > 0) {
-                // For SQLite, get the last inserted row ID using last_insert_rowid()
-                try (PreparedStatement idStmt = conn.prepareStatement("SELECT last_insert_rowid()")) {
-                    ResultSet rs = idStmt.executeQuery();
-                    if (rs.next()) {
-                        user.setUserId(rs.getInt(1));
-                    }
-                }
-                return user;
+        DaoQueryEvent query = DaoQueryEvent.start();
+        User saved = null;
+
+        try {
+            if (insertReturningId("save", user)) {
+                UserAvailabilityFilter.recordIfStarted(user);
+                saved = user;
             }
-            return null;
 
         } catch (SQLException e) {
             handleSQLException("save", e);
-            return null;
         }
+
+        recordQuery("save", query, saved != null ? 1 : 0);
+        return saved;
+    }
+
+    /**
+     * Insert users with multi-row INSERT statements in one transaction
+     */
+    @Override
+    public List<User> saveAll(List<User> users) {
+        List<User> saved = saveAllMultiRow(users,
+                "INSERT INTO users (username, email, password, full_name) VALUES ", 4,
+                (stmt, index, user) -> {
+                    stmt.setString(index, user.getUsername());
+                    stmt.setString(index + 1, user.getEmail());
+                    stmt.setString(index + 2, user.getPassword());
+                    stmt.setString(index + 3, user.getFullName());
+                });
+        for (User user : saved) {
+            UserAvailabilityFilter.recordIfStarted(user);
+        }
+        return saved;
     }
 
     @Override
     public List<User> findAll() {
         List<User> users = new ArrayList<>();
         String sql = "SELECT * FROM " + tableName;
+        DaoQueryEvent query = DaoQueryEvent.start();
 
-        try (Connection conn = getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = getConnection().prepareStatement(sql)) {
 
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -178,23 +294,31 @@ public class UserDAO extends BaseDAO<User, Integer> {
             handleSQLException("findAll", e);
         }
 
+        recordQuery("findAll", query, users.size(), getConnection(), sql);
         return users;
     }
 
     @Override
     public boolean update(User user) {
         String sql = getUpdateSQL();
+        DaoQueryEvent query = DaoQueryEvent.start();
+        boolean updated = false;
 
-        try (Connection conn = getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = getConnection().prepareStatement(sql)) {
 
             setUpdateParameters(stmt, user);
-            return stmt.executeUpdate() > 0;
+            updated = withBusyRetry("update", stmt::executeUpdate) > 0;
+            if (updated) {
+                // A changed username or email must become "taken" too
+                UserAvailabilityFilter.recordIfStarted(user);
+            }
 
         } catch (SQLException e) {
             handleSQLException("update", e);
-            return false;
         }
+
+        recordQuery("update", query, updated ? 1 : 0, getConnection(), sql);
+        return updated;
     }
 
     @Override
@@ -219,6 +343,11 @@ public class UserDAO extends BaseDAO<User, Integer> {
         return user.getUserId();
     }
 
+    @Override
+    protected void applyGeneratedId(User user, long generatedId) {
+        user.setUserId((int) generatedId);
+    }
+
     @Override
     protected String getInsertSQL() {
         return "INSERT INTO users (username, email, password, full_name) VALUES (?, ?, ?, ?)";
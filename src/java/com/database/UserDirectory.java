@@ -0,0 +1,204 @@
+package com.database;
+
+import com.models.User;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Read-through user cache in front of UserDAO - Singleton pattern
+ *
+ * Users are indexed by ID and by case-normalized username and email, so a
+ * repeated login or registration check is answered without touching SQLite.
+ * A miss loads the user with one indexed query. The cache holds at most
+ * MAX_CACHED_USERS users and drops the least recently used beyond that.
+ * Writes that go through update/deleteById evict the stale entry.
+ */
+public class UserDirectory {
+    private static final int MAX_CACHED_USERS = 10_000;
+
+    private static UserDirectory instance;
+
+    private final UserDAO userDAO;
+    private final Map<Integer, User> usersById;
+    private final Map<String, Integer> idsByUsername = new HashMap<>();
+    private final Map<String, Integer> idsByEmail = new HashMap<>();
+    // Bumped on every eviction, so a load racing with a write is not cached
+    private long invalidations;
+
+    private UserDirectory() {
+        this.userDAO = new UserDAO();
+        this.usersById = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, User> eldest) {
+                if (size() > MAX_CACHED_USERS) {
+                    unindex(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static synchronized UserDirectory getInstance() {
+        if (instance == null) {
+            instance = new UserDirectory();
+        }
+        return instance;
+    }
+
+    /**
+     * Find user by username or email: cache first, then one indexed query
+     */
+    public User findByUsernameOrEmail(String usernameOrEmail) {
+        User cached = lookup(idsByUsername, usernameOrEmail);
+        if (cached == null) {
+            cached = lookup(idsByEmail, usernameOrEmail);
+        }
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = generation();
+        User user = userDAO.findByUsernameOrEmail(usernameOrEmail);
+        cache(user, generation);
+        return user;
+    }
+
+    public User findByUsername(String username) {
+        User cached = lookup(idsByUsername, username);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = generation();
+        User user = userDAO.findByUsername(username);
+        cache(user, generation);
+        return user;
+    }
+
+    public User findByEmail(String email) {
+        User cached = lookup(idsByEmail, email);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = generation();
+        User user = userDAO.findByEmail(email);
+        cache(user, generation);
+        return user;
+    }
+
+    public User findById(int userId) {
+        synchronized (this) {
+            User cached = usersById.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        long generation = generation();
+        User user = userDAO.findById(userId);
+        cache(user, generation);
+        return user;
+    }
+
+    /**
+     * Load the most recently created users, e.g. during startup
+     */
+    public int warmUp(int limit) {
+        long generation = generation();
+        List<User> users = userDAO.findMostRecent(limit);
+        for (User user : users) {
+            cache(user, generation);
+        }
+        return users.size();
+    }
+
+    /**
+     * Insert a new user and cache it
+     */
+    public User save(User user) {
+        User saved = userDAO.save(user);
+        if (saved != null) {
+            cache(saved, generation());
+        }
+        return saved;
+    }
+
+    public boolean update(User user) {
+        invalidate(user.getUserId());
+        boolean updated = userDAO.update(user);
+        invalidate(user.getUserId());
+        return updated;
+    }
+
+    public boolean deleteById(int userId) {
+        invalidate(userId);
+        boolean deleted = userDAO.deleteById(userId);
+        invalidate(userId);
+        return deleted;
+    }
+
+    /**
+     * Drop a user from the cache, e.g. after a write that bypassed the directory
+     */
+    public synchronized void invalidate(int userId) {
+        invalidations++;
+        User removed = usersById.remove(userId);
+        if (removed != null) {
+            unindex(removed);
+        }
+    }
+
+    public long count() {
+        return userDAO.count();
+    }
+
+    public synchronized int size() {
+        return usersById.size();
+    }
+
+    /**
+     * Hit only if the stored value matches exactly: the normalized key finds
+     * the slot, but the columns themselves still compare case-sensitively
+     */
+    private synchronized User lookup(Map<String, Integer> index, String key) {
+        if (key == null) {
+            return null;
+        }
+        Integer userId = index.get(normalize(key));
+        User user = userId != null ? usersById.get(userId) : null;
+        if (user != null && (key.equals(user.getUsername()) || key.equals(user.getEmail()))) {
+            return user;
+        }
+        return null;
+    }
+
+    private synchronized long generation() {
+        return invalidations;
+    }
+
+    private synchronized void cache(User user, long generation) {
+        if (user == null || generation != invalidations) {
+            return;
+        }
+        User previous = usersById.put(user.getUserId(), user);
+        if (previous != null) {
+            unindex(previous);
+        }
+        idsByUsername.put(normalize(user.getUsername()), user.getUserId());
+        idsByEmail.put(normalize(user.getEmail()), user.getUserId());
+    }
+
+    private void unindex(User user) {
+        idsByUsername.remove(normalize(user.getUsername()), user.getUserId());
+        idsByEmail.remove(normalize(user.getEmail()), user.getUserId());
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,322 @@
+package com.events;
+
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process domain event bus on a preallocated ring buffer - Singleton pattern
+ *
+ * Publishers claim a sequence number with one atomic increment, write the
+ * event into the preallocated slot for that sequence and mark the slot
+ * published; nothing is allocated per event. Every subscriber has its own
+ * virtual thread and sequence, reads all events published so far as one
+ * batch and then advances its sequence; an idle subscriber parks until the
+ * next publish wakes it.
+ *
+ * Publishers never wait for subscribers: the session writer's commit path
+ * publishes too, and one stalled view must not hold it up. A subscriber that
+ * falls a whole ring behind skips to the oldest event still in the ring and
+ * is told how many it missed (EventHandler.eventsDropped), so it can resync.
+ *
+ * Events are delivered after the change they describe has been journaled or
+ * committed, in publish order per subscriber.
+ */
+public class EventBus {
+    private static final int RING_SIZE = 1 << 14;
+    private static final int MASK = RING_SIZE - 1;
+    private static final int SPIN_TRIES = 100;
+    // Slot state while a publisher is overwriting it
+    private static final long WRITING = -2;
+
+    private static EventBus instance;
+
+    private final Slot[] ring = new Slot[RING_SIZE];
+    // Sequence last published into each slot; -1 until the first lap
+    private final AtomicLongArray published = new AtomicLongArray(RING_SIZE);
+    private final AtomicLong claimed = new AtomicLong(-1);
+    // Copied on subscribe/close, so publishers iterate without allocating
+    private volatile Subscription[] subscriptions = new Subscription[0];
+
+    private final Map<EventType, LongAdder> publishedByType = new EnumMap<>(EventType.class);
+
+    private EventBus() {
+        for (int i = 0; i < RING_SIZE; i++) {
+            ring[i] = new Slot();
+            published.set(i, -1);
+        }
+        for (EventType type : EventType.values()) {
+            publishedByType.put(type, new LongAdder());
+        }
+    }
+
+    public static synchronized EventBus getInstance() {
+        if (instance == null) {
+            instance = new EventBus();
+        }
+        return instance;
+    }
+
+    /**
+     * Stop every subscriber thread if the bus was ever created (called on application exit)
+     */
+    public static synchronized void shutdownIfStarted() {
+        if (instance != null) {
+            for (Subscription subscription : instance.subscriptions) {
+                subscription.close();
+            }
+            instance = null;
+        }
+    }
+
+    public void publishSessionStarted(int userId, String activityType, LocalDateTime startTime) {
+        publish(EventType.SESSION_STARTED, userId, activityType, startTime, null, 0);
+    }
+
+    public void publishSessionStopped(int userId, LocalDateTime endTime) {
+        publish(EventType.SESSION_STOPPED, userId, null, endTime, null, 0);
+    }
+
+    public void publishUserRegistered(int userId) {
+        publish(EventType.USER_REGISTERED, userId, null, null, null, 0);
+    }
+
+    public void publishRecommendationsGenerated(int userId, LocalDate date, int count) {
+        publish(EventType.RECOMMENDATIONS_GENERATED, userId, null, null, date, count);
+    }
+
+    /**
+     * Start delivering events published from now on to a handler, on its own virtual thread
+     */
+    public Subscription subscribe(String name, EventHandler handler) {
+        Subscription subscription;
+        synchronized (this) {
+            subscription = new Subscription(name, handler, claimed.get());
+            Subscription[] current = subscriptions;
+            Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = subscription;
+            subscriptions = updated;
+        }
+        subscription.thread.start();
+        return subscription;
+    }
+
+    public long getPublishedCount(EventType type) {
+        return publishedByType.get(type).sum();
+    }
+
+    public long getPublishedCount() {
+        return claimed.get() + 1;
+    }
+
+    /**
+     * Events skipped by the current subscribers because they fell a whole ring behind
+     */
+    public long getDroppedEvents() {
+        long dropped = 0;
+        for (Subscription subscription : subscriptions) {
+            dropped += subscription.getDropped();
+        }
+        return dropped;
+    }
+
+    public List<Subscription> getSubscriptions() {
+        return List.of(subscriptions);
+    }
+
+    private void publish(EventType type, int userId, String activityType, LocalDateTime time,
+            LocalDate date, int count) {
+        long sequence = claimed.incrementAndGet();
+        int index = (int) sequence & MASK;
+        // Mark the slot first, so a lagging subscriber reading the old event notices the overwrite
+        published.set(index, WRITING);
+        VarHandle.storeStoreFence();
+        ring[index].set(type, userId, activityType, time, date, count);
+        // A volatile write, so a subscriber that just announced it is waiting sees it
+        published.set(index, sequence);
+        publishedByType.get(type).increment();
+
+        for (Subscription subscription : subscriptions) {
+            if (subscription.waiting) {
+                LockSupport.unpark(subscription.thread);
+            }
+        }
+    }
+
+    /**
+     * Highest sequence in [from, claimed] published without gaps, or from - 1
+     */
+    private long highestPublished(long from) {
+        long last = claimed.get();
+        long sequence = from;
+        while (sequence <= last && published.get((int) sequence & MASK) == sequence) {
+            sequence++;
+        }
+        return sequence - 1;
+    }
+
+    private static void dispatch(EventType type, int userId, String activityType, LocalDateTime time,
+            LocalDate date, int count, EventHandler handler) {
+        switch (type) {
+            case SESSION_STARTED -> handler.sessionStarted(userId, activityType, time);
+            case SESSION_STOPPED -> handler.sessionStopped(userId, time);
+            case USER_REGISTERED -> handler.userRegistered(userId);
+            case RECOMMENDATIONS_GENERATED -> handler.recommendationsGenerated(userId, date, count);
+        }
+    }
+
+    /**
+     * One subscriber: its handler, thread and read position
+     */
+    public class Subscription {
+        private final String name;
+        private final EventHandler handler;
+        private final AtomicLong sequence;
+        private final Thread thread;
+        private final LongAdder batches = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private volatile boolean running = true;
+        private volatile boolean waiting;
+
+        Subscription(String name, EventHandler handler, long startAfter) {
+            this.name = name;
+            this.handler = handler;
+            this.sequence = new AtomicLong(startAfter);
+            this.thread = Thread.ofVirtual().name("event-" + name).unstarted(this::run);
+        }
+
+        /**
+         * Stop delivering events; pending events are dropped
+         */
+        public void close() {
+            running = false;
+            synchronized (EventBus.this) {
+                subscriptions = Arrays.stream(subscriptions)
+                        .filter(subscription -> subscription != this)
+                        .toArray(Subscription[]::new);
+            }
+            LockSupport.unpark(thread);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Events published but not yet handled by this subscriber
+         */
+        public long getLag() {
+            return Math.max(0, claimed.get() - sequence.get());
+        }
+
+        public long getBatches() {
+            return batches.sum();
+        }
+
+        /**
+         * Events this subscriber skipped because it fell a whole ring behind
+         */
+        public long getDropped() {
+            return dropped.sum();
+        }
+
+        private void run() {
+            int idle = 0;
+            while (running) {
+                long next = sequence.get() + 1;
+                long oldest = claimed.get() - MASK;
+                if (next < oldest) {
+                    skipTo(oldest, oldest - next);
+                    continue;
+                }
+                long available = highestPublished(next);
+                if (available < next) {
+                    if (++idle < SPIN_TRIES) {
+                        Thread.onSpinWait();
+                    } else {
+                        waiting = true;
+                        // Re-check after announcing, so a publish in between is not missed
+                        if (highestPublished(next) < next && claimed.get() - MASK <= next && running) {
+                            LockSupport.park(this);
+                        }
+                        waiting = false;
+                    }
+                    continue;
+                }
+                idle = 0;
+
+                long current = next;
+                for (; current <= available; current++) {
+                    int index = (int) current & MASK;
+                    Slot slot = ring[index];
+                    EventType type = slot.type;
+                    int userId = slot.userId;
+                    String activityType = slot.activityType;
+                    LocalDateTime time = slot.time;
+                    LocalDate date = slot.date;
+                    int count = slot.count;
+                    // Read the fields before re-checking the slot; a changed slot was overwritten meanwhile
+                    VarHandle.acquireFence();
+                    if (published.get(index) != current) {
+                        break; // lapped by the publishers: the next pass skips ahead
+                    }
+                    try {
+                        dispatch(type, userId, activityType, time, date, count, handler);
+                    } catch (RuntimeException e) {
+                        System.err.println(" Event handler " + name + " failed: " + e.getMessage());
+                    }
+                }
+                endBatch();
+                sequence.lazySet(current - 1);
+            }
+        }
+
+        /**
+         * Resume at the oldest event still in the ring and tell the handler what was lost
+         */
+        private void skipTo(long oldest, long skipped) {
+            dropped.add(skipped);
+            sequence.lazySet(oldest - 1);
+            try {
+                handler.eventsDropped(skipped);
+            } catch (RuntimeException e) {
+                System.err.println(" Event handler " + name + " failed: " + e.getMessage());
+            }
+        }
+
+        private void endBatch() {
+            try {
+                handler.onBatchEnd();
+            } catch (RuntimeException e) {
+                System.err.println(" Event handler " + name + " failed: " + e.getMessage());
+            }
+            batches.increment();
+        }
+    }
+
+    private static final class Slot {
+        private EventType type;
+        private int userId;
+        private String activityType;
+        private LocalDateTime time;
+        private LocalDate date;
+        private int count;
+
+        void set(EventType type, int userId, String activityType, LocalDateTime time, LocalDate date, int count) {
+            this.type = type;
+            this.userId = userId;
+            this.activityType = activityType;
+            this.time = time;
+            this.date = date;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.events;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Subscriber of the EventBus
+ *
+ * Each subscriber runs on its own thread and receives events in publish
+ * order, one method call per event. Override only the events of interest;
+ * onBatchEnd() is called after the last event that was available, so work
+ * can be coalesced per batch (e.g. one UI refresh for a burst of events).
+ * A subscriber too slow to keep up misses events instead of slowing the
+ * publishers; eventsDropped() then says how many, so it can reload its state.
+ */
+public interface EventHandler {
+
+    default void sessionStarted(int userId, String activityType, LocalDateTime startTime) {
+    }
+
+    default void sessionStopped(int userId, LocalDateTime endTime) {
+    }
+
+    default void userRegistered(int userId) {
+    }
+
+    default void recommendationsGenerated(int userId, LocalDate date, int count) {
+    }
+
+    default void onBatchEnd() {
+    }
+
+    default void eventsDropped(long count) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.events;
+
+/**
+ * Domain event types carried by the EventBus
+ */
+public enum EventType {
+    SESSION_STARTED,
+    SESSION_STOPPED,
+    USER_REGISTERED,
+    RECOMMENDATIONS_GENERATED
+}
@@ -1,6 +1,7 @@
 package com.interfaces;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Generic Repository Interface for CRUD operations
@@ -24,7 +25,7 @@ public interface Repository<T, ID> {
 
     /**
      * Update an existing entity
-     * 
+     *
      */
     boolean update(T entity);
 
@@ -33,4 +34,33 @@ public interface Repository<T, ID> {
     boolean existsById(ID id);
 
     long count();
-}
\ No newline at end of file
+
+    /**
+     * Save several entities in one transaction
+     * Returns the saved entities with their generated IDs set
+     */
+    List<T> saveAll(List<T> entities);
+
+    /**
+     * Find all entities whose ID is in the given list
+     */
+    List<T> findAllById(List<ID> ids);
+
+    /**
+     * Update several entities in one transaction
+     * Returns the number of rows updated
+     */
+    int updateAll(List<T> entities);
+
+    /**
+     * Delete all entities whose ID is in the given list
+     * Returns the number of rows deleted
+     */
+    int deleteAllById(List<ID> ids);
+
+    /**
+     * Stream all entities without loading them into memory at once
+     * The stream must be closed to release the underlying result set
+     */
+    Stream<T> streamAll();
+}
@@ -0,0 +1,33 @@
+package com.interfaces;
+
+import javafx.scene.Scene;
+
+/**
+ * View Interface
+ * A screen that can be cached and shown again by the navigation controller
+ */
+public interface View {
+
+    /**
+     * Build the scene; called once per cached view
+     */
+    Scene createScene();
+
+    /**
+     * Called every time the view becomes visible, e.g. to refresh stale data
+     */
+    default void onShow() {
+    }
+
+    /**
+     * Called when another view replaces this one, e.g. to stop timers
+     */
+    default void onHide() {
+    }
+
+    /**
+     * Called once when the view is dropped from the cache, e.g. to unsubscribe listeners
+     */
+    default void onClose() {
+    }
+}
@@ -0,0 +1,54 @@
+package com.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one DAO statement (or statement group), e.g. UserDAO.findByUsername
+ *
+ * Disabled unless a recording uses the IntelliCoach settings (jfr/intellicoach.jfc);
+ * while disabled, begin/end/commit do nothing. The start time in nanoTime is
+ * kept for QueryMetrics, which is recorded either way.
+ */
+@Name("com.intellicoach.DaoQuery")
+@Label("DAO Query")
+@Category({"IntelliCoach", "Database"})
+@Description("A statement issued by a DAO method")
+@Enabled(false)
+@StackTrace(false)
+public class DaoQueryEvent extends Event {
+    @Label("Query")
+    String query;
+
+    @Label("Rows")
+    int rows;
+
+    private final transient long startNanos = System.nanoTime();
+
+    public static DaoQueryEvent start() {
+        DaoQueryEvent event = new DaoQueryEvent();
+        event.begin();
+        return event;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * End the event and commit it if the recording wants it
+     */
+    public void finish(String queryName, int rowCount) {
+        end();
+        if (shouldCommit()) {
+            query = queryName;
+            rows = rowCount;
+            commit();
+        }
+    }
+}
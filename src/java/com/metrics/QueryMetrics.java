@@ -0,0 +1,165 @@
+package com.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Per-query statistics of the data layer - Singleton pattern
+ *
+ * DAOs report every statement by class and operation name (as passed to
+ * handleSQLException): call count, error count, busy retries and give-ups,
+ * rows and latency. Recording is lock-free and allocation-free once a query
+ * has been seen. Each query is registered as a JMX MBean
+ * (com.intellicoach:type=Query) the first time it runs, and
+ * com.intellicoach:type=QueryMetrics dumps all of them on demand, e.g. from
+ * JConsole.
+ */
+public class QueryMetrics implements QueryMetricsMBean {
+    private static final String DOMAIN = "com.intellicoach";
+    private static QueryMetrics instance;
+
+    // DAO class -> operation -> stats; two levels so recording needs no string building
+    private final Map<Class<?>, Map<String, QueryStats>> queries = new ConcurrentHashMap<>();
+    private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    private QueryMetrics() {
+        register(this, DOMAIN + ":type=QueryMetrics");
+    }
+
+    public static synchronized QueryMetrics getInstance() {
+        if (instance == null) {
+            instance = new QueryMetrics();
+        }
+        return instance;
+    }
+
+    /**
+     * Record a finished statement that took the given time
+     */
+    public QueryStats record(Class<?> dao, String operation, long nanos, int rows) {
+        QueryStats stats = stats(dao, operation);
+        stats.record(nanos, rows);
+        return stats;
+    }
+
+    public void recordError(Class<?> dao, String operation) {
+        stats(dao, operation).recordError();
+    }
+
+    public void recordRetry(Class<?> dao, String operation) {
+        stats(dao, operation).recordRetry();
+    }
+
+    public void recordGiveUp(Class<?> dao, String operation) {
+        stats(dao, operation).recordGiveUp();
+    }
+
+    public QueryStats stats(Class<?> dao, String operation) {
+        Map<String, QueryStats> byOperation = queries.computeIfAbsent(dao, d -> new ConcurrentHashMap<>());
+        QueryStats stats = byOperation.get(operation);
+        if (stats == null) {
+            stats = byOperation.computeIfAbsent(operation, op -> {
+                QueryStats created = new QueryStats(dao.getSimpleName() + "." + op);
+                register(created, DOMAIN + ":type=Query,name=" + created.getName());
+                return created;
+            });
+        }
+        return stats;
+    }
+
+    /**
+     * All queries seen so far, slowest p99 first
+     * Each p99 is read once up front: the histograms keep recording while the
+     * list is sorted, and a key that changed between comparisons breaks the sort
+     */
+    public List<QueryStats> getQueries() {
+        List<RankedQuery> ranked = new ArrayList<>();
+        for (Map<String, QueryStats> byOperation : queries.values()) {
+            for (QueryStats stats : byOperation.values()) {
+                ranked.add(new RankedQuery(stats, stats.getP99Millis()));
+            }
+        }
+        ranked.sort(Comparator.comparingDouble(RankedQuery::p99Millis).reversed()
+                .thenComparing(query -> query.stats().getName()));
+
+        List<QueryStats> all = new ArrayList<>(ranked.size());
+        for (RankedQuery query : ranked) {
+            all.add(query.stats());
+        }
+        return all;
+    }
+
+    private record RankedQuery(QueryStats stats, double p99Millis) {
+    }
+
+    @Override
+    public int getQueryCount() {
+        int count = 0;
+        for (Map<String, QueryStats> byOperation : queries.values()) {
+            count += byOperation.size();
+        }
+        return count;
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder dump = new StringBuilder(String.format("%-56s %10s %8s %8s %8s %12s %10s %10s %10s %10s%n",
+                "query", "calls", "errors", "retries", "give-ups", "rows", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (QueryStats stats : getQueries()) {
+            LatencyHistogram.Snapshot latency = stats.getLatency();
+            dump.append(String.format("%-56s %,10d %,8d %,8d %,8d %,12d %10.3f %10.3f %10.3f %10.3f%n",
+                    stats.getName(), stats.getCalls(), stats.getErrors(), stats.getRetries(), stats.getGiveUps(),
+                    stats.getRows(),
+                    latency.getMillisAtQuantile(0.50), latency.getMillisAtQuantile(0.99),
+                    latency.getMillisAtQuantile(0.999), latency.getMaxNanos() / 1_000_000.0));
+        }
+        return dump.toString();
+    }
+
+    @Override
+    public String dumpToFile(String path) {
+        try {
+            Path file = Paths.get(path).toAbsolutePath();
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.writeString(file, dump(), StandardCharsets.UTF_8);
+            return file.toString();
+        } catch (IOException e) {
+            System.err.println(" Query metrics dump failed: " + e.getMessage());
+            return "failed: " + e.getMessage();
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (Map<String, QueryStats> byOperation : queries.values()) {
+            for (QueryStats stats : byOperation.values()) {
+                stats.reset();
+            }
+        }
+    }
+
+    private void register(Object mbean, String name) {
+        try {
+            ObjectName objectName = new ObjectName(name);
+            if (!mbeanServer.isRegistered(objectName)) {
+                mbeanServer.registerMBean(mbean, objectName);
+            }
+        } catch (JMException e) {
+            System.err.println(" MBean registration failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.metrics;
+
+/**
+ * JMX operations over all DAO query statistics
+ */
+public interface QueryMetricsMBean {
+    int getQueryCount();
+
+    /**
+     * One line per query, slowest p99 first
+     */
+    String dump();
+
+    /**
+     * Write dump() to a file; returns the absolute path written
+     */
+    String dumpToFile(String path);
+
+    void reset();
+}
@@ -0,0 +1,108 @@
+package com.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histogram of one named DAO query
+ * Exposed over JMX as com.intellicoach:type=Query,name=<Dao>.<operation>
+ */
+public class QueryStats implements QueryStatsMBean {
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder giveUps = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    QueryStats(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos, int rowCount) {
+        calls.increment();
+        rows.add(rowCount);
+        latency.record(nanos);
+    }
+
+    void recordError() {
+        errors.increment();
+    }
+
+    void recordRetry() {
+        retries.increment();
+    }
+
+    void recordGiveUp() {
+        giveUps.increment();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    @Override
+    public long getGiveUps() {
+        return giveUps.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return latency.snapshot().getMeanNanos() / 1_000_000.0;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latency.snapshot().getMillisAtQuantile(0.50);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latency.snapshot().getMillisAtQuantile(0.99);
+    }
+
+    @Override
+    public double getP999Millis() {
+        return latency.snapshot().getMillisAtQuantile(0.999);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latency.snapshot().getMaxNanos() / 1_000_000.0;
+    }
+
+    public LatencyHistogram.Snapshot getLatency() {
+        return latency.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        errors.reset();
+        rows.reset();
+        retries.reset();
+        giveUps.reset();
+        latency.reset();
+    }
+}
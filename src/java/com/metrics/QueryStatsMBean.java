@@ -0,0 +1,36 @@
+package com.metrics;
+
+/**
+ * JMX view of one DAO query's statistics
+ */
+public interface QueryStatsMBean {
+    String getName();
+
+    long getCalls();
+
+    long getErrors();
+
+    long getRows();
+
+    /**
+     * Attempts repeated because the database was busy
+     */
+    long getRetries();
+
+    /**
+     * Operations abandoned because the database stayed busy past their deadline
+     */
+    long getGiveUps();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+
+    void reset();
+}
@@ -0,0 +1,63 @@
+package com.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one service call, e.g. AnalyticsService.getWeeklyAnalytics for a user and week
+ * Disabled unless a recording uses the IntelliCoach settings (jfr/intellicoach.jfc)
+ */
+@Name("com.intellicoach.ServiceCall")
+@Label("Service Call")
+@Category({"IntelliCoach", "Service"})
+@Description("A call into the service layer")
+@Enabled(false)
+@StackTrace(false)
+public class ServiceCallEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("User ID")
+    int userId;
+
+    @Label("Period")
+    String period;
+
+    public static ServiceCallEvent start() {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End the event and commit it if the recording wants it
+     * The period is only turned into a string when the event is committed
+     */
+    public void finish(String operationName, int user, Object periodValue) {
+        end();
+        if (shouldCommit()) {
+            operation = operationName;
+            userId = user;
+            period = String.valueOf(periodValue);
+            commit();
+        }
+    }
+
+    /**
+     * Same as finish, for a from..to period
+     */
+    public void finish(String operationName, int user, Object periodStart, Object periodEnd) {
+        end();
+        if (shouldCommit()) {
+            operation = operationName;
+            userId = user;
+            period = periodStart + ".." + periodEnd;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for showing a view: building its scene, or swapping in a cached one, plus onShow
+ * Disabled unless a recording uses the IntelliCoach settings (jfr/intellicoach.jfc)
+ */
+@Name("com.intellicoach.ViewLoad")
+@Label("View Load")
+@Category({"IntelliCoach", "UI"})
+@Description("A view shown on the JavaFX thread")
+@Enabled(false)
+@StackTrace(false)
+public class ViewLoadEvent extends Event {
+    @Label("View")
+    String view;
+
+    @Label("Cached Scene")
+    boolean cached;
+
+    public static ViewLoadEvent start() {
+        ViewLoadEvent event = new ViewLoadEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End the event and commit it if the recording wants it
+     */
+    public void finish(Class<?> viewType, boolean cachedScene) {
+        end();
+        if (shouldCommit()) {
+            view = viewType.getSimpleName();
+            cached = cachedScene;
+            commit();
+        }
+    }
+}
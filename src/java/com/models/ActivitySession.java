@@ -19,6 +19,8 @@ public class ActivitySession implements Trackable {
     private LocalDate sessionDate;
     private boolean isActive;
     private LocalDateTime createdAt;
+    // Bumped by every update; Start/Stop compare it to detect concurrent changes
+    private int version;
     
     public ActivitySession() {
         this.createdAt = LocalDateTime.now();
@@ -86,6 +88,9 @@ public class ActivitySession implements Trackable {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+    
     @Override
     public String toString() {
         return String.format("ActivitySession{id=%d, type='%s', duration=%d min, active=%b}", 
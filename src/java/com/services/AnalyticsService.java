@@ -1,47 +1,106 @@
 package com.services;
 
+import com.abstracts.BaseService;
+import com.metrics.ServiceCallEvent;
 import com.models.ActivityType;
 import com.models.ActivitySession;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Analytics Service - Analyzes time usage and compares with recommendations
  */
-public class AnalyticsService {
+public class AnalyticsService extends BaseService {
     private TimeTrackingService timeTrackingService;
+    // Runs the *Async reads, so views never wait on the journal or the database
+    private final ExecutorService asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
-    public AnalyticsService() {
-        this.timeTrackingService = new TimeTrackingService();
+    public AnalyticsService(TimeTrackingService timeTrackingService) {
+        super("Analytics");
+        this.timeTrackingService = timeTrackingService;
+    }
+
+    // Abstract method implementations from BaseService
+    @Override
+    protected void doInitialize() throws Exception {
+        if (timeTrackingService == null || !timeTrackingService.isReady()) {
+            throw new Exception("TimeTrackingService not ready");
+        }
+    }
+
+    @Override
+    protected void doCleanup() {
+        // The time tracking service owns the storage
+        asyncExecutor.shutdown();
+    }
+
+    /**
+     * Version of the underlying session data, see TimeTrackingService.getDataVersion()
+     */
+    public long getDataVersion() {
+        return timeTrackingService.getDataVersion();
     }
 
     /**
      * Get daily analytics for a specific date
      */
     public DailyAnalytics getDailyAnalytics(int userId, LocalDate date) {
+        ServiceCallEvent event = ServiceCallEvent.start();
         Map<String, Integer> actualTime = timeTrackingService.getTimeByActivity(userId, date);
-        return new DailyAnalytics(date, actualTime);
+        DailyAnalytics analytics = new DailyAnalytics(date, actualTime);
+        event.finish("AnalyticsService.getDailyAnalytics", userId, date);
+        return analytics;
+    }
+
+    /**
+     * Get daily analytics without blocking the caller, e.g. from the FX thread
+     */
+    public CompletableFuture<DailyAnalytics> getDailyAnalyticsAsync(int userId, LocalDate date) {
+        return CompletableFuture.supplyAsync(() -> getDailyAnalytics(userId, date), asyncExecutor);
     }
 
     /**
      * Get weekly analytics
      */
     public WeeklyAnalytics getWeeklyAnalytics(int userId, LocalDate endDate) {
+        ServiceCallEvent event = ServiceCallEvent.start();
         LocalDate startDate = endDate.minusDays(6); // Last 7 days
         List<ActivitySession> sessions = timeTrackingService.getSessionsByDateRange(userId, startDate, endDate);
 
-        return new WeeklyAnalytics(startDate, endDate, sessions);
+        WeeklyAnalytics analytics = new WeeklyAnalytics(startDate, endDate, sessions);
+        event.finish("AnalyticsService.getWeeklyAnalytics", userId, startDate, endDate);
+        return analytics;
+    }
+
+    /**
+     * Get weekly analytics without blocking the caller, e.g. from the FX thread
+     */
+    public CompletableFuture<WeeklyAnalytics> getWeeklyAnalyticsAsync(int userId, LocalDate endDate) {
+        return CompletableFuture.supplyAsync(() -> getWeeklyAnalytics(userId, endDate), asyncExecutor);
     }
 
     /**
      * Get monthly analytics
      */
     public MonthlyAnalytics getMonthlyAnalytics(int userId, int year, int month) {
+        ServiceCallEvent event = ServiceCallEvent.start();
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = startDate.plusMonths(1).minusDays(1);
         List<ActivitySession> sessions = timeTrackingService.getSessionsByDateRange(userId, startDate, endDate);
 
-        return new MonthlyAnalytics(year, month, sessions);
+        MonthlyAnalytics analytics = new MonthlyAnalytics(year, month, sessions);
+        event.finish("AnalyticsService.getMonthlyAnalytics", userId, startDate, endDate);
+        return analytics;
+    }
+
+    /**
+     * Get monthly analytics without blocking the caller, e.g. from the FX thread
+     */
+    public CompletableFuture<MonthlyAnalytics> getMonthlyAnalyticsAsync(int userId, int year, int month) {
+        return CompletableFuture.supplyAsync(() -> getMonthlyAnalytics(userId, year, month), asyncExecutor);
     }
 
     /**
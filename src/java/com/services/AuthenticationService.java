@@ -1,17 +1,33 @@
 package com.services;
 
 import com.models.User;
-import com.database.UserDAO;
+import com.database.UserAvailabilityFilter;
+import com.database.UserDirectory;
+import com.events.EventBus;
 import com.abstracts.BaseService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class AuthenticationService extends BaseService {
+    private static final long SESSION_IDLE_TIMEOUT_MINUTES = 30;
+    private static final int MAX_SESSIONS_PER_USER = 5;
+    private static final long SESSION_SWEEP_INTERVAL_SECONDS = 60;
+
     private static AuthenticationService instance;
-    private UserDAO userDAO;
-    private User currentUser;
+    private UserDirectory userDirectory;
+    private final TokenSessionManager sessions;
+    private final PasswordHasher passwordHasher;
+    // Runs login/register for callers that must not block, e.g. the FX thread
+    private final ExecutorService asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     private AuthenticationService() {
         super("Authentication");
-        this.userDAO = new UserDAO();
+        this.userDirectory = UserDirectory.getInstance();
+        this.sessions = new TokenSessionManager(SESSION_IDLE_TIMEOUT_MINUTES, TimeUnit.MINUTES,
+                MAX_SESSIONS_PER_USER, SESSION_SWEEP_INTERVAL_SECONDS);
+        this.passwordHasher = PasswordHasher.getInstance();
     }
 
     public static synchronized AuthenticationService getInstance() {
@@ -26,94 +42,163 @@ public class AuthenticationService extends BaseService {
      */
     public AuthResult register(String username, String email, String password, String fullName) {
         // Validation
-        if (username == null || username.trim().length() < 3) {
-            return new AuthResult(false, "Username must be at least 3 characters");
-        }
-
-        if (email == null || !email.contains("@")) {
-            return new AuthResult(false, "Invalid email format");
-        }
-
-        if (password == null || password.length() < 6) {
-            return new AuthResult(false, "Password must be at least 6 characters");
+        String validationError = validateRegistration(username, email, password);
+        if (validationError != null) {
+            return new AuthResult(false, validationError);
         }
 
         // Check if username exists
-        if (userDAO.findByUsername(username) != null) {
+        if (!isUsernameAvailable(username)) {
             return new AuthResult(false, "Username already exists");
         }
 
         // Check if email exists
-        if (userDAO.findByEmail(email) != null) {
+        if (!isEmailAvailable(email)) {
             return new AuthResult(false, "Email already registered");
         }
 
-        // Create user (password encoding would go here in production)
-        String encodedPassword = encodePassword(password);
+        // Create user with a salted PBKDF2 hash (computed on the hashing pool)
+        String encodedPassword = passwordHasher.hash(password);
         User user = new User(username, email, encodedPassword, fullName);
-        User createdUser = userDAO.save(user);
+        User createdUser = userDirectory.save(user);
 
         if (createdUser != null) {
+            EventBus.getInstance().publishUserRegistered(createdUser.getUserId());
             return new AuthResult(true, "Registration successful", createdUser);
         } else {
             return new AuthResult(false, "Registration failed");
         }
     }
 
+    /**
+     * Check registration input; returns the error message, or null when valid
+     */
+    static String validateRegistration(String username, String email, String password) {
+        if (username == null || username.trim().length() < 3) {
+            return "Username must be at least 3 characters";
+        }
+
+        if (email == null || !email.contains("@")) {
+            return "Invalid email format";
+        }
+
+        if (password == null || password.length() < 6) {
+            return "Password must be at least 6 characters";
+        }
+        return null;
+    }
+
+    /**
+     * Check if a username is still free
+     * Usually answered from memory; only a possible match costs a query
+     */
+    public boolean isUsernameAvailable(String username) {
+        return !UserAvailabilityFilter.getInstance().isUsernameTaken(username);
+    }
+
+    /**
+     * Check if an email is still free
+     */
+    public boolean isEmailAvailable(String email) {
+        return !UserAvailabilityFilter.getInstance().isEmailTaken(email);
+    }
+
+    /**
+     * Check a username on a background thread, e.g. while it is typed
+     */
+    public CompletableFuture<Boolean> isUsernameAvailableAsync(String username) {
+        return CompletableFuture.supplyAsync(() -> isUsernameAvailable(username), asyncExecutor);
+    }
+
+    /**
+     * Check an email on a background thread, e.g. while it is typed
+     */
+    public CompletableFuture<Boolean> isEmailAvailableAsync(String email) {
+        return CompletableFuture.supplyAsync(() -> isEmailAvailable(email), asyncExecutor);
+    }
+
     /**
      * Login user
+     * On success the result carries the session token for later calls
      */
     public AuthResult login(String usernameOrEmail, String password) {
         if (usernameOrEmail == null || password == null) {
             return new AuthResult(false, "Username and password required");
         }
 
-        // Try to find user by username or email
-        User user = userDAO.findByUsername(usernameOrEmail);
-        if (user == null) {
-            user = userDAO.findByEmail(usernameOrEmail);
-        }
+        // One cached lookup by username or email
+        User user = userDirectory.findByUsernameOrEmail(usernameOrEmail);
         if (user == null) {
             return new AuthResult(false, "User not found please create account before");
         }
 
         // Verify password
-        String encodedPassword = encodePassword(password);
-        if (!user.getPassword().equals(encodedPassword)) {
+        if (!passwordHasher.verify(password, user.getPassword())) {
             return new AuthResult(false, "Invalid password");
         }
+        if (passwordHasher.needsUpgrade(user.getPassword())) {
+            upgradePassword(user, password);
+        }
 
-        // Set current user
-        this.currentUser = user;
-        return new AuthResult(true, "Login successful", user);
+        // Open a session for this login
+        String token = sessions.create(user);
+        return new AuthResult(true, "Login successful", user, token);
     }
 
     /**
-     * Logout current user
+     * Logout the session of the token
      */
-    public void logout() {
-        this.currentUser = null;
+    public boolean logout(String token) {
+        return sessions.invalidate(token);
     }
 
     /**
-     * Get current logged-in user
+     * Get the user logged in with the token, or null when the session is unknown or expired
      */
-    public User getCurrentUser() {
-        return currentUser;
+    public User getCurrentUser(String token) {
+        return sessions.lookup(token);
     }
 
     /**
-     * Check if user is logged in
+     * Check if the token belongs to a live session
      */
-    public boolean isLoggedIn() {
-        return currentUser != null;
+    public boolean isLoggedIn(String token) {
+        return sessions.lookup(token) != null;
+    }
+
+    public int getActiveSessionCount() {
+        return sessions.getActiveSessionCount();
     }
 
     /**
-     * Simple password encoding
+     * Register on a background thread
      */
-    private String encodePassword(String password) {
-        return password + "_encoded";
+    public CompletableFuture<AuthResult> registerAsync(String username, String email, String password,
+            String fullName) {
+        return CompletableFuture.supplyAsync(() -> register(username, email, password, fullName), asyncExecutor);
+    }
+
+    /**
+     * Login on a background thread, so password hashing never runs on the caller's thread
+     */
+    public CompletableFuture<AuthResult> loginAsync(String usernameOrEmail, String password) {
+        return CompletableFuture.supplyAsync(() -> login(usernameOrEmail, password), asyncExecutor);
+    }
+
+    /**
+     * Rehash a legacy or outdated password after a successful login
+     * Runs in the background; if the hashing queue is full it is retried on a later login
+     */
+    private void upgradePassword(User user, String password) {
+        passwordHasher.hashAsync(password)
+                .thenAccept(hash -> {
+                    user.setPassword(hash);
+                    userDirectory.update(user);
+                })
+                .exceptionally(e -> {
+                    System.err.println(" Password upgrade deferred: " + e.getMessage());
+                    return null;
+                });
     }
 
     /**
@@ -123,6 +208,7 @@ public class AuthenticationService extends BaseService {
         private boolean success;
         private String message;
         private User user;
+        private String token;
 
         public AuthResult(boolean success, String message) {
             this.success = success;
@@ -135,6 +221,11 @@ public class AuthenticationService extends BaseService {
             this.user = user;
         }
 
+        public AuthResult(boolean success, String message, User user, String token) {
+            this(success, message, user);
+            this.token = token;
+        }
+
         public boolean isSuccess() {
             return success;
         }
@@ -146,24 +237,27 @@ public class AuthenticationService extends BaseService {
         public User getUser() {
             return user;
         }
+
+        public String getToken() {
+            return token;
+        }
     }
 
     // Abstract method implementations from BaseService
     @Override
     protected void doInitialize() throws Exception {
-        // Initialize user DAO and verify database connection
-        if (userDAO == null) {
-            throw new Exception("UserDAO not initialized");
+        // Initialize user directory and verify database connection
+        if (userDirectory == null) {
+            throw new Exception("UserDirectory not initialized");
         }
-        // Test database connection
-        userDAO.count();
+        // Test database connection and build the availability filter
+        userDirectory.count();
+        UserAvailabilityFilter.getInstance();
     }
 
     @Override
     protected void doCleanup() {
-        // Logout current user and cleanup resources
-        if (currentUser != null) {
-            logout();
-        }
+        // End all sessions and stop the expiry sweeper
+        sessions.shutdown();
     }
 }
@@ -0,0 +1,263 @@
+package com.services;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * PBKDF2 password hashing on a bounded worker pool - Singleton pattern
+ *
+ * Hashes are stored as $pbkdf2-sha256$1$iterations$salt$hash (Base64), so the
+ * iteration count can be raised later without breaking existing passwords.
+ * Hashing runs on a fixed pool with a bounded queue. When the queue is full the
+ * blocking methods hash on the calling thread (back-pressure for server
+ * threads), the async methods fail fast so a UI thread never blocks. Queue
+ * depth, active workers and rejections are reported by GET /api/metrics.
+ * The iteration count is tunable with -Dintellicoach.pbkdf2.iterations=N.
+ */
+public class PasswordHasher {
+    private static final String PREFIX = "$pbkdf2-sha256$";
+    private static final int FORMAT_VERSION = 1;
+    private static final String LEGACY_SUFFIX = "_encoded";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int DEFAULT_ITERATIONS = 210_000;
+    private static final int QUEUE_CAPACITY = 256;
+
+    private static PasswordHasher instance;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    private final BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final ThreadPoolExecutor pool;
+
+    private final LongAdder hashesComputed = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+
+    private PasswordHasher() {
+        this.iterations = Integer.getInteger("intellicoach.pbkdf2.iterations", DEFAULT_ITERATIONS);
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized PasswordHasher getInstance() {
+        if (instance == null) {
+            instance = new PasswordHasher();
+        }
+        return instance;
+    }
+
+    /**
+     * Hash a new password; blocks while the hashing queue is full
+     */
+    public String hash(String password) {
+        return await(submitBlocking(() -> encode(password)));
+    }
+
+    /**
+     * Hash several passwords in parallel on the pool
+     */
+    public List<String> hashAll(List<String> passwords) {
+        List<FutureTask<String>> tasks = new ArrayList<>(passwords.size());
+        for (String password : passwords) {
+            tasks.add(submitBlocking(() -> encode(password)));
+        }
+        List<String> hashes = new ArrayList<>(passwords.size());
+        for (FutureTask<String> task : tasks) {
+            hashes.add(await(task));
+        }
+        return hashes;
+    }
+
+    /**
+     * Check a password against a stored value; blocks while the hashing queue is full
+     * Accepts both the PBKDF2 format and legacy "_encoded" values
+     */
+    public boolean verify(String password, String stored) {
+        if (stored == null || !stored.startsWith(PREFIX)) {
+            return (password + LEGACY_SUFFIX).equals(stored);
+        }
+        return await(submitBlocking(() -> matches(password, stored)));
+    }
+
+    /**
+     * Hash without blocking; the future fails with RejectedExecutionException when the queue is full
+     */
+    public CompletableFuture<String> hashAsync(String password) {
+        return submitAsync(() -> encode(password));
+    }
+
+    /**
+     * True when the value is a well-formed hash in this class's format, e.g. one exported elsewhere
+     */
+    public boolean isStoredHash(String value) {
+        if (value == null || !value.startsWith(PREFIX)) {
+            return false;
+        }
+        String[] parts = value.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 4 || parseCount(parts[0]) != FORMAT_VERSION || parseCount(parts[1]) <= 0) {
+            return false;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            return decoder.decode(parts[2]).length > 0 && decoder.decode(parts[3]).length == HASH_BITS / 8;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * True when the stored value is legacy or weaker than the current settings
+     */
+    public boolean needsUpgrade(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX)) {
+            return true;
+        }
+        String[] parts = stored.substring(PREFIX.length()).split("\\$");
+        return parts.length != 4 || parseCount(parts[0]) != FORMAT_VERSION
+                || parseCount(parts[1]) < iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getActiveWorkers() {
+        return pool.getActiveCount();
+    }
+
+    public long getHashesComputed() {
+        return hashesComputed.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Blocking hashes run on the caller's thread because the queue was full
+     */
+    public long getCallerRuns() {
+        return callerRuns.sum();
+    }
+
+    public double getAverageHashMillis() {
+        long count = hashesComputed.sum();
+        return count == 0 ? 0 : hashNanos.sum() / 1_000_000.0 / count;
+    }
+
+    private String encode(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations);
+
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + FORMAT_VERSION + "$" + iterations + "$"
+                + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    /**
+     * A malformed stored value never matches; it does not fail the login
+     */
+    private boolean matches(String password, String stored) {
+        String[] parts = stored.substring(PREFIX.length()).split("\\$");
+        int rounds = parts.length == 4 ? parseCount(parts[1]) : -1;
+        if (parseCount(parts[0]) != FORMAT_VERSION || rounds <= 0) {
+            return false;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] expected = decoder.decode(parts[3]);
+            byte[] actual = pbkdf2(password, decoder.decode(parts[2]), rounds);
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            return false; // bad Base64 or an empty salt
+        }
+    }
+
+    /**
+     * A version or iteration count from a stored value; -1 when it is not a number
+     */
+    private static int parseCount(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private byte[] pbkdf2(String password, byte[] salt, int rounds) {
+        long start = System.nanoTime();
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, rounds, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            throw new IllegalStateException("PBKDF2 unavailable: " + e.getMessage(), e);
+        } finally {
+            spec.clearPassword();
+            hashesComputed.increment();
+            hashNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private <T> FutureTask<T> submitBlocking(Supplier<T> work) {
+        FutureTask<T> task = new FutureTask<>(work::get);
+        try {
+            pool.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Queue full: the caller does the work itself, which throttles it like a wait would
+            callerRuns.increment();
+            task.run();
+        }
+        return task;
+    }
+
+    private <T> CompletableFuture<T> submitAsync(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, pool);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static <T> T await(FutureTask<T> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
@@ -1,26 +1,58 @@
 package com.services;
 
+import com.abstracts.BaseService;
 import com.models.Recommendation;
+import com.database.SessionWriteExecutor;
+import com.events.EventBus;
+import com.metrics.ServiceCallEvent;
 import com.services.AnalyticsService.DailyAnalytics;
 import com.services.AnalyticsService.ComparisonResult;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Recommendation Service - Generates personalized recommendations based on time usage
  */
-public class RecommendationService {
+public class RecommendationService extends BaseService {
     private AnalyticsService analyticsService;
+    // Runs the *Async reads, so views never wait on the journal or the database
+    private final ExecutorService asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
     
-    public RecommendationService() {
-        this.analyticsService = new AnalyticsService();
+    public RecommendationService(AnalyticsService analyticsService) {
+        super("Recommendation");
+        this.analyticsService = analyticsService;
+    }
+
+    // Abstract method implementations from BaseService
+    @Override
+    protected void doInitialize() throws Exception {
+        if (analyticsService == null || !analyticsService.isReady()) {
+            throw new Exception("AnalyticsService not ready");
+        }
+    }
+
+    @Override
+    protected void doCleanup() {
+        // Queued writes are committed by the writer shutdown
+        asyncExecutor.shutdown();
     }
     
+    /**
+     * Version of the underlying session data, see TimeTrackingService.getDataVersion()
+     */
+    public long getDataVersion() {
+        return analyticsService.getDataVersion();
+    }
+
     /**
      * Generate recommendations for a specific date
      */
     public List<Recommendation> generateRecommendations(int userId, LocalDate date) {
+        ServiceCallEvent event = ServiceCallEvent.start();
         List<Recommendation> recommendations = new ArrayList<>();
         DailyAnalytics analytics = analyticsService.getDailyAnalytics(userId, date);
         
@@ -46,9 +78,25 @@ public class RecommendationService {
         // Check for balance issues
         checkBalanceIssues(userId, analytics, recommendations, date);
         
+        EventBus.getInstance().publishRecommendationsGenerated(userId, date, recommendations.size());
+        event.finish("RecommendationService.generateRecommendations", userId, date);
         return recommendations;
     }
     
+    /**
+     * Generate recommendations without blocking the caller, e.g. from the FX thread
+     */
+    public CompletableFuture<List<Recommendation>> generateRecommendationsAsync(int userId, LocalDate date) {
+        return CompletableFuture.supplyAsync(() -> generateRecommendations(userId, date), asyncExecutor);
+    }
+
+    /**
+     * Persist generated recommendations through the group-commit writer
+     */
+    public CompletableFuture<List<Recommendation>> saveRecommendations(List<Recommendation> recommendations) {
+        return SessionWriteExecutor.getInstance().submitRecommendations(recommendations);
+    }
+    
     /**
      * Create recommendation for low activity time
      */
@@ -173,4 +221,11 @@ public class RecommendationService {
         
         return Math.max(0, Math.min(100, score));
     }
+
+    /**
+     * Get the productivity score without blocking the caller, e.g. from the FX thread
+     */
+    public CompletableFuture<Integer> getProductivityScoreAsync(int userId, LocalDate date) {
+        return CompletableFuture.supplyAsync(() -> getProductivityScore(userId, date), asyncExecutor);
+    }
 }
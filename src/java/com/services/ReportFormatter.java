@@ -0,0 +1,113 @@
+package com.services;
+
+import com.models.ActivitySession;
+import com.models.User;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Report formatting - text report and CSV export of activity sessions
+ * Kept free of UI code so reports can be produced (and benchmarked) anywhere
+ */
+public final class ReportFormatter {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private ReportFormatter() {
+    }
+
+    /**
+     * Plain-text report of the sessions in a date range
+     */
+    public static String formatTextReport(User user, LocalDate startDate, LocalDate endDate,
+            List<ActivitySession> sessions) {
+        StringBuilder report = new StringBuilder();
+        report.append("═══════════════════════════════════════════════════════════\n");
+        report.append("                 INTELLICOACH TIME TRACKING REPORT\n");
+        report.append("═══════════════════════════════════════════════════════════\n\n");
+        report.append("User: ").append(user.getFullName()).append(" (").append(user.getUsername()).append(")\n");
+        report.append("Report Period: ").append(startDate).append(" to ").append(endDate).append("\n");
+        report.append("Generated: ").append(LocalDate.now()).append("\n\n");
+        report.append("───────────────────────────────────────────────────────────\n\n");
+
+        if (sessions.isEmpty()) {
+            report.append("No activity sessions found for this period.\n");
+        } else {
+            // Summary statistics
+            Map<String, Integer> totalByActivity = sessions.stream()
+                    .filter(s -> s.getDurationMinutes() > 0)
+                    .collect(Collectors.groupingBy(
+                            ActivitySession::getActivityType,
+                            Collectors.summingInt(ActivitySession::getDurationMinutes)));
+
+            int grandTotal = totalByActivity.values().stream().mapToInt(Integer::intValue).sum();
+
+            report.append("SUMMARY STATISTICS:\n");
+            report.append("───────────────────────────────────────────────────────────\n");
+            report.append(String.format("Total Sessions: %d\n", sessions.size()));
+            report.append(String.format("Total Time: %.1f hours (%d minutes)\n\n",
+                    grandTotal / 60.0, grandTotal));
+
+            report.append("Time by Activity:\n");
+            for (Map.Entry<String, Integer> entry : totalByActivity.entrySet()) {
+                double hours = entry.getValue() / 60.0;
+                double percentage = (entry.getValue() * 100.0) / grandTotal;
+                report.append(String.format("  %-20s: %6.1f hours (%5.1f%%)\n",
+                        entry.getKey(), hours, percentage));
+            }
+
+            report.append("\n───────────────────────────────────────────────────────────\n\n");
+
+            // Detailed sessions
+            report.append("DETAILED SESSIONS:\n");
+            report.append("───────────────────────────────────────────────────────────\n");
+            report.append(String.format("%-12s %-20s %-10s %-10s %-10s\n",
+                    "Date", "Activity", "Start", "End", "Duration"));
+            report.append("───────────────────────────────────────────────────────────\n");
+
+            for (ActivitySession session : sessions) {
+                if (session.getDurationMinutes() > 0) {
+                    String date = session.getSessionDate().format(DATE_FORMAT);
+                    String activity = session.getActivityType();
+                    String start = session.getStartTime().format(TIME_FORMAT);
+                    String end = session.getEndTime() != null ? session.getEndTime().format(TIME_FORMAT) : "Active";
+                    String duration = String.format("%dh %dm",
+                            session.getDurationMinutes() / 60,
+                            session.getDurationMinutes() % 60);
+
+                    report.append(String.format("%-12s %-20s %-10s %-10s %-10s\n",
+                            date, activity, start, end, duration));
+                }
+            }
+        }
+
+        report.append("\n═══════════════════════════════════════════════════════════\n");
+        report.append("                    END OF REPORT\n");
+        report.append("═══════════════════════════════════════════════════════════\n");
+        return report.toString();
+    }
+
+    /**
+     * Write completed sessions as CSV, with a header line
+     */
+    public static void writeCsv(Writer writer, List<ActivitySession> sessions) throws IOException {
+        writer.write("Date,Activity,Start Time,End Time,Duration (minutes),Duration (hours)\n");
+
+        for (ActivitySession session : sessions) {
+            if (session.getDurationMinutes() > 0) {
+                writer.write(String.format("%s,%s,%s,%s,%d,%.2f\n",
+                        session.getSessionDate().format(DATE_FORMAT),
+                        session.getActivityType(),
+                        session.getStartTime().format(TIME_FORMAT),
+                        session.getEndTime() != null ? session.getEndTime().format(TIME_FORMAT) : "Active",
+                        session.getDurationMinutes(),
+                        session.getDurationHours()));
+            }
+        }
+    }
+}
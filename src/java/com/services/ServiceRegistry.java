@@ -0,0 +1,196 @@
+package com.services;
+
+import com.interfaces.Service;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the application's singleton services - Singleton pattern
+ *
+ * Each service is registered with a factory and the services it depends on.
+ * startAll() initializes every service on a virtual thread as soon as its
+ * dependencies are ready, so independent services start in parallel, and
+ * records how long each initialize() took. A service whose initialize()
+ * fails completes its future exceptionally, so the services that depend on
+ * it are never started and startAll() fails. get() returns the shared,
+ * started instance (starting it on demand), and shutdownAll() cleans up in
+ * reverse start order.
+ */
+public class ServiceRegistry {
+    private static ServiceRegistry instance;
+
+    private final Map<Class<?>, Entry<?>> entries = new LinkedHashMap<>();
+    // Services in the order their initialization finished, for reverse shutdown
+    private final List<Entry<?>> startOrder = Collections.synchronizedList(new ArrayList<>());
+    private final ExecutorService startupExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private ServiceRegistry() {
+        register(AuthenticationService.class, AuthenticationService::getInstance);
+        register(TimeTrackingService.class, TimeTrackingService::new);
+        register(AnalyticsService.class,
+                () -> new AnalyticsService(get(TimeTrackingService.class)),
+                TimeTrackingService.class);
+        register(RecommendationService.class,
+                () -> new RecommendationService(get(AnalyticsService.class)),
+                AnalyticsService.class);
+    }
+
+    public static synchronized ServiceRegistry getInstance() {
+        if (instance == null) {
+            instance = new ServiceRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Shut down the registry's services if it was ever created (called on application exit)
+     */
+    public static synchronized void shutdownIfStarted() {
+        if (instance != null) {
+            instance.shutdownAll();
+            instance = null;
+        }
+    }
+
+    /**
+     * Register a service factory; dependencies must be registered first
+     */
+    public synchronized <T extends Service> void register(Class<T> type, Supplier<T> factory,
+            Class<?>... dependencies) {
+        List<Entry<?>> dependencyEntries = new ArrayList<>(dependencies.length);
+        for (Class<?> dependency : dependencies) {
+            Entry<?> entry = entries.get(dependency);
+            if (entry == null) {
+                throw new IllegalArgumentException(type.getSimpleName() + " depends on unregistered "
+                        + dependency.getSimpleName());
+            }
+            dependencyEntries.add(entry);
+        }
+        entries.put(type, new Entry<>(type, factory, dependencyEntries));
+    }
+
+    /**
+     * Get the shared instance of a service, starting it (and its dependencies) if needed
+     */
+    public <T extends Service> T get(Class<T> type) {
+        Entry<?> entry;
+        synchronized (this) {
+            entry = entries.get(type);
+        }
+        if (entry == null) {
+            throw new IllegalArgumentException("Service not registered: " + type.getSimpleName());
+        }
+        start(entry).join();
+        return type.cast(entry.instance);
+    }
+
+    /**
+     * Start every registered service; completes when all have initialized
+     */
+    public CompletableFuture<Void> startAll() {
+        List<CompletableFuture<Void>> started = new ArrayList<>();
+        synchronized (this) {
+            for (Entry<?> entry : entries.values()) {
+                started.add(start(entry));
+            }
+        }
+        return allOf(started);
+    }
+
+    /**
+     * Clean up started services in reverse start order
+     */
+    public void shutdownAll() {
+        List<Entry<?>> order;
+        synchronized (startOrder) {
+            order = new ArrayList<>(startOrder);
+            startOrder.clear();
+        }
+        Collections.reverse(order);
+        for (Entry<?> entry : order) {
+            try {
+                entry.instance.cleanup();
+            } catch (RuntimeException e) {
+                System.err.println(" " + entry.type.getSimpleName() + " cleanup failed: " + e.getMessage());
+            }
+        }
+        startupExecutor.shutdown();
+    }
+
+    /**
+     * Startup timings, one line per service in start order
+     */
+    public String getStartupReport() {
+        StringBuilder report = new StringBuilder();
+        synchronized (startOrder) {
+            for (Entry<?> entry : startOrder) {
+                report.append(String.format("%-24s %8.1f ms  %s%n", entry.type.getSimpleName(),
+                        entry.initNanos / 1_000_000.0, entry.instance.isReady() ? "ready" : "FAILED"));
+            }
+        }
+        synchronized (this) {
+            for (Entry<?> entry : entries.values()) {
+                if (entry.instance == null && entry.started != null && entry.started.isCompletedExceptionally()) {
+                    report.append(String.format("%-24s %11s  %s%n", entry.type.getSimpleName(), "-", "SKIPPED"));
+                }
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Start an entry once its dependencies have started; idempotent
+     */
+    private synchronized CompletableFuture<Void> start(Entry<?> entry) {
+        if (entry.started == null) {
+            List<CompletableFuture<Void>> dependencies = new ArrayList<>(entry.dependencies.size());
+            for (Entry<?> dependency : entry.dependencies) {
+                dependencies.add(start(dependency));
+            }
+            // A failed dependency fails this future too, without running initialize()
+            entry.started = allOf(dependencies)
+                    .thenRunAsync(() -> initialize(entry), startupExecutor);
+        }
+        return entry.started;
+    }
+
+    private void initialize(Entry<?> entry) {
+        long start = System.nanoTime();
+        Service service = entry.factory.get();
+        boolean ready = service.initialize();
+        entry.initNanos = System.nanoTime() - start;
+        entry.instance = service;
+        // Recorded even when it failed, so shutdownAll() cleans up what it did start
+        startOrder.add(entry);
+        if (!ready) {
+            System.err.println(" " + entry.type.getSimpleName() + " did not start");
+            throw new IllegalStateException(entry.type.getSimpleName() + " failed to initialize");
+        }
+    }
+
+    private static CompletableFuture<Void> allOf(List<CompletableFuture<Void>> futures) {
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new));
+    }
+
+    private static class Entry<T extends Service> {
+        private final Class<T> type;
+        private final Supplier<T> factory;
+        private final List<Entry<?>> dependencies;
+        private CompletableFuture<Void> started;
+        private volatile Service instance;
+        private volatile long initNanos;
+
+        Entry(Class<T> type, Supplier<T> factory, List<Entry<?>> dependencies) {
+            this.type = type;
+            this.factory = factory;
+            this.dependencies = dependencies;
+        }
+    }
+}
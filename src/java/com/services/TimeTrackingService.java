@@ -1,51 +1,158 @@
 package com.services;
 
+import com.abstracts.BaseService;
 import com.models.ActivitySession;
 import com.database.ActivitySessionDAO;
+import com.database.ReportSnapshot;
+import com.database.SessionArchive;
+import com.database.SessionJournal;
+import com.database.SessionWriteExecutor;
+import com.events.EventBus;
+import com.metrics.ServiceCallEvent;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Time Tracking Service - Core Start/Stop functionality
  * Handles activity session management
  */
-public class TimeTrackingService {
+public class TimeTrackingService extends BaseService {
     private ActivitySessionDAO sessionDAO;
+    private SessionWriteExecutor writeExecutor;
+    private SessionJournal journal;
+    private final EventBus eventBus = EventBus.getInstance();
+    // Runs the *Async reads, so views never wait on the journal or the database
+    private final ExecutorService asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     public TimeTrackingService() {
+        super("TimeTracking");
         this.sessionDAO = new ActivitySessionDAO();
     }
 
+    // Abstract method implementations from BaseService
+    @Override
+    protected void doInitialize() throws Exception {
+        // Start the writer and replay any journaled events left by a crash
+        this.writeExecutor = SessionWriteExecutor.getInstance();
+        this.journal = SessionJournal.getInstance();
+        // Move sessions past the archive horizon out of the hot table, in the background
+        SessionArchive.getInstance().startArchival();
+    }
+
+    @Override
+    protected void doCleanup() {
+        // Apply journaled Start/Stop events and commit queued writes
+        SessionJournal.shutdownIfStarted();
+        SessionWriteExecutor.shutdownIfStarted();
+        asyncExecutor.shutdown();
+    }
+
     /**
      * Start a new activity
      * Automatically stops any currently active activity
+     * Returns once the event is journaled; the session ID is assigned when it is applied
      */
     public ActivitySession startActivity(int userId, String activityType) {
+        return startActivity(userId, activityType, null);
+    }
+
+    /**
+     * Start a new activity at most once per idempotency key
+     * A retried request with the same key gets the first request's session back
+     */
+    public ActivitySession startActivity(int userId, String activityType, String idempotencyKey) {
+        ServiceCallEvent event = ServiceCallEvent.start();
         LocalDateTime now = LocalDateTime.now();
-        return sessionDAO.startSession(userId, activityType, now);
+        ActivitySession session = null;
+        try {
+            SessionJournal.Outcome<ActivitySession> outcome = journal.appendStart(userId, activityType, now, idempotencyKey);
+            session = outcome.result();
+            if (!outcome.repeated()) {
+                eventBus.publishSessionStarted(userId, activityType, now);
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // Unknown activity, a full journal or an applier that fell behind
+            System.err.println(" Start session failed: " + e.getMessage());
+        }
+        event.finish("TimeTrackingService.startActivity", userId, now);
+        return session;
+    }
+
+    /**
+     * Start a new activity without blocking the caller, e.g. from the FX thread
+     */
+    public CompletableFuture<ActivitySession> startActivityAsync(int userId, String activityType) {
+        return CompletableFuture.supplyAsync(() -> startActivity(userId, activityType), asyncExecutor);
     }
 
     /**
      * Stop the currently active activity
+     * Returns once the event is journaled
      */
     public boolean stopActivity(int userId) {
+        return stopActivity(userId, null);
+    }
+
+    /**
+     * Stop the currently active activity at most once per idempotency key
+     */
+    public boolean stopActivity(int userId, String idempotencyKey) {
+        ServiceCallEvent event = ServiceCallEvent.start();
         LocalDateTime now = LocalDateTime.now();
-        return sessionDAO.stopActiveSession(userId, now);
+        boolean stopped = false;
+        try {
+            SessionJournal.Outcome<Boolean> outcome = journal.appendStop(userId, now, idempotencyKey);
+            stopped = outcome.result();
+            if (stopped && !outcome.repeated()) {
+                eventBus.publishSessionStopped(userId, now);
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            System.err.println(" Stop session failed: " + e.getMessage());
+        }
+        event.finish("TimeTrackingService.stopActivity", userId, now);
+        return stopped;
+    }
+
+    /**
+     * Stop the currently active activity without blocking the caller, e.g. from the FX thread
+     */
+    public CompletableFuture<Boolean> stopActivityAsync(int userId) {
+        return CompletableFuture.supplyAsync(() -> stopActivity(userId), asyncExecutor);
+    }
+
+    /**
+     * Import completed sessions in one group transaction
+     */
+    public CompletableFuture<List<ActivitySession>> importSessions(List<ActivitySession> sessions) {
+        return writeExecutor.submitImport(sessions);
     }
 
     /**
      * Get the currently active session
      */
     public ActivitySession getActiveSession(int userId) {
+        journal.awaitApplied();
         return sessionDAO.getActiveSession(userId);
     }
 
+    /**
+     * Get the currently active session without blocking the caller, e.g. from the FX thread
+     */
+    public CompletableFuture<ActivitySession> getActiveSessionAsync(int userId) {
+        return CompletableFuture.supplyAsync(() -> getActiveSession(userId), asyncExecutor);
+    }
+
     /**
      * Check if user has an active session
      */
     public boolean hasActiveSession(int userId) {
+        journal.awaitApplied();
         return sessionDAO.getActiveSession(userId) != null;
     }
 
@@ -53,35 +160,80 @@ public class TimeTrackingService {
      * Get all sessions for today
      */
     public List<ActivitySession> getTodaySessions(int userId) {
-        return sessionDAO.getSessionsByDate(userId, LocalDate.now());
+        return getSessionsByDate(userId, LocalDate.now());
+    }
+
+    /**
+     * Get all sessions for today without blocking the caller, e.g. from the FX thread
+     */
+    public CompletableFuture<List<ActivitySession>> getTodaySessionsAsync(int userId) {
+        return CompletableFuture.supplyAsync(() -> getTodaySessions(userId), asyncExecutor);
     }
 
     /**
      * Get sessions for a specific date
      */
     public List<ActivitySession> getSessionsByDate(int userId, LocalDate date) {
-        return sessionDAO.getSessionsByDate(userId, date);
+        ServiceCallEvent event = ServiceCallEvent.start();
+        journal.awaitApplied();
+        List<ActivitySession> sessions = sessionDAO.getSessionsByDate(userId, date);
+        event.finish("TimeTrackingService.getSessionsByDate", userId, date);
+        return sessions;
     }
 
     /**
      * Get sessions for a date range
      */
     public List<ActivitySession> getSessionsByDateRange(int userId, LocalDate startDate, LocalDate endDate) {
-        return sessionDAO.getSessionsByDateRange(userId, startDate, endDate);
+        ServiceCallEvent event = ServiceCallEvent.start();
+        journal.awaitApplied();
+        List<ActivitySession> sessions = sessionDAO.getSessionsByDateRange(userId, startDate, endDate);
+        event.finish("TimeTrackingService.getSessionsByDateRange", userId, startDate, endDate);
+        return sessions;
+    }
+
+    /**
+     * Get sessions for a date range from one read snapshot, for a report or export
+     * Sees every Start/Stop made before the call; reads off the shared connection, so it never delays them
+     */
+    public List<ActivitySession> getReportSessions(int userId, LocalDate startDate, LocalDate endDate) {
+        ServiceCallEvent event = ServiceCallEvent.start();
+        journal.awaitApplied();
+        List<ActivitySession> sessions;
+        try (ReportSnapshot snapshot = ReportSnapshot.open()) {
+            sessions = sessionDAO.getSessionsByDateRange(snapshot.getConnection(), userId, startDate, endDate);
+        } catch (SQLException e) {
+            System.err.println(" Report snapshot failed: " + e.getMessage());
+            sessions = sessionDAO.getSessionsByDateRange(userId, startDate, endDate);
+        }
+        event.finish("TimeTrackingService.getReportSessions", userId, startDate, endDate);
+        return sessions;
+    }
+
+    /**
+     * Get report sessions without blocking the caller, e.g. from the FX thread
+     */
+    public CompletableFuture<List<ActivitySession>> getReportSessionsAsync(int userId, LocalDate startDate,
+                                                                           LocalDate endDate) {
+        return CompletableFuture.supplyAsync(() -> getReportSessions(userId, startDate, endDate), asyncExecutor);
     }
 
     /**
      * Get total time spent on each activity for today
      */
     public Map<String, Integer> getTodayTimeByActivity(int userId) {
-        return sessionDAO.getTotalTimeByActivity(userId, LocalDate.now());
+        return getTimeByActivity(userId, LocalDate.now());
     }
 
     /**
      * Get total time spent on each activity for a specific date
      */
     public Map<String, Integer> getTimeByActivity(int userId, LocalDate date) {
-        return sessionDAO.getTotalTimeByActivity(userId, date);
+        ServiceCallEvent event = ServiceCallEvent.start();
+        journal.awaitApplied();
+        Map<String, Integer> timeMap = sessionDAO.getTotalTimeByActivity(userId, date);
+        event.finish("TimeTrackingService.getTimeByActivity", userId, date);
+        return timeMap;
     }
 
     /**
@@ -99,4 +251,12 @@ public class TimeTrackingService {
         Map<String, Integer> timeMap = getTodayTimeByActivity(userId);
         return timeMap.getOrDefault(activityType, 0);
     }
+
+    /**
+     * Changes whenever a session is started, stopped or imported
+     * Views compare it with the value from their last load to skip needless reloads
+     */
+    public long getDataVersion() {
+        return journal.getLastSequence() + writeExecutor.getCommittedWrites();
+    }
 }
@@ -0,0 +1,165 @@
+package com.services;
+
+import com.models.User;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent store of logged-in sessions keyed by opaque tokens
+ *
+ * Token lookup is a single ConcurrentHashMap read plus a volatile timestamp
+ * touch, so request threads never take a lock. Sessions expire after an idle
+ * period; a background sweeper removes the ones nobody asks for again.
+ * Each user holds at most a fixed number of sessions - logging in once more
+ * evicts that user's oldest session.
+ */
+public class TokenSessionManager {
+    private static final int TOKEN_BYTES = 32;
+    // Skip the lastAccess write when the session was touched this recently
+    private static final long TOUCH_GRANULARITY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<String, LoginSession> sessionsByToken = new ConcurrentHashMap<>();
+    private final Map<Integer, Deque<LoginSession>> sessionsByUser = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final ScheduledExecutorService sweeper;
+    private final long idleTimeoutNanos;
+    private final int maxSessionsPerUser;
+
+    public TokenSessionManager(long idleTimeout, TimeUnit unit, int maxSessionsPerUser, long sweepIntervalSeconds) {
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+        this.maxSessionsPerUser = maxSessionsPerUser;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sweeper.scheduleWithFixedDelay(this::sweepExpired,
+                sweepIntervalSeconds, sweepIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Open a new session for the user and return its token
+     */
+    public String create(User user) {
+        LoginSession session = new LoginSession(newToken(), user, System.nanoTime());
+        sessionsByToken.put(session.token, session);
+
+        // compute() serializes logins of the same user only
+        sessionsByUser.compute(user.getUserId(), (userId, sessions) -> {
+            Deque<LoginSession> userSessions = sessions != null ? sessions : new ConcurrentLinkedDeque<>();
+            userSessions.addLast(session);
+            while (userSessions.size() > maxSessionsPerUser) {
+                LoginSession evicted = userSessions.pollFirst();
+                sessionsByToken.remove(evicted.token, evicted);
+            }
+            return userSessions;
+        });
+        return session.token;
+    }
+
+    /**
+     * Get the user of a live session, or null when the token is unknown or expired
+     */
+    public User lookup(String token) {
+        if (token == null) {
+            return null;
+        }
+        LoginSession session = sessionsByToken.get(token);
+        if (session == null) {
+            return null;
+        }
+
+        long now = System.nanoTime();
+        if (session.isExpired(now, idleTimeoutNanos)) {
+            remove(session);
+            return null;
+        }
+        if (now - session.lastAccess > TOUCH_GRANULARITY_NANOS) {
+            session.lastAccess = now;
+        }
+        return session.user;
+    }
+
+    /**
+     * End the session of the token; returns false when it was not live
+     */
+    public boolean invalidate(String token) {
+        LoginSession session = token != null ? sessionsByToken.get(token) : null;
+        return session != null && remove(session);
+    }
+
+    /**
+     * End every session of a user, e.g. after a password change
+     */
+    public void invalidateUser(int userId) {
+        Deque<LoginSession> sessions = sessionsByUser.remove(userId);
+        if (sessions != null) {
+            for (LoginSession session : sessions) {
+                sessionsByToken.remove(session.token, session);
+            }
+        }
+    }
+
+    public int getActiveSessionCount() {
+        return sessionsByToken.size();
+    }
+
+    /**
+     * Drop all sessions and stop the sweeper
+     */
+    public void shutdown() {
+        sweeper.shutdownNow();
+        sessionsByToken.clear();
+        sessionsByUser.clear();
+    }
+
+    private void sweepExpired() {
+        long now = System.nanoTime();
+        for (LoginSession session : sessionsByToken.values()) {
+            if (session.isExpired(now, idleTimeoutNanos)) {
+                remove(session);
+            }
+        }
+    }
+
+    private boolean remove(LoginSession session) {
+        boolean removed = sessionsByToken.remove(session.token, session);
+        sessionsByUser.computeIfPresent(session.user.getUserId(), (userId, sessions) -> {
+            sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+        return removed;
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * One logged-in session
+     */
+    private static class LoginSession {
+        private final String token;
+        private final User user;
+        private volatile long lastAccess;
+
+        LoginSession(String token, User user, long now) {
+            this.token = token;
+            this.user = user;
+            this.lastAccess = now;
+        }
+
+        boolean isExpired(long now, long idleTimeoutNanos) {
+            return now - lastAccess > idleTimeoutNanos;
+        }
+    }
+}
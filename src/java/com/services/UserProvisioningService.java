@@ -0,0 +1,451 @@
+package com.services;
+
+import com.database.DBConnection;
+import com.database.UserDAO;
+import com.events.EventBus;
+import com.models.User;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Bulk user provisioning - onboards a whole class or school in one call
+ *
+ * Records are processed in chunks: each chunk is validated and deduplicated in
+ * memory, checked against existing users with one set-based query, and the
+ * survivors are inserted in one transaction with multi-row INSERTs. Every input
+ * row gets a result line in the returned report.
+ *
+ * Throughput is bound by password hashing: every plaintext password costs one
+ * PBKDF2 hash (PasswordHasher, 210,000 iterations by default), so an import
+ * runs at about (cores - 1) / hash time, tens of users per second rather than
+ * thousands. Input that already holds PasswordHasher hashes, e.g. exported
+ * from another IntelliCoach database, can be imported pre-hashed; it skips
+ * hashing and is bound by the inserts instead.
+ */
+public class UserProvisioningService {
+    private static final int CHUNK_SIZE = 500;
+    private static final List<String> CSV_HEADER = List.of("username", "email", "password", "full_name");
+
+    private final UserDAO userDAO;
+    private final PasswordHasher passwordHasher;
+    private final EventBus eventBus;
+
+    public UserProvisioningService() {
+        this.userDAO = new UserDAO();
+        this.passwordHasher = PasswordHasher.getInstance();
+        this.eventBus = EventBus.getInstance();
+    }
+
+    /**
+     * Command-line import of a CSV file
+     * Usage: java -cp "build;lib/*" com.services.UserProvisioningService users.csv
+     *            [--pre-hashed] [--report=logs/provisioning-report.csv]
+     * Prints the summary, and writes one line per row to the report file (stdout without --report).
+     * Exits with status 1 when the file cannot be read or a row failed for a reason other than its content.
+     */
+    public static void main(String[] args) {
+        Path input = null;
+        Path reportFile = null;
+        boolean preHashed = false;
+        for (String arg : args) {
+            if (arg.equals("--pre-hashed")) {
+                preHashed = true;
+            } else if (arg.startsWith("--report=")) {
+                reportFile = Path.of(arg.substring("--report=".length()));
+            } else {
+                input = Path.of(arg);
+            }
+        }
+        if (input == null) {
+            System.err.println("Usage: UserProvisioningService users.csv [--pre-hashed] [--report=<file>]");
+            System.exit(2);
+        }
+
+        int status = 0;
+        try (Reader csv = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            ProvisioningReport report = new UserProvisioningService().provisionCsv(csv, preHashed);
+            try (PrintWriter out = reportFile != null
+                    ? new PrintWriter(Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8))
+                    : new PrintWriter(System.out)) {
+                out.println("row,username,status,message,user_id");
+                for (RowResult row : report.getRows()) {
+                    out.println(row);
+                }
+            }
+            System.out.println(report.getSummary());
+            status = report.getCount(Status.FAILED) > 0 ? 1 : 0;
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println(" Provisioning failed: " + e.getMessage());
+            status = 1;
+        } finally {
+            EventBus.shutdownIfStarted();
+            DBConnection.getInstance().disconnect();
+        }
+        System.exit(status);
+    }
+
+    /**
+     * Provision users from CSV: username,email,password,full_name
+     * A first line that is exactly the column list (any case) is treated as a header
+     */
+    public ProvisioningReport provisionCsv(Reader csv) {
+        return provisionCsv(csv, false);
+    }
+
+    /**
+     * Provision users from CSV whose password column may hold PasswordHasher hashes
+     * With preHashed, the column is stored as is; a value that is not such a hash makes the row invalid
+     */
+    public ProvisioningReport provisionCsv(Reader csv, boolean preHashed) {
+        return provision(new CsvRecordIterator(new BufferedReader(csv)), preHashed);
+    }
+
+    public ProvisioningReport provision(List<UserRecord> records) {
+        return provision(records.iterator(), false);
+    }
+
+    /**
+     * Provision users from a stream of records; only one chunk is held in memory
+     */
+    public ProvisioningReport provision(Iterator<UserRecord> records, boolean preHashed) {
+        long start = System.nanoTime();
+        ProvisioningReport report = new ProvisioningReport();
+        // Keys seen earlier in this input, for duplicates across chunks
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+
+        List<UserRecord> chunk = new ArrayList<>(CHUNK_SIZE);
+        int rowNumber = 0;
+        while (records.hasNext()) {
+            UserRecord record = records.next();
+            record.rowNumber = ++rowNumber;
+            chunk.add(record);
+            if (chunk.size() == CHUNK_SIZE) {
+                processChunk(chunk, preHashed, seenUsernames, seenEmails, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, preHashed, seenUsernames, seenEmails, report);
+        }
+
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private void processChunk(List<UserRecord> chunk, boolean preHashed, Set<String> seenUsernames,
+            Set<String> seenEmails, ProvisioningReport report) {
+        // 1. Validate and drop duplicates within the input
+        List<UserRecord> candidates = new ArrayList<>(chunk.size());
+        for (UserRecord record : chunk) {
+            String error = preHashed && !passwordHasher.isStoredHash(record.password)
+                    ? "Password is not a PBKDF2 hash"
+                    : AuthenticationService.validateRegistration(record.username, record.email, record.password);
+            if (error != null) {
+                report.add(record, Status.INVALID, error, 0);
+            } else if (!seenUsernames.add(record.username)) {
+                report.add(record, Status.DUPLICATE_IN_INPUT, "Username appears earlier in the input", 0);
+            } else if (!seenEmails.add(record.email)) {
+                report.add(record, Status.DUPLICATE_IN_INPUT, "Email appears earlier in the input", 0);
+            } else {
+                candidates.add(record);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // 2. One query for conflicts with existing users
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        List<String> usernames = new ArrayList<>(candidates.size());
+        List<String> emails = new ArrayList<>(candidates.size());
+        for (UserRecord record : candidates) {
+            usernames.add(record.username);
+            emails.add(record.email);
+        }
+        try {
+            userDAO.forEachConflict(usernames, emails, (username, email) -> {
+                takenUsernames.add(username);
+                takenEmails.add(email);
+            });
+        } catch (SQLException e) {
+            System.err.println(" Provisioning conflict check failed: " + e.getMessage());
+            for (UserRecord record : candidates) {
+                report.add(record, Status.FAILED, "Conflict check failed", 0);
+            }
+            return;
+        }
+
+        List<UserRecord> toInsert = new ArrayList<>(candidates.size());
+        List<String> passwords = new ArrayList<>(candidates.size());
+        for (UserRecord record : candidates) {
+            if (takenUsernames.contains(record.username)) {
+                report.add(record, Status.USERNAME_TAKEN, "Username already exists", 0);
+            } else if (takenEmails.contains(record.email)) {
+                report.add(record, Status.EMAIL_TAKEN, "Email already registered", 0);
+            } else {
+                toInsert.add(record);
+                passwords.add(record.password);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        // 3. Hash the passwords in parallel on the hashing pool - the slow step of a plaintext import
+        List<String> hashes = preHashed ? passwords : passwordHasher.hashAll(passwords);
+        List<User> users = new ArrayList<>(toInsert.size());
+        for (int i = 0; i < toInsert.size(); i++) {
+            UserRecord record = toInsert.get(i);
+            users.add(new User(record.username, record.email, hashes.get(i), record.fullName));
+        }
+
+        // 4. Insert the chunk in one transaction
+        List<User> saved = userDAO.saveAll(users);
+        if (saved.size() == users.size()) {
+            for (int i = 0; i < saved.size(); i++) {
+                report.add(toInsert.get(i), Status.CREATED, "Created", saved.get(i).getUserId());
+                eventBus.publishUserRegistered(saved.get(i).getUserId());
+            }
+            return;
+        }
+
+        // The batch was rolled back, e.g. a concurrent registration took a name: retry row by row
+        for (int i = 0; i < users.size(); i++) {
+            User created = userDAO.save(users.get(i));
+            if (created != null) {
+                report.add(toInsert.get(i), Status.CREATED, "Created", created.getUserId());
+                eventBus.publishUserRegistered(created.getUserId());
+            } else {
+                report.add(toInsert.get(i), Status.FAILED, "Insert failed", 0);
+            }
+        }
+    }
+
+    public enum Status {
+        CREATED, INVALID, DUPLICATE_IN_INPUT, USERNAME_TAKEN, EMAIL_TAKEN, FAILED
+    }
+
+    /**
+     * One input user
+     */
+    public static class UserRecord {
+        private final String username;
+        private final String email;
+        private final String password;
+        private final String fullName;
+        private int rowNumber;
+
+        public UserRecord(String username, String email, String password, String fullName) {
+            this.username = username != null ? username.trim() : null;
+            this.email = email != null ? email.trim() : null;
+            this.password = password;
+            this.fullName = fullName != null ? fullName.trim() : null;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getFullName() {
+            return fullName;
+        }
+    }
+
+    /**
+     * Outcome of one input row
+     */
+    public static class RowResult {
+        private final int rowNumber;
+        private final String username;
+        private final Status status;
+        private final String message;
+        private final int userId;
+
+        RowResult(int rowNumber, String username, Status status, String message, int userId) {
+            this.rowNumber = rowNumber;
+            this.username = username;
+            this.status = status;
+            this.message = message;
+            this.userId = userId;
+        }
+
+        public int getRowNumber() {
+            return rowNumber;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        @Override
+        public String toString() {
+            return rowNumber + "," + username + "," + status + "," + message
+                    + (userId > 0 ? "," + userId : "");
+        }
+    }
+
+    /**
+     * Per-row results of one provisioning run, in input order
+     */
+    public static class ProvisioningReport {
+        private final List<RowResult> rows = new ArrayList<>();
+        private final Map<Status, Integer> counts = new HashMap<>();
+        private long elapsedNanos;
+
+        void add(UserRecord record, Status status, String message, int userId) {
+            rows.add(new RowResult(record.rowNumber, record.username, status, message, userId));
+            counts.merge(status, 1, Integer::sum);
+        }
+
+        public List<RowResult> getRows() {
+            rows.sort((a, b) -> Integer.compare(a.rowNumber, b.rowNumber));
+            return rows;
+        }
+
+        public int getCount(Status status) {
+            return counts.getOrDefault(status, 0);
+        }
+
+        public int getTotalRows() {
+            return rows.size();
+        }
+
+        public double getUsersPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows.size() * 1e9 / elapsedNanos;
+        }
+
+        public String getSummary() {
+            return String.format("%d rows: %d created, %d invalid, %d duplicate, %d username taken, "
+                    + "%d email taken, %d failed (%.0f rows/s)",
+                    rows.size(), getCount(Status.CREATED), getCount(Status.INVALID),
+                    getCount(Status.DUPLICATE_IN_INPUT), getCount(Status.USERNAME_TAKEN),
+                    getCount(Status.EMAIL_TAKEN), getCount(Status.FAILED), getUsersPerSecond());
+        }
+    }
+
+    /**
+     * Reads one record per CSV line; quoted fields may contain commas and doubled quotes
+     */
+    private static class CsvRecordIterator implements Iterator<UserRecord> {
+        private final BufferedReader reader;
+        private String nextLine;
+        private boolean firstLine = true;
+
+        CsvRecordIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextLine != null) {
+                return true;
+            }
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    boolean header = firstLine && isHeader(line);
+                    firstLine = false;
+                    if (!header && !line.isBlank()) {
+                        nextLine = line;
+                        return true;
+                    }
+                }
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public UserRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<String> fields = parseLine(nextLine);
+            nextLine = null;
+            return new UserRecord(field(fields, 0), field(fields, 1), field(fields, 2), field(fields, 3));
+        }
+
+        /**
+         * Only the exact column list is a header, so a user named e.g. "usernameA" is still a row
+         */
+        private static boolean isHeader(String line) {
+            List<String> fields = parseLine(line);
+            if (fields.size() != CSV_HEADER.size()) {
+                return false;
+            }
+            for (int i = 0; i < fields.size(); i++) {
+                if (!fields.get(i).trim().toLowerCase(Locale.ROOT).equals(CSV_HEADER.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index < fields.size() ? fields.get(index) : null;
+        }
+
+        private static List<String> parseLine(String line) {
+            List<String> fields = new ArrayList<>(4);
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
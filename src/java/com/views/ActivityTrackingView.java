@@ -1,12 +1,14 @@
 package com.views;
 
+import com.interfaces.View;
 import com.models.User;
 import com.models.ActivityType;
 import com.models.ActivitySession;
 import com.services.TimeTrackingService;
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import com.services.ServiceRegistry;
+import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.ReadOnlyIntegerProperty;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -15,14 +17,10 @@ import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
-import java.util.Map;
 
-public class ActivityTrackingView {
+public class ActivityTrackingView implements View {
     private Stage stage;
     private User user;
     private TimeTrackingService timeTrackingService;
@@ -36,15 +34,19 @@ public class ActivityTrackingView {
     private TableView<ActivitySession> sessionsTable;
     private VBox todayStatsBox;
 
-    private Timeline timer;
-    private LocalDateTime sessionStartTime;
+    private LiveTimer sessionTimer;
+    private TodaySessionsModel todaySessions;
+    // Bumped by each onShow, Start and Stop, so a slow result from an earlier one is ignored
+    private int activeCheck;
 
     public ActivityTrackingView(Stage stage, User user) {
         this.stage = stage;
         this.user = user;
-        this.timeTrackingService = new TimeTrackingService();
+        this.timeTrackingService = ServiceRegistry.getInstance().get(TimeTrackingService.class);
+        this.todaySessions = new TodaySessionsModel(user.getUserId(), timeTrackingService);
     }
 
+    @Override
     public Scene createScene() {
         BorderPane root = new BorderPane();
         root.getStyleClass().add("background-light");
@@ -61,9 +63,6 @@ public class ActivityTrackingView {
         // Bottom: Footer
         root.setBottom(createFooter());
 
-        // Check for active session on load
-        checkActiveSession();
-
         Scene scene = new Scene(root, 1100, 750);
         scene.getStylesheets().add(getClass().getResource("/css/styles.css").toExternalForm());
         return scene;
@@ -80,14 +79,7 @@ public class ActivityTrackingView {
 
         Button backButton = new Button("← Back");
         backButton.getStyleClass().addAll("btn", "btn-white-success");
-        backButton.setOnAction(e -> {
-            // Stop timer if running
-            if (timer != null) {
-                timer.stop();
-            }
-            DashboardView dashboardView = new DashboardView(stage, user);
-            stage.setScene(dashboardView.createScene());
-        });
+        backButton.setOnAction(e -> NavigationController.of(stage).showDashboard());
 
         Region spacer1 = new Region();
         HBox.setHgrow(spacer1, Priority.ALWAYS);
@@ -180,6 +172,7 @@ public class ActivityTrackingView {
 
         timerLabel = new Label("00:00:00");
         timerLabel.getStyleClass().add("timer-label");
+        sessionTimer = new LiveTimer(timerLabel);
 
         statusLabel = new Label("Ready to start tracking");
         statusLabel.getStyleClass().add("timer-status");
@@ -194,7 +187,7 @@ public class ActivityTrackingView {
         Label tableTitle = new Label("Today's Sessions:");
         tableTitle.setFont(Font.font("Arial", FontWeight.BOLD, 16));
 
-        sessionsTable = new TableView<>();
+        sessionsTable = new TableView<>(todaySessions.getSessions());
         sessionsTable.setPrefHeight(250);
 
         // Activity column
@@ -234,7 +227,7 @@ public class ActivityTrackingView {
 
         // Refresh button
         Button refreshButton = new Button(" Refresh");
-        refreshButton.setOnAction(e -> loadTodaySessions());
+        refreshButton.setOnAction(e -> todaySessions.reload());
 
         tableBox.getChildren().addAll(tableTitle, sessionsTable, refreshButton);
         return tableBox;
@@ -249,9 +242,38 @@ public class ActivityTrackingView {
         Label statsTitle = new Label("Today's Summary");
         statsTitle.getStyleClass().add("stats-title");
 
-        todayStatsBox.getChildren().add(statsTitle);
+        // Total time
+        ReadOnlyIntegerProperty totalMinutes = todaySessions.totalMinutesProperty();
+        Label totalLabel = new Label();
+        totalLabel.textProperty().bind(Bindings.createStringBinding(
+                () -> String.format("Total: %.1f hours", totalMinutes.get() / 60.0), totalMinutes));
+        totalLabel.getStyleClass().add("stats-total");
+
+        // Separator
+        Separator separator = new Separator();
+
+        todayStatsBox.getChildren().addAll(statsTitle, totalLabel, separator);
 
-        updateStatsPanel();
+        // Time per activity; rows are built once and hidden while empty
+        for (ActivityType type : ActivityType.values()) {
+            String typeName = type.getDisplayName();
+            ReadOnlyIntegerProperty minutes = todaySessions.minutesProperty(typeName);
+
+            VBox activityBox = new VBox(3);
+            activityBox.visibleProperty().bind(minutes.greaterThan(0));
+            activityBox.managedProperty().bind(activityBox.visibleProperty());
+
+            Label nameLabel = new Label(typeName);
+            nameLabel.getStyleClass().add("stats-activity-name");
+
+            Label timeLabel = new Label();
+            timeLabel.textProperty().bind(Bindings.createStringBinding(
+                    () -> String.format("%.1f hours (%d min)", minutes.get() / 60.0, minutes.get()), minutes));
+            timeLabel.getStyleClass().add("stats-activity-time");
+
+            activityBox.getChildren().addAll(nameLabel, timeLabel);
+            todayStatsBox.getChildren().add(activityBox);
+        }
 
         return todayStatsBox;
     }
@@ -264,68 +286,93 @@ public class ActivityTrackingView {
             return;
         }
 
-        // Start the session
-        ActivitySession session = timeTrackingService.startActivity(user.getUserId(), selectedActivity);
-
-        if (session != null) {
-            sessionStartTime = session.getStartTime();
-
-            // Update UI
-            startButton.setDisable(true);
-            stopButton.setDisable(false);
-            activityComboBox.setDisable(true);
-
-            currentActivityLabel.setText("Current: " + selectedActivity);
-            statusLabel.setText("Tracking in progress...");
-
-            // Start timer
-            startTimer();
-
-            // Reload sessions
-            loadTodaySessions();
-            updateStatsPanel();
-        } else {
-            showAlert("Failed to start activity", Alert.AlertType.ERROR);
-        }
+        // Journal the start in the background; the buttons stay disabled until it is known
+        int check = ++activeCheck;
+        startButton.setDisable(true);
+        stopButton.setDisable(true);
+        statusLabel.setText("Starting...");
+
+        timeTrackingService.startActivityAsync(user.getUserId(), selectedActivity)
+                .whenComplete((session, error) -> Platform.runLater(() -> {
+                    if (check != activeCheck) {
+                        return;
+                    }
+                    if (session != null) {
+                        // Update UI
+                        stopButton.setDisable(false);
+                        activityComboBox.setDisable(true);
+
+                        currentActivityLabel.setText("Current: " + selectedActivity);
+                        statusLabel.setText("Tracking in progress...");
+
+                        // Start timer; the session started just now
+                        sessionTimer.start(System.nanoTime());
+                    } else {
+                        startButton.setDisable(false);
+                        statusLabel.setText("Ready to start tracking");
+                        showAlert("Failed to start activity", Alert.AlertType.ERROR);
+                    }
+                }));
     }
 
     private void stopActivity() {
-        boolean success = timeTrackingService.stopActivity(user.getUserId());
-
-        if (success) {
-            // Stop timer
-            if (timer != null) {
-                timer.stop();
-            }
-
-            // Update UI
-            startButton.setDisable(false);
-            stopButton.setDisable(true);
-            activityComboBox.setDisable(false);
-
-            currentActivityLabel.setText("No active activity");
-            timerLabel.setText("00:00:00");
-            statusLabel.setText("Activity stopped and saved");
-
-            sessionStartTime = null;
-
-            // Reload sessions
-            loadTodaySessions();
-            updateStatsPanel();
-
-            showAlert("Activity stopped and saved successfully!", Alert.AlertType.INFORMATION);
-        } else {
-            showAlert("Failed to stop activity", Alert.AlertType.ERROR);
-        }
+        int check = ++activeCheck;
+        startButton.setDisable(true);
+        stopButton.setDisable(true);
+        statusLabel.setText("Stopping...");
+
+        timeTrackingService.stopActivityAsync(user.getUserId())
+                .whenComplete((success, error) -> Platform.runLater(() -> {
+                    if (check != activeCheck) {
+                        return;
+                    }
+                    if (Boolean.TRUE.equals(success)) {
+                        // Stop timer
+                        sessionTimer.reset();
+
+                        // Update UI
+                        startButton.setDisable(false);
+                        activityComboBox.setDisable(false);
+
+                        currentActivityLabel.setText("No active activity");
+                        statusLabel.setText("Activity stopped and saved");
+
+                        showAlert("Activity stopped and saved successfully!", Alert.AlertType.INFORMATION);
+                    } else {
+                        stopButton.setDisable(false);
+                        statusLabel.setText("Tracking in progress...");
+                        showAlert("Failed to stop activity", Alert.AlertType.ERROR);
+                    }
+                }));
     }
 
+    /**
+     * Look up the active session in the background and show it once known
+     */
     private void checkActiveSession() {
-        ActivitySession activeSession = timeTrackingService.getActiveSession(user.getUserId());
+        int check = ++activeCheck;
+        startButton.setDisable(true);
+        stopButton.setDisable(true);
+        statusLabel.setText("Checking for an active session...");
+
+        timeTrackingService.getActiveSessionAsync(user.getUserId())
+                .whenComplete((activeSession, error) -> Platform.runLater(() -> {
+                    if (check != activeCheck) {
+                        return;
+                    }
+                    if (error != null) {
+                        System.err.println(" Active session check failed: " + error.getMessage());
+                        statusLabel.setText("Could not load the active session");
+                        startButton.setDisable(false);
+                        return;
+                    }
+                    showActiveSession(activeSession);
+                }));
+    }
 
+    private void showActiveSession(ActivitySession activeSession) {
         if (activeSession != null) {
             // Resume active session
-            sessionStartTime = activeSession.getStartTime();
-
             startButton.setDisable(true);
             stopButton.setDisable(false);
             activityComboBox.setDisable(true);
@@ -334,73 +381,41 @@ public class ActivityTrackingView {
             currentActivityLabel.setText("Current: " + activeSession.getActivityType());
             statusLabel.setText("Resumed active session");
 
-            startTimer();
-        }
-
-        loadTodaySessions();
-        updateStatsPanel();
-    }
-
-    private void startTimer() {
-        timer = new Timeline(new KeyFrame(Duration.seconds(1), e -> updateTimer()));
-        timer.setCycleCount(Animation.INDEFINITE);
-        timer.play();
-    }
+            sessionTimer.start(activeSession.getStartTime());
+        } else {
+            // The session may have been stopped elsewhere while this view was hidden
+            sessionTimer.reset();
 
-    private void updateTimer() {
-        if (sessionStartTime != null) {
-            long seconds = ChronoUnit.SECONDS.between(sessionStartTime, LocalDateTime.now());
-            long hours = seconds / 3600;
-            long minutes = (seconds % 3600) / 60;
-            long secs = seconds % 60;
+            startButton.setDisable(false);
+            stopButton.setDisable(true);
+            activityComboBox.setDisable(false);
 
-            timerLabel.setText(String.format("%02d:%02d:%02d", hours, minutes, secs));
+            currentActivityLabel.setText("No active activity");
+            statusLabel.setText("Ready to start tracking");
         }
     }
 
-    private void loadTodaySessions() {
-        List<ActivitySession> sessions = timeTrackingService.getTodaySessions(user.getUserId());
-        sessionsTable.getItems().clear();
-        sessionsTable.getItems().addAll(sessions);
+    /**
+     * Resume the active session (if any) and bring today's sessions up to date
+     */
+    @Override
+    public void onShow() {
+        checkActiveSession();
+        todaySessions.startListening();
     }
 
-    private void updateStatsPanel() {
-        // Clear existing stats (keep title)
-        if (todayStatsBox.getChildren().size() > 1) {
-            todayStatsBox.getChildren().remove(1, todayStatsBox.getChildren().size());
-        }
-
-        Map<String, Integer> timeByActivity = timeTrackingService.getTodayTimeByActivity(user.getUserId());
-        int totalMinutes = timeByActivity.values().stream().mapToInt(Integer::intValue).sum();
-
-        // Total time
-        Label totalLabel = new Label(String.format("Total: %.1f hours", totalMinutes / 60.0));
-        totalLabel.getStyleClass().add("stats-total");
-        todayStatsBox.getChildren().add(totalLabel);
-
-        // Separator
-        Separator separator = new Separator();
-        todayStatsBox.getChildren().add(separator);
-
-        // Time per activity
-        for (ActivityType type : ActivityType.values()) {
-            String typeName = type.getDisplayName();
-            int minutes = timeByActivity.getOrDefault(typeName, 0);
-
-            if (minutes > 0) {
-                VBox activityBox = new VBox(3);
-
-                Label nameLabel = new Label(typeName);
-                nameLabel.getStyleClass().add("stats-activity-name");
-
-                Label timeLabel = new Label(String.format("%.1f hours (%d min)",
-                        minutes / 60.0, minutes));
-                timeLabel.getStyleClass().add("stats-activity-time");
+    /**
+     * Unsubscribe the timer and today's sessions while the view is not visible
+     */
+    @Override
+    public void onHide() {
+        sessionTimer.stop();
+        todaySessions.stopListening();
+    }
 
-                activityBox.getChildren().addAll(nameLabel, timeLabel);
-                todayStatsBox.getChildren().add(activityBox);
-            }
-        }
+    @Override
+    public void onClose() {
+        todaySessions.stopListening();
     }
 
     private HBox createFooter() {
@@ -1,8 +1,11 @@
 package com.views;
 
+import com.interfaces.View;
 import com.models.User;
 import com.services.AnalyticsService;
 import com.services.AnalyticsService.*;
+import com.services.ServiceRegistry;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -15,14 +18,20 @@ import javafx.scene.chart.*;
 
 import java.time.LocalDate;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Analytics View - Shows time usage statistics and comparisons
  */
-public class AnalyticsView {
+public class AnalyticsView implements View {
     private Stage stage;
     private User user;
     private AnalyticsService analyticsService;
+    // Data version of the last load; -1 until the first load
+    private long loadedVersion = -1;
+    // Bumped by each load, so a slow result from an earlier load is ignored
+    private int loadRequest;
 
     private ComboBox<String> periodComboBox;
     private DatePicker datePicker;
@@ -31,9 +40,10 @@ public class AnalyticsView {
     public AnalyticsView(Stage stage, User user) {
         this.stage = stage;
         this.user = user;
-        this.analyticsService = new AnalyticsService();
+        this.analyticsService = ServiceRegistry.getInstance().get(AnalyticsService.class);
     }
 
+    @Override
     public Scene createScene() {
         BorderPane root = new BorderPane();
         root.getStyleClass().add("background-light");
@@ -58,10 +68,7 @@ public class AnalyticsView {
 
         Button backButton = new Button("← Back");
         backButton.getStyleClass().addAll("btn", "btn-white-primary");
-        backButton.setOnAction(e -> {
-            DashboardView dashboardView = new DashboardView(stage, user);
-            stage.setScene(dashboardView.createScene());
-        });
+        backButton.setOnAction(e -> NavigationController.of(stage).showDashboard());
 
         Region spacer1 = new Region();
         HBox.setHgrow(spacer1, Priority.ALWAYS);
@@ -118,30 +125,61 @@ public class AnalyticsView {
         centerPanel.getChildren().addAll(controlsBox, scrollPane);
         VBox.setVgrow(scrollPane, Priority.ALWAYS);
 
-        // Load initial analytics
-        loadAnalytics();
-
         return centerPanel;
     }
 
+    /**
+     * Reload only when sessions changed since the last load
+     */
+    @Override
+    public void onShow() {
+        if (analyticsService.getDataVersion() != loadedVersion) {
+            loadAnalytics();
+        }
+    }
+
     private void loadAnalytics() {
+        loadedVersion = analyticsService.getDataVersion();
         String period = periodComboBox.getValue();
         LocalDate selectedDate = datePicker.getValue();
 
-        contentBox.getChildren().clear();
+        contentBox.getChildren().setAll(new Label("Loading..."));
 
+        int userId = user.getUserId();
         if ("Daily".equals(period)) {
-            loadDailyAnalytics(selectedDate);
+            showWhenLoaded(analyticsService.getDailyAnalyticsAsync(userId, selectedDate),
+                    analytics -> showDailyAnalytics(selectedDate, analytics));
         } else if ("Weekly".equals(period)) {
-            loadWeeklyAnalytics(selectedDate);
+            showWhenLoaded(analyticsService.getWeeklyAnalyticsAsync(userId, selectedDate), this::showWeeklyAnalytics);
         } else if ("Monthly".equals(period)) {
-            loadMonthlyAnalytics(selectedDate);
+            showWhenLoaded(analyticsService.getMonthlyAnalyticsAsync(userId,
+                    selectedDate.getYear(), selectedDate.getMonthValue()),
+                    analytics -> showMonthlyAnalytics(selectedDate, analytics));
         }
     }
 
-    private void loadDailyAnalytics(LocalDate date) {
-        DailyAnalytics analytics = analyticsService.getDailyAnalytics(user.getUserId(), date);
+    /**
+     * Show the analytics on the FX thread once read, unless a newer load was started meanwhile
+     */
+    private <T> void showWhenLoaded(CompletableFuture<T> analytics, Consumer<T> show) {
+        int request = ++loadRequest;
+        analytics.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (request != loadRequest) {
+                return;
+            }
+            contentBox.getChildren().clear();
+            if (error != null) {
+                System.err.println(" Analytics load failed: " + error.getMessage());
+                // Load again on the next showing
+                loadedVersion = -1;
+                contentBox.getChildren().add(new Label("Could not load analytics"));
+                return;
+            }
+            show.accept(result);
+        }));
+    }
 
+    private void showDailyAnalytics(LocalDate date, DailyAnalytics analytics) {
         // Title
         Label titleLabel = new Label("Daily Analytics - " + date.toString());
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
@@ -163,9 +201,7 @@ public class AnalyticsView {
         contentBox.getChildren().add(pieChart);
     }
 
-    private void loadWeeklyAnalytics(LocalDate endDate) {
-        WeeklyAnalytics analytics = analyticsService.getWeeklyAnalytics(user.getUserId(), endDate);
-
+    private void showWeeklyAnalytics(WeeklyAnalytics analytics) {
         Label titleLabel = new Label(String.format("Weekly Analytics - %s to %s",
                 analytics.getStartDate(), analytics.getEndDate()));
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
@@ -180,10 +216,7 @@ public class AnalyticsView {
         contentBox.getChildren().add(avgTable);
     }
 
-    private void loadMonthlyAnalytics(LocalDate date) {
-        MonthlyAnalytics analytics = analyticsService.getMonthlyAnalytics(user.getUserId(),
-                date.getYear(), date.getMonthValue());
-
+    private void showMonthlyAnalytics(LocalDate date, MonthlyAnalytics analytics) {
         Label titleLabel = new Label(String.format("Monthly Analytics - %s %d",
                 date.getMonth(), date.getYear()));
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
@@ -0,0 +1,95 @@
+package com.views;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.util.Duration;
+
+/**
+ * Application-wide one-second ticker for live timers - Singleton pattern
+ *
+ * One Timeline drives every subscriber, and it only runs while at least one
+ * subscriber is alive: with no live timer on screen nothing ticks at all.
+ * Subscribers are held weakly, so a view that is thrown away without
+ * unsubscribing cannot keep the ticker (or itself) alive. The caller must
+ * keep a strong reference to its listener, e.g. in a field of the view.
+ * All methods must be called on the FX thread.
+ */
+public class ClockTicker {
+    private static ClockTicker instance;
+
+    private final List<WeakReference<Listener>> listeners = new ArrayList<>();
+    private final Timeline timeline;
+
+    private ClockTicker() {
+        timeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> tick()));
+        timeline.setCycleCount(Animation.INDEFINITE);
+    }
+
+    public static synchronized ClockTicker getInstance() {
+        if (instance == null) {
+            instance = new ClockTicker();
+        }
+        return instance;
+    }
+
+    /**
+     * Receives a tick once per second with the current System.nanoTime()
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void onTick(long nowNanos);
+    }
+
+    public void subscribe(Listener listener) {
+        for (WeakReference<Listener> reference : listeners) {
+            if (reference.get() == listener) {
+                return;
+            }
+        }
+        listeners.add(new WeakReference<>(listener));
+        if (timeline.getStatus() != Animation.Status.RUNNING) {
+            timeline.play();
+        }
+    }
+
+    public void unsubscribe(Listener listener) {
+        listeners.removeIf(reference -> {
+            Listener current = reference.get();
+            return current == null || current == listener;
+        });
+        stopIfIdle();
+    }
+
+    public int getSubscriberCount() {
+        return listeners.size();
+    }
+
+    public boolean isRunning() {
+        return timeline.getStatus() == Animation.Status.RUNNING;
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        Iterator<WeakReference<Listener>> iterator = listeners.iterator();
+        while (iterator.hasNext()) {
+            Listener listener = iterator.next().get();
+            if (listener == null) {
+                iterator.remove();
+            } else {
+                listener.onTick(now);
+            }
+        }
+        stopIfIdle();
+    }
+
+    private void stopIfIdle() {
+        if (listeners.isEmpty()) {
+            timeline.stop();
+        }
+    }
+}
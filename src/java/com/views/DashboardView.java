@@ -2,6 +2,7 @@ package com.views;
 
 import javafx.scene.control.Label;
 
+import com.interfaces.View;
 import com.models.User;
 import com.services.AuthenticationService;
 import javafx.geometry.Insets;
@@ -15,7 +16,7 @@ import javafx.stage.Stage;
  * Dashboard View - BorderPane layout (Chapter 7 compliant)
  * Main navigation hub
  */
-public class DashboardView {
+public class DashboardView implements View {
     private Stage stage;
     private User user;
     private AuthenticationService authService;
@@ -26,6 +27,7 @@ public class DashboardView {
         this.authService = AuthenticationService.getInstance();
     }
 
+    @Override
     public Scene createScene() {
         BorderPane root = new BorderPane();
         root.getStyleClass().add("background-light");
@@ -121,25 +123,17 @@ public class DashboardView {
                 "Logout from your account", "nav-card-danger");
 
         // Event handlers using lambda expressions
-        activityButton.setOnAction(e -> {
-            ActivityTrackingView activityView = new ActivityTrackingView(stage, user);
-            stage.setScene(activityView.createScene());
-        });
+        activityButton.setOnAction(e -> NavigationController.of(stage)
+                .show(ActivityTrackingView.class, () -> new ActivityTrackingView(stage, user)));
 
-        analyticsButton.setOnAction(e -> {
-            AnalyticsView analyticsView = new AnalyticsView(stage, user);
-            stage.setScene(analyticsView.createScene());
-        });
+        analyticsButton.setOnAction(e -> NavigationController.of(stage)
+                .show(AnalyticsView.class, () -> new AnalyticsView(stage, user)));
 
-        reportsButton.setOnAction(e -> {
-            ReportsView reportsView = new ReportsView(stage, user);
-            stage.setScene(reportsView.createScene());
-        });
+        reportsButton.setOnAction(e -> NavigationController.of(stage)
+                .show(ReportsView.class, () -> new ReportsView(stage, user)));
 
-        recommendationsButton.setOnAction(e -> {
-            RecommendationsView recommendationsView = new RecommendationsView(stage, user);
-            stage.setScene(recommendationsView.createScene());
-        });
+        recommendationsButton.setOnAction(e -> NavigationController.of(stage)
+                .show(RecommendationsView.class, () -> new RecommendationsView(stage, user)));
 
         logoutButton.setOnAction(e -> {
             Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
@@ -149,9 +143,11 @@ public class DashboardView {
 
             confirm.showAndWait().ifPresent(response -> {
                 if (response == ButtonType.OK) {
-                    authService.logout();
+                    authService.logout((String) stage.getUserData());
+                    stage.setUserData(null);
+                    NavigationController.of(stage).close();
                     LoginView loginView = new LoginView(stage);
-                    stage.setScene(loginView.createScene());
+                    stage.setScene(NavigationController.createScene(loginView));
                 }
             });
         });
@@ -0,0 +1,108 @@
+package com.views;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import javafx.scene.control.Label;
+
+/**
+ * Elapsed-time display (HH:MM:SS) driven by the shared ClockTicker
+ *
+ * Elapsed time is measured from a System.nanoTime() baseline taken once at
+ * start, so it is not affected by wall-clock changes and a tick does no date
+ * arithmetic. The text is written into a reused char buffer and the label is
+ * only updated when the shown second changes.
+ */
+public class LiveTimer implements ClockTicker.Listener {
+    private static final String ZERO = "00:00:00";
+
+    private final Label label;
+    // Enough for 19 hour digits plus ":MM:SS"
+    private final char[] buffer = new char[25];
+    private long baselineNanos;
+    private long shownSeconds = -1;
+    private boolean running;
+
+    public LiveTimer(Label label) {
+        this.label = label;
+    }
+
+    /**
+     * Start counting from a wall-clock start time (e.g. a resumed session)
+     */
+    public void start(LocalDateTime startTime) {
+        long elapsedNanos = Math.max(0, Duration.between(startTime, LocalDateTime.now()).toNanos());
+        start(System.nanoTime() - elapsedNanos);
+    }
+
+    /**
+     * Start counting from a System.nanoTime() baseline
+     */
+    public void start(long baselineNanos) {
+        this.baselineNanos = baselineNanos;
+        this.shownSeconds = -1;
+        this.running = true;
+        ClockTicker.getInstance().subscribe(this);
+        onTick(System.nanoTime());
+    }
+
+    /**
+     * Stop ticking; the label keeps its last value
+     */
+    public void stop() {
+        if (running) {
+            running = false;
+            ClockTicker.getInstance().unsubscribe(this);
+        }
+    }
+
+    /**
+     * Stop ticking and show 00:00:00
+     */
+    public void reset() {
+        stop();
+        shownSeconds = -1;
+        label.setText(ZERO);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void onTick(long nowNanos) {
+        long seconds = Math.max(0, (nowNanos - baselineNanos) / 1_000_000_000L);
+        if (seconds == shownSeconds) {
+            return;
+        }
+        shownSeconds = seconds;
+        int length = format(seconds, buffer);
+        label.setText(new String(buffer, 0, length));
+    }
+
+    /**
+     * Write seconds as HH:MM:SS (more hour digits when needed) into buffer
+     * Returns the number of chars written
+     */
+    static int format(long seconds, char[] buffer) {
+        long hours = seconds / 3600;
+        int minutes = (int) (seconds % 3600 / 60);
+        int secs = (int) (seconds % 60);
+
+        int hourDigits = 2;
+        for (long h = hours / 100; h > 0; h /= 10) {
+            hourDigits++;
+        }
+        int pos = hourDigits;
+        for (long h = hours; pos > 0; h /= 10) {
+            buffer[--pos] = (char) ('0' + h % 10);
+        }
+        pos = hourDigits;
+        buffer[pos++] = ':';
+        buffer[pos++] = (char) ('0' + minutes / 10);
+        buffer[pos++] = (char) ('0' + minutes % 10);
+        buffer[pos++] = ':';
+        buffer[pos++] = (char) ('0' + secs / 10);
+        buffer[pos++] = (char) ('0' + secs % 10);
+        return pos;
+    }
+}
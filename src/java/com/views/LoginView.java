@@ -1,7 +1,8 @@
 package com.views;
 
+import com.interfaces.View;
 import com.services.AuthenticationService;
-import com.services.AuthenticationService.AuthResult;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -9,7 +10,7 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
-public class LoginView {
+public class LoginView implements View {
     private Stage stage;
     private AuthenticationService authService;
 
@@ -18,6 +19,7 @@ public class LoginView {
         this.authService = AuthenticationService.getInstance();
     }
 
+    @Override
     public Scene createScene() {
         // Main container with colorful layout
         BorderPane root = new BorderPane();
@@ -178,20 +180,28 @@ public class LoginView {
                 showMessage(messageLabel, "Please enter username and password", true);
                 return;
             }
-            AuthResult result = authService.login(username, password);
-
-            if (result.isSuccess()) {
-                showMessage(messageLabel, "Login successful!", false);
-                DashboardView dashboardView = new DashboardView(stage, result.getUser());
-                stage.setScene(dashboardView.createScene());
-            } else {
-                showMessage(messageLabel, result.getMessage(), true);
-            }
+            // Password hashing is slow on purpose: keep it off the FX thread
+            loginButton.setDisable(true);
+            showMessage(messageLabel, "Signing in...", false);
+            authService.loginAsync(username, password).whenComplete((result, error) -> Platform.runLater(() -> {
+                loginButton.setDisable(false);
+                if (error != null) {
+                    showMessage(messageLabel, "Login failed, please try again", true);
+                } else if (result.isSuccess()) {
+                    showMessage(messageLabel, "Login successful!", false);
+                    // The window keeps the session token until logout
+                    stage.setUserData(result.getToken());
+                    // Views built from here on are cached for this login session
+                    NavigationController.start(stage, result.getUser()).showDashboard();
+                } else {
+                    showMessage(messageLabel, result.getMessage(), true);
+                }
+            }));
         });
 
         registerButton.setOnAction(e -> {
             RegistrationView registrationView = new RegistrationView(stage);
-            stage.setScene(registrationView.createScene());
+            stage.setScene(NavigationController.createScene(registrationView));
         });
 
         passwordField.setOnAction(e -> loginButton.fire());
@@ -0,0 +1,152 @@
+package com.views;
+
+import com.interfaces.View;
+import com.metrics.ViewLoadEvent;
+import com.models.User;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+/**
+ * Navigation controller - one per logged-in session of a window
+ *
+ * Keeps the views built during the session together with their scenes, so
+ * going back to a page swaps in the existing scene instead of rebuilding the
+ * node tree and re-parsing the stylesheet. At most MAX_CACHED_VIEWS are kept;
+ * the least recently shown one is dropped beyond that. Views are told when
+ * they are shown, hidden and dropped through the View hooks.
+ */
+public class NavigationController {
+    private static final int MAX_CACHED_VIEWS = 5;
+
+    private final Stage stage;
+    private final User user;
+    private final Map<Class<? extends View>, CachedView> cache =
+            new LinkedHashMap<>(8, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Class<? extends View>, CachedView> eldest) {
+                    if (size() <= MAX_CACHED_VIEWS) {
+                        return false;
+                    }
+                    eldest.getValue().view.onClose();
+                    return true;
+                }
+            };
+    private CachedView current;
+    private long lastSwitchNanos;
+
+    private NavigationController(Stage stage, User user) {
+        this.stage = stage;
+        this.user = user;
+    }
+
+    /**
+     * Open a navigation session for a newly logged-in user
+     */
+    public static NavigationController start(Stage stage, User user) {
+        NavigationController previous = find(stage);
+        if (previous != null) {
+            previous.close();
+        }
+        NavigationController controller = new NavigationController(stage, user);
+        stage.getProperties().put(NavigationController.class, controller);
+        return controller;
+    }
+
+    /**
+     * Get the navigation session of a window
+     */
+    public static NavigationController of(Stage stage) {
+        NavigationController controller = find(stage);
+        if (controller == null) {
+            throw new IllegalStateException("No navigation session for this window");
+        }
+        return controller;
+    }
+
+    /**
+     * Show a view, reusing its cached scene when there is one
+     */
+    public <V extends View> void show(Class<V> type, Supplier<V> factory) {
+        long start = System.nanoTime();
+        ViewLoadEvent event = ViewLoadEvent.start();
+
+        CachedView target = cache.get(type);
+        boolean cached = target != null;
+        if (target == null) {
+            View view = factory.get();
+            target = new CachedView(view, view.createScene());
+            cache.put(type, target);
+        }
+        if (target == current) {
+            return;
+        }
+
+        if (current != null) {
+            current.view.onHide();
+        }
+        current = target;
+        stage.setScene(target.scene);
+        target.view.onShow();
+
+        lastSwitchNanos = System.nanoTime() - start;
+        event.finish(type, cached);
+    }
+
+    /**
+     * Build the scene of a view shown outside a navigation session (login, registration)
+     * Recorded as a view load like the views shown through show()
+     */
+    public static Scene createScene(View view) {
+        ViewLoadEvent event = ViewLoadEvent.start();
+        Scene scene = view.createScene();
+        event.finish(view.getClass(), false);
+        return scene;
+    }
+
+    /**
+     * Show the dashboard of this session
+     */
+    public void showDashboard() {
+        show(DashboardView.class, () -> new DashboardView(stage, user));
+    }
+
+    /**
+     * End the session: hide the current view and drop every cached scene
+     */
+    public void close() {
+        if (current != null) {
+            current.view.onHide();
+            current = null;
+        }
+        for (CachedView cached : cache.values()) {
+            cached.view.onClose();
+        }
+        cache.clear();
+        stage.getProperties().remove(NavigationController.class, this);
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public double getLastSwitchMillis() {
+        return lastSwitchNanos / 1_000_000.0;
+    }
+
+    private static NavigationController find(Stage stage) {
+        return (NavigationController) stage.getProperties().get(NavigationController.class);
+    }
+
+    private static class CachedView {
+        private final View view;
+        private final Scene scene;
+
+        CachedView(View view, Scene scene) {
+            this.view = view;
+            this.scene = scene;
+        }
+    }
+}
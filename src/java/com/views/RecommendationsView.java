@@ -1,8 +1,11 @@
 package com.views;
 
+import com.interfaces.View;
 import com.models.User;
 import com.models.Recommendation;
 import com.services.RecommendationService;
+import com.services.ServiceRegistry;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -18,10 +21,14 @@ import java.util.List;
 /**
  * Recommendations View - Shows personalized recommendations
  */
-public class RecommendationsView {
+public class RecommendationsView implements View {
     private Stage stage;
     private User user;
     private RecommendationService recommendationService;
+    // Data version of the last load; -1 until the first load
+    private long loadedVersion = -1;
+    // Bumped by each load, so a slow result from an earlier load is ignored
+    private int loadRequest;
 
     private DatePicker datePicker;
     private VBox recommendationsBox;
@@ -30,9 +37,10 @@ public class RecommendationsView {
     public RecommendationsView(Stage stage, User user) {
         this.stage = stage;
         this.user = user;
-        this.recommendationService = new RecommendationService();
+        this.recommendationService = ServiceRegistry.getInstance().get(RecommendationService.class);
     }
 
+    @Override
     public Scene createScene() {
         BorderPane root = new BorderPane();
         root.getStyleClass().add("background-light");
@@ -57,10 +65,7 @@ public class RecommendationsView {
 
         Button backButton = new Button("← Back");
         backButton.getStyleClass().addAll("btn", "btn-white-purple");
-        backButton.setOnAction(e -> {
-            DashboardView dashboardView = new DashboardView(stage, user);
-            stage.setScene(dashboardView.createScene());
-        });
+        backButton.setOnAction(e -> NavigationController.of(stage).showDashboard());
 
         Region spacer1 = new Region();
         HBox.setHgrow(spacer1, Priority.ALWAYS);
@@ -112,9 +117,6 @@ public class RecommendationsView {
         centerPanel.getChildren().addAll(controlsBox, scoreBox, scrollPane);
         VBox.setVgrow(scrollPane, Priority.ALWAYS);
 
-        // Load initial recommendations
-        loadRecommendations();
-
         return centerPanel;
     }
 
@@ -139,11 +141,48 @@ public class RecommendationsView {
         return scoreBox;
     }
 
+    /**
+     * Reload only when sessions changed since the last load
+     */
+    @Override
+    public void onShow() {
+        if (recommendationService.getDataVersion() != loadedVersion) {
+            loadRecommendations();
+        }
+    }
+
     private void loadRecommendations() {
+        loadedVersion = recommendationService.getDataVersion();
         LocalDate selectedDate = datePicker.getValue();
+        int request = ++loadRequest;
+        productivityScoreLabel.setText("--");
+
+        // Score and recommendations are read in the background; shown together once both are known
+        recommendationService.getProductivityScoreAsync(user.getUserId(), selectedDate)
+                .thenCombine(recommendationService.generateRecommendationsAsync(user.getUserId(), selectedDate),
+                        LoadedRecommendations::new)
+                .whenComplete((loaded, error) -> Platform.runLater(() -> {
+                    if (request != loadRequest) {
+                        return;
+                    }
+                    if (error != null) {
+                        System.err.println(" Recommendations load failed: " + error.getMessage());
+                        // Load again on the next showing
+                        loadedVersion = -1;
+                        recommendationsBox.getChildren().setAll(new Label("Could not load recommendations"));
+                        return;
+                    }
+                    showRecommendations(selectedDate, loaded.score(), loaded.recommendations());
+                }));
+    }
+
+    /**
+     * Productivity score and recommendations of one load
+     */
+    private record LoadedRecommendations(int score, List<Recommendation> recommendations) {
+    }
 
-        // Get productivity score
-        int score = recommendationService.getProductivityScore(user.getUserId(), selectedDate);
+    private void showRecommendations(LocalDate selectedDate, int score, List<Recommendation> recommendations) {
         productivityScoreLabel.setText(score + "/100");
 
         // Color code the score
@@ -156,10 +195,6 @@ public class RecommendationsView {
             productivityScoreLabel.getStyleClass().add("score-poor");
         }
 
-        // Get recommendations
-        List<Recommendation> recommendations = recommendationService.generateRecommendations(
-                user.getUserId(), selectedDate);
-
         // Clear existing recommendations
         recommendationsBox.getChildren().clear();
 
@@ -1,18 +1,24 @@
 package com.views;
 
+import com.interfaces.View;
 import com.services.AuthenticationService;
-import com.services.AuthenticationService.AuthResult;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 /**
  * Registration View - VBox layout (Chapter 7 compliant)
  */
-public class RegistrationView {
+public class RegistrationView implements View {
+    // Availability is checked once typing pauses for this long
+    private static final Duration AVAILABILITY_DELAY = Duration.millis(300);
+
     private Stage stage;
     private AuthenticationService authService;
 
@@ -21,6 +27,7 @@ public class RegistrationView {
         this.authService = AuthenticationService.getInstance();
     }
 
+    @Override
     public Scene createScene() {
         // Main container with colorful layout
         BorderPane root = new BorderPane();
@@ -173,6 +180,50 @@ public class RegistrationView {
         footer.getChildren().add(footerLabel);
         root.setBottom(footer);
 
+        // Availability hints once typing pauses; a possible match costs a query, so check off the FX thread
+        PauseTransition usernamePause = new PauseTransition(AVAILABILITY_DELAY);
+        usernamePause.setOnFinished(e -> {
+            String username = usernameField.getText().trim();
+            if (username.length() < 3) {
+                clearMessage(messageLabel, "Username already exists");
+                return;
+            }
+            authService.isUsernameAvailableAsync(username)
+                    .whenComplete((available, error) -> Platform.runLater(() -> {
+                        // Ignore an answer for text that has changed since
+                        if (error != null || !username.equals(usernameField.getText().trim())) {
+                            return;
+                        }
+                        if (!available) {
+                            showMessage(messageLabel, "Username already exists", true);
+                        } else {
+                            clearMessage(messageLabel, "Username already exists");
+                        }
+                    }));
+        });
+        usernameField.textProperty().addListener((obs, oldValue, newValue) -> usernamePause.playFromStart());
+
+        PauseTransition emailPause = new PauseTransition(AVAILABILITY_DELAY);
+        emailPause.setOnFinished(e -> {
+            String email = emailField.getText().trim();
+            if (!email.contains("@")) {
+                clearMessage(messageLabel, "Email already registered");
+                return;
+            }
+            authService.isEmailAvailableAsync(email)
+                    .whenComplete((available, error) -> Platform.runLater(() -> {
+                        if (error != null || !email.equals(emailField.getText().trim())) {
+                            return;
+                        }
+                        if (!available) {
+                            showMessage(messageLabel, "Email already registered", true);
+                        } else {
+                            clearMessage(messageLabel, "Email already registered");
+                        }
+                    }));
+        });
+        emailField.textProperty().addListener((obs, oldValue, newValue) -> emailPause.playFromStart());
+
         // Event handlers using lambda expressions
         registerButton.setOnAction(e -> {
             String fullName = fullNameField.getText().trim();
@@ -193,29 +244,34 @@ public class RegistrationView {
                 return;
             }
 
-            // Register user
-            AuthResult result = authService.register(username, email, password, fullName);
-
-            if (result.isSuccess()) {
-                showMessage(messageLabel, "Registration successful! Redirecting to login...", false);
-
-                // Delay and redirect to login
-                javafx.animation.Timeline timeline = new javafx.animation.Timeline(
-                        new javafx.animation.KeyFrame(
-                                javafx.util.Duration.seconds(2),
-                                event -> {
-                                    LoginView loginView = new LoginView(stage);
-                                    stage.setScene(loginView.createScene());
-                                }));
-                timeline.play();
-            } else {
-                showMessage(messageLabel, result.getMessage(), true);
-            }
+            // Register user off the FX thread (password hashing is slow on purpose)
+            registerButton.setDisable(true);
+            authService.registerAsync(username, email, password, fullName)
+                    .whenComplete((result, error) -> Platform.runLater(() -> {
+                        registerButton.setDisable(false);
+                        if (error != null) {
+                            showMessage(messageLabel, "Registration failed, please try again", true);
+                        } else if (result.isSuccess()) {
+                            showMessage(messageLabel, "Registration successful! Redirecting to login...", false);
+
+                            // Delay and redirect to login
+                            javafx.animation.Timeline timeline = new javafx.animation.Timeline(
+                                    new javafx.animation.KeyFrame(
+                                            javafx.util.Duration.seconds(2),
+                                            event -> {
+                                                LoginView loginView = new LoginView(stage);
+                                                stage.setScene(NavigationController.createScene(loginView));
+                                            }));
+                            timeline.play();
+                        } else {
+                            showMessage(messageLabel, result.getMessage(), true);
+                        }
+                    }));
         });
 
         backButton.setOnAction(e -> {
             LoginView loginView = new LoginView(stage);
-            stage.setScene(loginView.createScene());
+            stage.setScene(NavigationController.createScene(loginView));
         });
 
         Scene scene = new Scene(root, 800, 750);
@@ -228,4 +284,13 @@ public class RegistrationView {
         label.getStyleClass().removeAll("message-success", "message-error");
         label.getStyleClass().add(isError ? "message-error" : "message-success");
     }
+
+    /**
+     * Clear the label if it still shows the given message
+     */
+    private void clearMessage(Label label, String message) {
+        if (message.equals(label.getText())) {
+            label.setText("");
+        }
+    }
 }
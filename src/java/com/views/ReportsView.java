@@ -1,8 +1,12 @@
 package com.views;
 
+import com.interfaces.View;
 import com.models.User;
 import com.models.ActivitySession;
 import com.services.TimeTrackingService;
+import com.services.ReportFormatter;
+import com.services.ServiceRegistry;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -17,15 +21,13 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Reports View - Generate and export reports
+ * The sessions of a generated report are kept, so the CSV export shows exactly what the preview does
  */
-public class ReportsView {
+public class ReportsView implements View {
     private Stage stage;
     private User user;
     private TimeTrackingService timeTrackingService;
@@ -34,13 +36,18 @@ public class ReportsView {
     private DatePicker startDatePicker;
     private DatePicker endDatePicker;
     private TextArea reportPreviewArea;
+    // Sessions of the previewed report, read from one snapshot
+    private List<ActivitySession> reportSessions;
+    // Bumped by each generate, so a slow result from an earlier one is ignored
+    private int reportRequest;
 
     public ReportsView(Stage stage, User user) {
         this.stage = stage;
         this.user = user;
-        this.timeTrackingService = new TimeTrackingService();
+        this.timeTrackingService = ServiceRegistry.getInstance().get(TimeTrackingService.class);
     }
 
+    @Override
     public Scene createScene() {
         BorderPane root = new BorderPane();
         root.getStyleClass().add("background-light");
@@ -65,10 +72,7 @@ public class ReportsView {
 
         Button backButton = new Button("← Back");
         backButton.getStyleClass().addAll("btn", "btn-white-warning");
-        backButton.setOnAction(e -> {
-            DashboardView dashboardView = new DashboardView(stage, user);
-            stage.setScene(dashboardView.createScene());
-        });
+        backButton.setOnAction(e -> NavigationController.of(stage).showDashboard());
 
         Region spacer1 = new Region();
         HBox.setHgrow(spacer1, Priority.ALWAYS);
@@ -212,81 +216,28 @@ public class ReportsView {
             return;
         }
 
-        List<ActivitySession> sessions = timeTrackingService.getSessionsByDateRange(
-                user.getUserId(), startDate, endDate);
-
-        StringBuilder report = new StringBuilder();
-        report.append("═══════════════════════════════════════════════════════════\n");
-        report.append("                 INTELLICOACH TIME TRACKING REPORT\n");
-        report.append("═══════════════════════════════════════════════════════════\n\n");
-        report.append("User: ").append(user.getFullName()).append(" (").append(user.getUsername()).append(")\n");
-        report.append("Report Period: ").append(startDate).append(" to ").append(endDate).append("\n");
-        report.append("Generated: ").append(LocalDate.now()).append("\n\n");
-        report.append("───────────────────────────────────────────────────────────\n\n");
-
-        if (sessions.isEmpty()) {
-            report.append("No activity sessions found for this period.\n");
-        } else {
-            // Summary statistics
-            Map<String, Integer> totalByActivity = sessions.stream()
-                    .filter(s -> s.getDurationMinutes() > 0)
-                    .collect(Collectors.groupingBy(
-                            ActivitySession::getActivityType,
-                            Collectors.summingInt(ActivitySession::getDurationMinutes)));
-
-            int grandTotal = totalByActivity.values().stream().mapToInt(Integer::intValue).sum();
-
-            report.append("SUMMARY STATISTICS:\n");
-            report.append("───────────────────────────────────────────────────────────\n");
-            report.append(String.format("Total Sessions: %d\n", sessions.size()));
-            report.append(String.format("Total Time: %.1f hours (%d minutes)\n\n",
-                    grandTotal / 60.0, grandTotal));
-
-            report.append("Time by Activity:\n");
-            for (Map.Entry<String, Integer> entry : totalByActivity.entrySet()) {
-                double hours = entry.getValue() / 60.0;
-                double percentage = (entry.getValue() * 100.0) / grandTotal;
-                report.append(String.format("  %-20s: %6.1f hours (%5.1f%%)\n",
-                        entry.getKey(), hours, percentage));
-            }
+        int request = ++reportRequest;
+        reportSessions = null;
+        reportPreviewArea.setText("Generating report...");
 
-            report.append("\n───────────────────────────────────────────────────────────\n\n");
-
-            // Detailed sessions
-            report.append("DETAILED SESSIONS:\n");
-            report.append("───────────────────────────────────────────────────────────\n");
-            report.append(String.format("%-12s %-20s %-10s %-10s %-10s\n",
-                    "Date", "Activity", "Start", "End", "Duration"));
-            report.append("───────────────────────────────────────────────────────────\n");
-
-            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
-
-            for (ActivitySession session : sessions) {
-                if (session.getDurationMinutes() > 0) {
-                    String date = session.getSessionDate().format(dateFormatter);
-                    String activity = session.getActivityType();
-                    String start = session.getStartTime().format(timeFormatter);
-                    String end = session.getEndTime() != null ? session.getEndTime().format(timeFormatter) : "Active";
-                    String duration = String.format("%dh %dm",
-                            session.getDurationMinutes() / 60,
-                            session.getDurationMinutes() % 60);
-
-                    report.append(String.format("%-12s %-20s %-10s %-10s %-10s\n",
-                            date, activity, start, end, duration));
-                }
-            }
-        }
-
-        report.append("\n═══════════════════════════════════════════════════════════\n");
-        report.append("                    END OF REPORT\n");
-        report.append("═══════════════════════════════════════════════════════════\n");
-
-        reportPreviewArea.setText(report.toString());
+        timeTrackingService.getReportSessionsAsync(user.getUserId(), startDate, endDate)
+                .whenComplete((sessions, error) -> Platform.runLater(() -> {
+                    if (request != reportRequest) {
+                        return;
+                    }
+                    if (error != null) {
+                        System.err.println(" Report generation failed: " + error.getMessage());
+                        reportPreviewArea.setText("Click 'Generate Report' to preview...");
+                        showAlert("Could not generate the report", Alert.AlertType.ERROR);
+                        return;
+                    }
+                    reportSessions = sessions;
+                    reportPreviewArea.setText(ReportFormatter.formatTextReport(user, startDate, endDate, sessions));
+                }));
     }
 
     private void exportToCSV() {
-        if (reportPreviewArea.getText().contains("Click 'Generate Report'")) {
+        if (reportSessions == null) {
             showAlert("Please generate a report first", Alert.AlertType.WARNING);
             return;
         }
@@ -301,33 +252,8 @@ public class ReportsView {
 
         if (file != null) {
             try {
-                LocalDate startDate = startDatePicker.getValue();
-                LocalDate endDate = endDatePicker.getValue();
-
-                List<ActivitySession> sessions = timeTrackingService.getSessionsByDateRange(
-                        user.getUserId(), startDate, endDate);
-
                 FileWriter writer = new FileWriter(file);
-
-                // CSV Header
-                writer.write("Date,Activity,Start Time,End Time,Duration (minutes),Duration (hours)\n");
-
-                // CSV Data
-                DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-                DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
-
-                for (ActivitySession session : sessions) {
-                    if (session.getDurationMinutes() > 0) {
-                        writer.write(String.format("%s,%s,%s,%s,%d,%.2f\n",
-                                session.getSessionDate().format(dateFormatter),
-                                session.getActivityType(),
-                                session.getStartTime().format(timeFormatter),
-                                session.getEndTime() != null ? session.getEndTime().format(timeFormatter) : "Active",
-                                session.getDurationMinutes(),
-                                session.getDurationHours()));
-                    }
-                }
-
+                ReportFormatter.writeCsv(writer, reportSessions);
                 writer.close();
                 showAlert("Report exported successfully to:\n" + file.getAbsolutePath(),
                         Alert.AlertType.INFORMATION);
@@ -339,7 +265,7 @@ public class ReportsView {
     }
 
     private void exportToTXT() {
-        if (reportPreviewArea.getText().contains("Click 'Generate Report'")) {
+        if (reportSessions == null) {
             showAlert("Please generate a report first", Alert.AlertType.WARNING);
             return;
         }
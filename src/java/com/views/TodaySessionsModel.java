@@ -0,0 +1,194 @@
+package com.views;
+
+import com.models.ActivitySession;
+import com.models.ActivityType;
+import com.events.EventBus;
+import com.events.EventHandler;
+import com.services.TimeTrackingService;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * Observable model of one user's sessions for today
+ *
+ * Loaded from the database when its view is shown, then kept current from
+ * the session events on the EventBus while the view stays visible: a start
+ * appends one row, a stop replaces the active row and adds its minutes to
+ * the bound stat properties. Tables and labels bound to it update in place
+ * without re-querying. Hidden views hold no subscription, so they cost the
+ * bus nothing; missed events are made up by the reload on the next show.
+ * Reloads query on a background thread; all observable state is changed on
+ * the FX thread. An event that arrives while a reload is in flight makes the
+ * reload run again, so its older result never overwrites the event.
+ */
+public class TodaySessionsModel implements EventHandler {
+    private final int userId;
+    private final TimeTrackingService timeTrackingService;
+
+    private final ObservableList<ActivitySession> sessions = FXCollections.observableArrayList();
+    private final ReadOnlyIntegerWrapper totalMinutes = new ReadOnlyIntegerWrapper();
+    private final Map<String, ReadOnlyIntegerWrapper> minutesByActivity = new HashMap<>();
+    private LocalDate date;
+    // FX thread only
+    private EventBus.Subscription subscription;
+    private boolean reloading;
+    private boolean reloadAgain;
+
+    public TodaySessionsModel(int userId, TimeTrackingService timeTrackingService) {
+        this.userId = userId;
+        this.timeTrackingService = timeTrackingService;
+        for (ActivityType type : ActivityType.values()) {
+            minutesByActivity.put(type.getDisplayName(), new ReadOnlyIntegerWrapper());
+        }
+    }
+
+    /**
+     * Follow the session events and reload; call on the FX thread when the view is shown
+     * Subscribing first means an event during the reload makes it run again instead of being lost
+     */
+    public void startListening() {
+        if (subscription == null) {
+            subscription = EventBus.getInstance().subscribe("today-sessions-" + userId, this);
+        }
+        reload();
+    }
+
+    /**
+     * Stop following the session events; call on the FX thread when the view is hidden or discarded
+     */
+    public void stopListening() {
+        if (subscription != null) {
+            subscription.close();
+            subscription = null;
+        }
+    }
+
+    /**
+     * Replace the contents with today's sessions from the database; call on the FX thread
+     * The query runs in the background and the result is applied on the FX thread
+     */
+    public void reload() {
+        date = LocalDate.now();
+        if (reloading) {
+            reloadAgain = true;
+            return;
+        }
+        reloading = true;
+        timeTrackingService.getTodaySessionsAsync(userId)
+                .whenComplete((loaded, error) -> Platform.runLater(() -> {
+                    reloading = false;
+                    if (reloadAgain) {
+                        reloadAgain = false;
+                        reload();
+                    } else if (error != null) {
+                        System.err.println(" Today's sessions reload failed: " + error.getMessage());
+                    } else {
+                        apply(loaded);
+                    }
+                }));
+    }
+
+    private void apply(List<ActivitySession> loaded) {
+        Map<String, Integer> minutes = new HashMap<>();
+        for (ActivitySession session : loaded) {
+            if (!session.isActive()) {
+                minutes.merge(session.getActivityType(), session.getDurationMinutes(), Integer::sum);
+            }
+        }
+        int total = 0;
+        for (Map.Entry<String, ReadOnlyIntegerWrapper> entry : minutesByActivity.entrySet()) {
+            int value = minutes.getOrDefault(entry.getKey(), 0);
+            entry.getValue().set(value);
+            total += value;
+        }
+        totalMinutes.set(total);
+        sessions.setAll(loaded);
+    }
+
+    public ObservableList<ActivitySession> getSessions() {
+        return sessions;
+    }
+
+    public ReadOnlyIntegerProperty totalMinutesProperty() {
+        return totalMinutes.getReadOnlyProperty();
+    }
+
+    public ReadOnlyIntegerProperty minutesProperty(String activityType) {
+        return minutesByActivity.get(activityType).getReadOnlyProperty();
+    }
+
+    @Override
+    public void sessionStarted(int userId, String activityType, LocalDateTime startTime) {
+        if (userId == this.userId) {
+            Platform.runLater(() -> applyStart(activityType, startTime));
+        }
+    }
+
+    @Override
+    public void sessionStopped(int userId, LocalDateTime endTime) {
+        if (userId == this.userId) {
+            Platform.runLater(() -> applyStop(endTime));
+        }
+    }
+
+    @Override
+    public void eventsDropped(long count) {
+        // Could not keep up: the rows may be missing changes, so read them again
+        Platform.runLater(this::reload);
+    }
+
+    private void applyStart(String activityType, LocalDateTime startTime) {
+        if (reloading) {
+            reloadAgain = true; // the reload in flight may predate this event
+        }
+        if (!startTime.toLocalDate().equals(date)) {
+            reload();
+            return;
+        }
+        ActivitySession last = sessions.isEmpty() ? null : sessions.get(sessions.size() - 1);
+        if (last != null && last.isActive() && startTime.equals(last.getStartTime())) {
+            // Already picked up by a reload that raced with this notification
+            return;
+        }
+        // Starting a session stops the previous one, as in the database
+        applyStop(startTime);
+        sessions.add(new ActivitySession(userId, activityType, startTime));
+    }
+
+    private void applyStop(LocalDateTime endTime) {
+        if (reloading) {
+            reloadAgain = true; // the reload in flight may predate this event
+        }
+        // The active session, if any, is the last one started
+        for (int i = sessions.size() - 1; i >= 0; i--) {
+            ActivitySession session = sessions.get(i);
+            if (session.isActive()) {
+                ActivitySession stopped = copyOf(session);
+                stopped.stopActivity(endTime);
+                sessions.set(i, stopped);
+
+                ReadOnlyIntegerWrapper minutes = minutesByActivity.get(stopped.getActivityType());
+                if (minutes != null) {
+                    minutes.set(minutes.get() + stopped.getDurationMinutes());
+                }
+                totalMinutes.set(totalMinutes.get() + stopped.getDurationMinutes());
+                return;
+            }
+        }
+    }
+
+    private static ActivitySession copyOf(ActivitySession session) {
+        ActivitySession copy = new ActivitySession(session.getUserId(), session.getActivityType(),
+                session.getStartTime());
+        copy.setSessionId(session.getSessionId());
+        return copy;
+    }
+}